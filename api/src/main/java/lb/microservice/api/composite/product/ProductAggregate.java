@@ -1,6 +1,7 @@
 package lb.microservice.api.composite.product;
 
 import lb.microservice.api.core.product.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,6 +18,8 @@ public class ProductAggregate {
     private List<RecommendationSummary> recommendations;
     private List<ReviewSummary> reviews;
     private ServiceAddresses serviceAddresses;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ProductRating rating;
 
     public ProductAggregate(Product product, List<RecommendationSummary> recommendations, List<ReviewSummary> reviews, ServiceAddresses serviceAddresses) {
         this.productId = product.getProductId();
@@ -26,4 +29,9 @@ public class ProductAggregate {
         this.reviews = reviews;
         this.serviceAddresses = serviceAddresses;
     }
+
+    public ProductAggregate(int productId, String name, int weight, List<RecommendationSummary> recommendations,
+                            List<ReviewSummary> reviews, ServiceAddresses serviceAddresses) {
+        this(productId, name, weight, recommendations, reviews, serviceAddresses, null);
+    }
 }
@@ -1,12 +1,14 @@
 package lb.microservice.api.composite.product;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 @Tag(name = "ProductComposite", description = "REST API for composite product information.")
@@ -16,6 +18,7 @@ public interface ProductCompositeService {
             description = "${api.product-composite.get-composite-product.notes}")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "${api.responseCodes.ok.description}"),
+            @ApiResponse(responseCode = "304", description = "${api.responseCodes.notModified.description}"),
             @ApiResponse(responseCode = "400", description = "${api.responseCodes.badRequest.description}"),
             @ApiResponse(responseCode = "404", description = "${api.responseCodes.notFound.description}"),
             @ApiResponse(responseCode = "422", description = "${api.responseCodes.unprocessableEntity.description}")
@@ -23,8 +26,9 @@ public interface ProductCompositeService {
     @GetMapping(value = "/product-composite/{productId}",
             produces = "application/json")
     Mono<ProductAggregate> getProduct(@PathVariable int productId,
-                                      @RequestParam(value = "delay", required = false, defaultValue = "0") int delay,
-                                      @RequestParam(value = "faultPercent", required = false, defaultValue = "0") int faultPercent);
+                                      @RequestParam(value = "includeRating", required = false, defaultValue = "false") boolean includeRating,
+                                      @RequestParam(value = "maxRecommendations", required = false) Integer maxRecommendations,
+                                      @Parameter(hidden = true) ServerWebExchange exchange);
 
     @Operation(summary = "${api.product-composite.create-composite-product.description}",
             description = "${api.product-composite.create-composite-product.notes}")
@@ -0,0 +1,17 @@
+package lb.microservice.api.composite.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public final class ProductRating {
+    private long count;
+    private double average;
+    private Map<Integer, Long> histogram;
+
+}
@@ -13,4 +13,9 @@ public final class Product {
     private String name;
     private int weight;
     private String serviceAddress;
+    private Integer version;
+
+    public Product(int productId, String name, int weight, String serviceAddress) {
+        this(productId, name, weight, serviceAddress, null);
+    }
 }
@@ -6,9 +6,7 @@ import reactor.core.publisher.Mono;
 
 public interface ProductService {
     @GetMapping(value = "/product/{productId}", produces = "application/json")
-    Mono<Product> getProduct(@PathVariable int productId,
-                             @RequestParam(value = "delay", required = false, defaultValue = "0") int delay,
-                             @RequestParam(value = "faultPercent", required = false, defaultValue = "0") int faultPercent);
+    Mono<Product> getProduct(@PathVariable int productId);
 
     @PostMapping(value = "/product", consumes = "application/json", produces = "application/json")
     Mono<Product> createProduct(@RequestBody Product body);
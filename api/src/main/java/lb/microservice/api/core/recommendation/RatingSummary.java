@@ -0,0 +1,23 @@
+package lb.microservice.api.core.recommendation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Rating totals of one product's recommendations, the histogram maps a rating to the number of recommendations giving it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class RatingSummary {
+    private int productId;
+    private long count;
+    private long sum;
+    private double average;
+    private Map<Integer, Long> histogram;
+    private String serviceAddress;
+
+}
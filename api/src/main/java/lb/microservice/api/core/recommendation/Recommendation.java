@@ -14,5 +14,10 @@ public final class Recommendation {
     private int rating;
     private String content;
     private String serviceAddress;
+    private Integer version;
+
+    public Recommendation(int productId, int recommendationId, String author, int rating, String content, String serviceAddress) {
+        this(productId, recommendationId, author, rating, content, serviceAddress, null);
+    }
 
 }
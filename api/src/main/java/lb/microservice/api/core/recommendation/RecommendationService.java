@@ -8,6 +8,16 @@ public interface RecommendationService {
     @GetMapping(value = "/recommendation", produces = "application/json")
     Flux<Recommendation> getRecommendations(@RequestParam(value = "productId") int productId);
 
+    /**
+     * The highest rated recommendations of a product, at most limit of them.
+     */
+    @GetMapping(value = "/recommendation/top", produces = "application/json")
+    Flux<Recommendation> getTopRecommendations(@RequestParam(value = "productId") int productId,
+                                               @RequestParam(value = "limit") int limit);
+
+    @GetMapping(value = "/recommendation/summary", produces = "application/json")
+    Mono<RatingSummary> getRatingSummary(@RequestParam(value = "productId") int productId);
+
     @PostMapping(value = "/recommendation", consumes = "application/json", produces = "application/json")
     Mono<Recommendation> createRecommendation(@RequestBody Recommendation recommendation);
 
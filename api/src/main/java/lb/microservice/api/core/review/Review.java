@@ -14,5 +14,10 @@ public final class Review {
     private String subject;
     private String content;
     private String serviceAddress;
+    private Integer version;
+
+    public Review(int productId, int reviewId, String author, String subject, String content, String serviceAddress) {
+        this(productId, reviewId, author, subject, content, serviceAddress, null);
+    }
 
 }
@@ -0,0 +1,23 @@
+package lb.microservice.api.core.review;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of reviews matching a search, best match first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class ReviewSearchResult {
+    private int productId;
+    private String query;
+    private long totalHits;
+    private int page;
+    private int size;
+    private List<Review> reviews;
+
+}
@@ -8,6 +8,11 @@ public interface ReviewService {
     @GetMapping(value = "/review", produces = "application/json")
     Flux<Review> getReviews(@RequestParam int productId);
 
+    @GetMapping(value = "/review/search", produces = "application/json")
+    Mono<ReviewSearchResult> searchReviews(@RequestParam int productId,
+                                           @RequestParam String query,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "10") int size);
 
     @PostMapping(value = "/review", consumes = "application/json", produces = "application/json")
     Mono<Review> createReview(@RequestBody Review review);
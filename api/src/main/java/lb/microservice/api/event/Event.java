@@ -1,19 +1,24 @@
 package lb.microservice.api.event;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.ZonedDateTime;
+import java.util.UUID;
 
 @Getter
 @NoArgsConstructor
+@AllArgsConstructor
 public class Event <K,T> {
+    private String eventId;
     private Type eventType;
     private K key;
     private T data;
     private ZonedDateTime eventCreatedAt;
 
     public Event(Type eventType, K key, T data) {
+        this.eventId = UUID.randomUUID().toString();
         this.eventType = eventType;
         this.key = key;
         this.data = data;
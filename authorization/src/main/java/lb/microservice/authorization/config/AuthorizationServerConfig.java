@@ -15,16 +15,19 @@
  */
 package lb.microservice.authorization.config;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.UUID;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
-
-import lb.microservice.authorization.jose.Jwks;
+import io.micrometer.core.instrument.MeterRegistry;
+import lb.microservice.authorization.jose.JwkSetCacheFilter;
+import lb.microservice.authorization.jose.RotatingJwkSource;
+import lb.microservice.authorization.metrics.TokenEndpointMetricsFilter;
+import lb.microservice.authorization.store.ExpiringOAuth2AuthorizationService;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -40,7 +43,6 @@ import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
 import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.client.JdbcRegisteredClientRepository;
@@ -50,6 +52,7 @@ import org.springframework.security.oauth2.server.authorization.config.ClientSet
 import org.springframework.security.oauth2.server.authorization.config.ProviderSettings;
 import org.springframework.security.oauth2.server.authorization.config.TokenSettings;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.Assert;
 
 /**
  * @author Joe Grandja
@@ -108,11 +111,27 @@ public class AuthorizationServerConfig {
 	}
 	// @formatter:on
 
+	/**
+	 * Signing keys survive restarts, so resource servers keep their cached JWK set across redeploys.
+	 */
+	@Bean
+	public RotatingJwkSource jwkSource(@Value("${app.signingKeys.location:signing-keys.jwks}") String location,
+			@Value("${app.signingKeys.password:}") String password,
+			@Value("${app.signingKeys.rotationInterval:7d}") Duration rotationInterval,
+			@Value("${app.signingKeys.checkInterval:1h}") Duration checkInterval) {
+		return new RotatingJwkSource(Path.of(location), password, rotationInterval, checkInterval);
+	}
+
 	@Bean
-	public JWKSource<SecurityContext> jwkSource() {
-		RSAKey rsaKey = Jwks.generateRsa();
-		JWKSet jwkSet = new JWKSet(rsaKey);
-		return (jwkSelector, securityContext) -> jwkSelector.select(jwkSet);
+	public FilterRegistrationBean<JwkSetCacheFilter> jwkSetCacheFilter(ProviderSettings providerSettings,
+			RotatingJwkSource jwkSource,
+			@Value("${app.signingKeys.rotationInterval:7d}") Duration rotationInterval,
+			@Value("${app.signingKeys.jwkSetMaxAge:1h}") Duration jwkSetMaxAge) {
+		Assert.isTrue(jwkSetMaxAge.compareTo(rotationInterval) < 0, "JWK set max age must be shorter than the key rotation interval");
+		FilterRegistrationBean<JwkSetCacheFilter> registration = new FilterRegistrationBean<>(
+				new JwkSetCacheFilter(providerSettings.getJwkSetEndpoint(), jwkSource, jwkSetMaxAge));
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+		return registration;
 	}
 
 	@Bean
@@ -120,9 +139,23 @@ public class AuthorizationServerConfig {
 		return ProviderSettings.builder().issuer("http://authorization:9999").build();
 	}
 	
+	/**
+	 * Issued tokens are kept in memory until they expire, instead of piling up in the embedded database.
+	 */
+	@Bean
+	public OAuth2AuthorizationService authorizationService(MeterRegistry meterRegistry,
+			@Value("${app.authorizations.maxSize:100000}") long maxSize,
+			@Value("${app.authorizations.pendingTtl:10m}") Duration pendingTtl) {
+		return new ExpiringOAuth2AuthorizationService(maxSize, pendingTtl, meterRegistry);
+	}
+
 	@Bean
-	public OAuth2AuthorizationService authorizationService(JdbcTemplate jdbcTemplate, RegisteredClientRepository registeredClientRepository) {
-		return new JdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository);
+	public FilterRegistrationBean<TokenEndpointMetricsFilter> tokenEndpointMetricsFilter(ProviderSettings providerSettings,
+			MeterRegistry meterRegistry) {
+		FilterRegistrationBean<TokenEndpointMetricsFilter> registration = new FilterRegistrationBean<>(
+				new TokenEndpointMetricsFilter(providerSettings.getTokenEndpoint(), meterRegistry));
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+		return registration;
 	}
 
 	@Bean
@@ -0,0 +1,47 @@
+package lb.microservice.authorization.jose;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Lets clients cache the JWK set for {@code maxAge} and revalidate it by ETag, answering a matching
+ * {@code If-None-Match} with 304 without rendering the keys. Safe as long as {@code maxAge} is shorter than the
+ * rotation interval, since a key is published that long before it signs. Must run before the Spring Security filters,
+ * whose default headers would forbid caching.
+ */
+public class JwkSetCacheFilter extends OncePerRequestFilter {
+
+	private final String jwkSetEndpoint;
+	private final RotatingJwkSource jwkSource;
+	private final String cacheControl;
+
+	public JwkSetCacheFilter(String jwkSetEndpoint, RotatingJwkSource jwkSource, Duration maxAge) {
+		this.jwkSetEndpoint = jwkSetEndpoint;
+		this.jwkSource = jwkSource;
+		this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !jwkSetEndpoint.equals(request.getServletPath()) || !"GET".equals(request.getMethod());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+		if (new ServletWebRequest(request, response).checkNotModified(jwkSource.getETag())) {
+			return;
+		}
+		filterChain.doFilter(request, response);
+	}
+}
@@ -0,0 +1,223 @@
+package lb.microservice.authorization.jose;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.PasswordBasedDecrypter;
+import com.nimbusds.jose.crypto.PasswordBasedEncrypter;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing keys kept in a local key file and rotated every {@code rotationInterval}, instead of a key generated at
+ * every start. Three keys are published: the current one, which signs; the next one, published a whole rotation
+ * ahead so that resource servers have it cached before it signs anything; and the previous one, kept until the
+ * tokens it signed have expired. Keys are generated only on first start and on rotation, so restarts keep every
+ * {@code kid}. With a {@code password} the file is encrypted (PBES2), otherwise it relies on file permissions.
+ * Only one authorization server instance may own a key file.
+ */
+public class RotatingJwkSource implements JWKSource<SecurityContext>, AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(RotatingJwkSource.class);
+
+	private static final String ROTATED_AT = "rotated_at";
+	private static final int PBES2_ITERATIONS = 100_000;
+
+	private final Path location;
+	private final byte[] password;
+	private final Duration rotationInterval;
+	private final Clock clock;
+	private final ScheduledExecutorService scheduler;
+	private volatile KeyRing keyRing;
+
+	public RotatingJwkSource(Path location, String password, Duration rotationInterval, Duration checkInterval) {
+		this(location, password, rotationInterval, checkInterval, Clock.systemUTC());
+	}
+
+	public RotatingJwkSource(Path location, String password, Duration rotationInterval, Duration checkInterval, Clock clock) {
+		this.location = location;
+		this.password = password == null || password.isEmpty() ? null : password.getBytes(StandardCharsets.UTF_8);
+		this.rotationInterval = rotationInterval;
+		this.clock = clock;
+		this.keyRing = loadOrCreate();
+		rotateIfDue();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "signing-key-rotation");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::rotateIfDue, checkInterval.toMillis(), checkInterval.toMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+		KeyRing ring = keyRing;
+		JWKMatcher matcher = jwkSelector.getMatcher();
+		Set<String> keyIds = matcher.getKeyIDs();
+		if (keyIds != null && keyIds.size() == 1) {
+			JWK jwk = ring.byKeyId.get(keyIds.iterator().next());
+			return jwk != null && matcher.matches(jwk) ? List.of(jwk) : List.of();
+		}
+		if (matcher.getAlgorithms() != null || matcher.isPrivateOnly()) {
+			// The encoder asks for a signing key by algorithm and fails on more than one match: only the current key signs
+			return matcher.matches(ring.current) ? List.of(ring.current) : List.of();
+		}
+		return jwkSelector.select(ring.published);
+	}
+
+	/**
+	 * Changes whenever the published keys change, for conditional requests to the JWK set endpoint.
+	 */
+	public String getETag() {
+		return keyRing.eTag;
+	}
+
+	public String getCurrentKeyId() {
+		return keyRing.current.getKeyID();
+	}
+
+	/**
+	 * Promotes the next key to current once the current one has signed for {@code rotationInterval}.
+	 * The new key ring is written before it is used, a failed write leaves the old one in place.
+	 */
+	synchronized void rotateIfDue() {
+		try {
+			KeyRing ring = keyRing;
+			Instant now = clock.instant();
+			if (now.isBefore(ring.rotatedAt.plus(rotationInterval))) {
+				return;
+			}
+			KeyRing rotated = new KeyRing(ring.next, Jwks.generateRsa(), ring.current, now);
+			store(rotated);
+			keyRing = rotated;
+			log.info("Rotated signing keys, now signing with {}, next {}, retired {}", rotated.current.getKeyID(),
+					rotated.next.getKeyID(), ring.previous == null ? "none" : ring.previous.getKeyID());
+		} catch (RuntimeException e) {
+			log.error("Failed to rotate signing keys in {}, keeping the current ones: {}", location, e.toString());
+		}
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+
+	private KeyRing loadOrCreate() {
+		if (Files.exists(location)) {
+			KeyRing ring = load();
+			log.info("Loaded signing keys from {}, signing with {} since {}", location, ring.current.getKeyID(), ring.rotatedAt);
+			return ring;
+		}
+		KeyRing ring = new KeyRing(Jwks.generateRsa(), Jwks.generateRsa(), null, clock.instant());
+		store(ring);
+		log.info("Generated signing keys in {}, signing with {}", location, ring.current.getKeyID());
+		return ring;
+	}
+
+	private KeyRing load() {
+		try {
+			String content = Files.readString(location, StandardCharsets.UTF_8).strip();
+			if (!content.startsWith("{")) {
+				if (password == null) {
+					throw new IllegalStateException("Signing keys in " + location + " are encrypted but no password is configured");
+				}
+				JWEObject jwe = JWEObject.parse(content);
+				jwe.decrypt(new PasswordBasedDecrypter(password));
+				content = jwe.getPayload().toString();
+			}
+			JWKSet jwkSet = JWKSet.parse(content);
+			List<JWK> keys = jwkSet.getKeys();
+			Object rotatedAt = jwkSet.getAdditionalMembers().get(ROTATED_AT);
+			if (keys.size() < 2 || !(rotatedAt instanceof Number)) {
+				throw new IllegalStateException("Malformed signing keys in " + location);
+			}
+			return new KeyRing(keys.get(0).toRSAKey(), keys.get(1).toRSAKey(), keys.size() > 2 ? keys.get(2).toRSAKey() : null,
+					Instant.ofEpochSecond(((Number) rotatedAt).longValue()));
+		} catch (IOException | ParseException | JOSEException e) {
+			throw new IllegalStateException("Failed to read signing keys from " + location, e);
+		}
+	}
+
+	private void store(KeyRing ring) {
+		List<JWK> keys = new ArrayList<>(List.of(ring.current, ring.next));
+		if (ring.previous != null) {
+			keys.add(ring.previous);
+		}
+		String content = new JWKSet(keys, Map.of(ROTATED_AT, ring.rotatedAt.getEpochSecond())).toString(false);
+		try {
+			if (password != null) {
+				JWEObject jwe = new JWEObject(new JWEHeader(JWEAlgorithm.PBES2_HS256_A128KW, EncryptionMethod.A128GCM),
+						new Payload(content));
+				jwe.encrypt(new PasswordBasedEncrypter(password, 16, PBES2_ITERATIONS));
+				content = jwe.serialize();
+			}
+			Path directory = location.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			// Temp files are owner-only, the move replaces the key file atomically
+			Path temp = Files.createTempFile(directory, location.getFileName().toString(), ".tmp");
+			try {
+				Files.writeString(temp, content, StandardCharsets.UTF_8);
+				Files.move(temp, location, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException | JOSEException e) {
+			throw new IllegalStateException("Failed to write signing keys to " + location, e);
+		}
+	}
+
+	private static final class KeyRing {
+
+		final RSAKey current;
+		final RSAKey next;
+		final RSAKey previous;
+		final Instant rotatedAt;
+		final JWKSet published;
+		final Map<String, JWK> byKeyId = new LinkedHashMap<>();
+		final String eTag;
+
+		KeyRing(RSAKey current, RSAKey next, RSAKey previous, Instant rotatedAt) {
+			this.current = current;
+			this.next = next;
+			this.previous = previous;
+			this.rotatedAt = rotatedAt;
+			byKeyId.put(current.getKeyID(), current);
+			byKeyId.put(next.getKeyID(), next);
+			if (previous != null) {
+				byKeyId.put(previous.getKeyID(), previous);
+			}
+			this.published = new JWKSet(List.copyOf(byKeyId.values()));
+			this.eTag = '"' + DigestUtils.md5DigestAsHex(String.join(",", byKeyId.keySet()).getBytes(StandardCharsets.UTF_8)) + '"';
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package lb.microservice.authorization.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Times token issuance, i.e. requests to the token endpoint, as {@code authorization.token.issuance}
+ * by grant type and response status. Must run before the Spring Security filters, which answer these requests.
+ */
+public class TokenEndpointMetricsFilter extends OncePerRequestFilter {
+
+	private static final Set<String> GRANT_TYPES = Set.of(AuthorizationGrantType.AUTHORIZATION_CODE.getValue(),
+			AuthorizationGrantType.CLIENT_CREDENTIALS.getValue(), AuthorizationGrantType.REFRESH_TOKEN.getValue());
+
+	private final String tokenEndpoint;
+	private final MeterRegistry meterRegistry;
+
+	public TokenEndpointMetricsFilter(String tokenEndpoint, MeterRegistry meterRegistry) {
+		this.tokenEndpoint = tokenEndpoint;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !tokenEndpoint.equals(request.getServletPath());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			String grantType = request.getParameter(OAuth2ParameterNames.GRANT_TYPE);
+			sample.stop(Timer.builder("authorization.token.issuance")
+					.tag("grantType", GRANT_TYPES.contains(grantType) ? grantType : "other")
+					.tag("status", Integer.toString(response.getStatus()))
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.register(meterRegistry));
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package lb.microservice.authorization.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keeps authorizations in memory until the last of their tokens expires, authorizations without tokens yet,
+ * e.g. waiting for consent, for {@code pendingTtl}. The store is bounded by {@code maxSize}, beyond it the least used
+ * authorizations are dropped. Every token value, and the state of authorization requests, is indexed, so a lookup
+ * by token is two hash map reads. Size, evictions and lookups are published as {@code cache.*} meters with
+ * {@code cache=authorizations}.
+ */
+public class ExpiringOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+	private static final OAuth2TokenType STATE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+	private static final OAuth2TokenType CODE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+	private static final OAuth2TokenType ID_TOKEN = new OAuth2TokenType(OidcParameterNames.ID_TOKEN);
+	private static final List<Class<? extends OAuth2Token>> EXPIRING_TOKENS = List.of(
+			OAuth2AuthorizationCode.class, OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class);
+
+	private final Cache<String, OAuth2Authorization> authorizations;
+	private final Map<String, String> idsByToken = new ConcurrentHashMap<>();
+	private final Duration pendingTtl;
+	private final Clock clock;
+
+	public ExpiringOAuth2AuthorizationService(long maxSize, Duration pendingTtl, MeterRegistry meterRegistry) {
+		this(maxSize, pendingTtl, meterRegistry, Clock.systemUTC(), Ticker.systemTicker(), ForkJoinPool.commonPool());
+	}
+
+	ExpiringOAuth2AuthorizationService(long maxSize, Duration pendingTtl, MeterRegistry meterRegistry, Clock clock,
+			Ticker ticker, Executor executor) {
+		this.pendingTtl = pendingTtl;
+		this.clock = clock;
+		this.authorizations = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.ticker(ticker)
+				.executor(executor)
+				.expireAfter(new Expiry<String, OAuth2Authorization>() {
+					@Override
+					public long expireAfterCreate(String id, OAuth2Authorization authorization, long currentTime) {
+						return untilExpiry(authorization);
+					}
+
+					@Override
+					public long expireAfterUpdate(String id, OAuth2Authorization authorization, long currentTime, long currentDuration) {
+						return untilExpiry(authorization);
+					}
+
+					@Override
+					public long expireAfterRead(String id, OAuth2Authorization authorization, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.removalListener((String id, OAuth2Authorization authorization, RemovalCause cause) -> {
+					if (cause.wasEvicted() && authorization != null) {
+						unindex(id, tokens(authorization));
+					}
+				})
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, authorizations, "authorizations");
+	}
+
+	@Override
+	public void save(OAuth2Authorization authorization) {
+		String id = authorization.getId();
+		Map<String, OAuth2TokenType> tokens = tokens(authorization);
+		tokens.keySet().forEach(token -> idsByToken.put(token, id));
+		OAuth2Authorization previous = authorizations.asMap().put(id, authorization);
+		if (previous != null) {
+			Map<String, OAuth2TokenType> replaced = tokens(previous);
+			replaced.keySet().removeAll(tokens.keySet());
+			unindex(id, replaced);
+		}
+	}
+
+	@Override
+	public void remove(OAuth2Authorization authorization) {
+		OAuth2Authorization removed = authorizations.asMap().remove(authorization.getId());
+		unindex(authorization.getId(), tokens(removed != null ? removed : authorization));
+	}
+
+	@Override
+	public OAuth2Authorization findById(String id) {
+		return authorizations.getIfPresent(id);
+	}
+
+	@Override
+	public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+		String id = idsByToken.get(token);
+		OAuth2Authorization authorization = id == null ? null : authorizations.getIfPresent(id);
+		if (authorization == null) {
+			return null;
+		}
+		OAuth2TokenType type = tokens(authorization).get(token);
+		return type != null && (tokenType == null || tokenType.equals(type)) ? authorization : null;
+	}
+
+	/**
+	 * Runs pending expirations and evictions.
+	 */
+	void cleanUp() {
+		authorizations.cleanUp();
+	}
+
+	/**
+	 * The number of token values indexed.
+	 */
+	int indexedTokens() {
+		return idsByToken.size();
+	}
+
+	private void unindex(String id, Map<String, OAuth2TokenType> tokens) {
+		tokens.keySet().forEach(token -> idsByToken.remove(token, id));
+	}
+
+	/**
+	 * The token values of the authorization by their type.
+	 */
+	private static Map<String, OAuth2TokenType> tokens(OAuth2Authorization authorization) {
+		Map<String, OAuth2TokenType> tokens = new HashMap<>();
+		String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+		if (state != null) {
+			tokens.put(state, STATE);
+		}
+		put(tokens, authorization.getToken(OAuth2AuthorizationCode.class), CODE);
+		put(tokens, authorization.getAccessToken(), OAuth2TokenType.ACCESS_TOKEN);
+		put(tokens, authorization.getRefreshToken(), OAuth2TokenType.REFRESH_TOKEN);
+		put(tokens, authorization.getToken(OidcIdToken.class), ID_TOKEN);
+		return tokens;
+	}
+
+	private static void put(Map<String, OAuth2TokenType> tokens, OAuth2Authorization.Token<?> token, OAuth2TokenType type) {
+		if (token != null) {
+			tokens.put(token.getToken().getTokenValue(), type);
+		}
+	}
+
+	/**
+	 * Nanoseconds until the last token of the authorization expires, {@code pendingTtl} if it has none that expires.
+	 */
+	private long untilExpiry(OAuth2Authorization authorization) {
+		Instant expiresAt = null;
+		for (Class<? extends OAuth2Token> type : EXPIRING_TOKENS) {
+			OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(type);
+			Instant tokenExpiresAt = token == null ? null : token.getToken().getExpiresAt();
+			if (tokenExpiresAt != null && (expiresAt == null || tokenExpiresAt.isAfter(expiresAt))) {
+				expiresAt = tokenExpiresAt;
+			}
+		}
+		if (expiresAt == null) {
+			return pendingTtl.toNanos();
+		}
+		return Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+	}
+}
@@ -0,0 +1,97 @@
+package lb.microservice.authorization.jose;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JwkSetCacheFilterTests {
+
+	private static final String JWK_SET_ENDPOINT = "/oauth2/jwks";
+
+	@TempDir
+	Path directory;
+
+	private RotatingJwkSource jwkSource;
+	private JwkSetCacheFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		jwkSource = new RotatingJwkSource(directory.resolve("signing-keys.jwks"), null, Duration.ofDays(7), Duration.ofDays(1));
+		filter = new JwkSetCacheFilter(JWK_SET_ENDPOINT, jwkSource, Duration.ofHours(1));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jwkSource.close();
+	}
+
+	@Test
+	void jwkSetMayBeCachedAndRevalidated() throws ServletException, IOException {
+		MockHttpServletResponse response = filter(request("GET", JWK_SET_ENDPOINT, null), true);
+
+		assertEquals(200, response.getStatus());
+		assertEquals("max-age=3600, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+		assertEquals(jwkSource.getETag(), response.getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void matchingETagIsNotModified() throws ServletException, IOException {
+		MockHttpServletResponse response = filter(request("GET", JWK_SET_ENDPOINT, jwkSource.getETag()), false);
+
+		assertEquals(304, response.getStatus());
+		assertEquals("max-age=3600, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+		assertEquals(jwkSource.getETag(), response.getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void staleETagGetsTheKeys() throws ServletException, IOException {
+		MockHttpServletResponse response = filter(request("GET", JWK_SET_ENDPOINT, "\"rotated\""), true);
+
+		assertEquals(200, response.getStatus());
+		assertEquals(jwkSource.getETag(), response.getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void otherRequestsAreLeftAlone() throws ServletException, IOException {
+		MockHttpServletResponse token = filter(request("POST", "/oauth2/token", jwkSource.getETag()), true);
+		MockHttpServletResponse post = filter(request("POST", JWK_SET_ENDPOINT, jwkSource.getETag()), true);
+
+		assertNull(token.getHeader(HttpHeaders.CACHE_CONTROL));
+		assertNull(post.getHeader(HttpHeaders.CACHE_CONTROL));
+	}
+
+	private MockHttpServletResponse filter(MockHttpServletRequest request, boolean passedOn) throws ServletException, IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, response, chain);
+		if (passedOn) {
+			assertNotNull(chain.getRequest());
+		} else {
+			assertNull(chain.getRequest());
+		}
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String method, String path, String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setServletPath(path);
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return request;
+	}
+}
@@ -0,0 +1,193 @@
+package lb.microservice.authorization.jose;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JoseHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.NimbusJwsEncoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RotatingJwkSourceTests {
+
+	private static final Duration ROTATION_INTERVAL = Duration.ofDays(7);
+	private static final JWKSelector ALL_KEYS = new JWKSelector(new JWKMatcher.Builder().build());
+
+	@TempDir
+	Path directory;
+
+	private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+	private final Clock clock = new Clock() {
+		@Override
+		public ZoneOffset getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	};
+
+	private final List<RotatingJwkSource> sources = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		sources.forEach(RotatingJwkSource::close);
+	}
+
+	@Test
+	void generatesCurrentAndNextKeysOnFirstStart() {
+		Path location = directory.resolve("keys/signing-keys.jwks");
+
+		RotatingJwkSource jwkSource = jwkSource(location, null);
+
+		assertTrue(Files.exists(location));
+		List<String> keyIds = keyIds(jwkSource);
+		assertEquals(2, keyIds.size());
+		assertEquals(jwkSource.getCurrentKeyId(), keyIds.get(0));
+	}
+
+	@Test
+	void reloadKeepsEveryKeyId() {
+		Path location = directory.resolve("signing-keys.jwks");
+		RotatingJwkSource first = jwkSource(location, null);
+		now = now.plus(ROTATION_INTERVAL);
+		first.rotateIfDue();
+
+		RotatingJwkSource reloaded = jwkSource(location, null);
+
+		assertEquals(3, keyIds(reloaded).size());
+		assertEquals(keyIds(first), keyIds(reloaded));
+		assertEquals(first.getCurrentKeyId(), reloaded.getCurrentKeyId());
+		assertEquals(first.getETag(), reloaded.getETag());
+	}
+
+	@Test
+	void rotationPromotesTheNextKeyAndRetiresThePreviousOne() {
+		RotatingJwkSource jwkSource = jwkSource(directory.resolve("signing-keys.jwks"), null);
+		String first = keyIds(jwkSource).get(0);
+		String second = keyIds(jwkSource).get(1);
+		String eTag = jwkSource.getETag();
+
+		now = now.plus(ROTATION_INTERVAL).minusSeconds(1);
+		jwkSource.rotateIfDue();
+		assertEquals(first, jwkSource.getCurrentKeyId());
+		assertEquals(eTag, jwkSource.getETag());
+
+		now = now.plusSeconds(1);
+		jwkSource.rotateIfDue();
+		List<String> keyIds = keyIds(jwkSource);
+		assertEquals(second, jwkSource.getCurrentKeyId());
+		assertEquals(List.of(second, keyIds.get(1), first), keyIds);
+		assertNotEquals(eTag, jwkSource.getETag());
+
+		now = now.plus(ROTATION_INTERVAL);
+		jwkSource.rotateIfDue();
+		assertEquals(keyIds.get(1), jwkSource.getCurrentKeyId());
+		assertFalse(keyIds(jwkSource).contains(first));
+		assertTrue(keyIds(jwkSource).contains(second));
+	}
+
+	@Test
+	void keysAreRotatedOnStartWhenRotationWasMissed() {
+		Path location = directory.resolve("signing-keys.jwks");
+		String next = keyIds(jwkSource(location, null)).get(1);
+
+		now = now.plus(ROTATION_INTERVAL.multipliedBy(3));
+
+		assertEquals(next, jwkSource(location, null).getCurrentKeyId());
+	}
+
+	@Test
+	void encryptedKeyFileRoundTrip() throws IOException {
+		Path location = directory.resolve("signing-keys.jwks");
+		RotatingJwkSource jwkSource = jwkSource(location, "secret");
+
+		String content = Files.readString(location);
+		assertFalse(content.startsWith("{"));
+		assertFalse(content.contains(jwkSource.getCurrentKeyId()));
+
+		assertEquals(keyIds(jwkSource), keyIds(jwkSource(location, "secret")));
+		assertThrows(IllegalStateException.class, () -> jwkSource(location, "wrong"));
+		assertThrows(IllegalStateException.class, () -> jwkSource(location, null));
+	}
+
+	@Test
+	void plainKeyFileIsJson() throws IOException {
+		Path location = directory.resolve("signing-keys.jwks");
+		jwkSource(location, "");
+
+		assertTrue(Files.readString(location).startsWith("{"));
+	}
+
+	@Test
+	void onlyTheCurrentKeySigns() {
+		RotatingJwkSource jwkSource = jwkSource(directory.resolve("signing-keys.jwks"), null);
+		now = now.plus(ROTATION_INTERVAL);
+		jwkSource.rotateIfDue();
+		assertEquals(3, keyIds(jwkSource).size());
+
+		List<JWK> signingKeys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder()
+				.algorithms(JWSAlgorithm.RS256, null)
+				.privateOnly(true)
+				.build()), null);
+		Jwt jwt = new NimbusJwsEncoder(jwkSource).encode(JoseHeader.withAlgorithm(SignatureAlgorithm.RS256).build(),
+				JwtClaimsSet.builder().subject("reader").build());
+
+		assertEquals(1, signingKeys.size());
+		assertEquals(jwkSource.getCurrentKeyId(), signingKeys.get(0).getKeyID());
+		assertEquals(jwkSource.getCurrentKeyId(), jwt.getHeaders().get("kid"));
+	}
+
+	@Test
+	void retiredKeysAreFoundByKeyId() {
+		RotatingJwkSource jwkSource = jwkSource(directory.resolve("signing-keys.jwks"), null);
+		String first = jwkSource.getCurrentKeyId();
+		now = now.plus(ROTATION_INTERVAL);
+		jwkSource.rotateIfDue();
+
+		List<JWK> keys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder().keyID(first).build()), null);
+
+		assertEquals(1, keys.size());
+		assertEquals(first, keys.get(0).getKeyID());
+	}
+
+	private RotatingJwkSource jwkSource(Path location, String password) {
+		RotatingJwkSource jwkSource = new RotatingJwkSource(location, password, ROTATION_INTERVAL, Duration.ofDays(1), clock);
+		sources.add(jwkSource);
+		return jwkSource;
+	}
+
+	private static List<String> keyIds(RotatingJwkSource jwkSource) {
+		return jwkSource.get(ALL_KEYS, null).stream().map(JWK::getKeyID).toList();
+	}
+}
@@ -0,0 +1,174 @@
+package lb.microservice.authorization.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2TokenType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExpiringOAuth2AuthorizationServiceTests {
+
+	private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+	private static final Duration PENDING_TTL = Duration.ofMinutes(10);
+	private static final OAuth2TokenType STATE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+	private static final OAuth2TokenType CODE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+
+	private static final RegisteredClient CLIENT = RegisteredClient.withId("reader-id")
+			.clientId("reader")
+			.clientSecret("secret")
+			.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+			.build();
+
+	private Instant now = START;
+
+	private final Clock clock = new Clock() {
+		@Override
+		public ZoneOffset getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	};
+
+	private final ExpiringOAuth2AuthorizationService authorizationService = service(100);
+
+	@Test
+	void findsAuthorizationsByEveryToken() {
+		OAuth2Authorization authorization = authorization("a")
+				.attribute(OAuth2ParameterNames.STATE, "state")
+				.token(new OAuth2AuthorizationCode("code", now, now.plusSeconds(60)))
+				.accessToken(accessToken("access", Duration.ofMinutes(5)))
+				.refreshToken(new OAuth2RefreshToken("refresh", now, now.plus(Duration.ofHours(1))))
+				.build();
+		authorizationService.save(authorization);
+
+		assertSame(authorization, authorizationService.findById("a"));
+		assertSame(authorization, authorizationService.findByToken("state", STATE));
+		assertSame(authorization, authorizationService.findByToken("code", CODE));
+		assertSame(authorization, authorizationService.findByToken("access", OAuth2TokenType.ACCESS_TOKEN));
+		assertSame(authorization, authorizationService.findByToken("refresh", OAuth2TokenType.REFRESH_TOKEN));
+		assertSame(authorization, authorizationService.findByToken("access", null));
+		assertNull(authorizationService.findByToken("unknown", null));
+		assertEquals(4, authorizationService.indexedTokens());
+	}
+
+	@Test
+	void tokenOfAnotherTypeIsNotFound() {
+		authorizationService.save(authorization("a").accessToken(accessToken("access", Duration.ofMinutes(5))).build());
+
+		assertNull(authorizationService.findByToken("access", OAuth2TokenType.REFRESH_TOKEN));
+		assertNull(authorizationService.findByToken("access", CODE));
+	}
+
+	@Test
+	void replacedTokensAreUnindexed() {
+		OAuth2Authorization pending = authorization("a")
+				.attribute(OAuth2ParameterNames.STATE, "state")
+				.token(new OAuth2AuthorizationCode("code", now, now.plusSeconds(60)))
+				.build();
+		authorizationService.save(pending);
+		OAuth2Authorization issued = OAuth2Authorization.from(pending)
+				.accessToken(accessToken("access", Duration.ofMinutes(5)))
+				.attributes(attributes -> attributes.remove(OAuth2ParameterNames.STATE))
+				.build();
+		authorizationService.save(issued);
+
+		assertNull(authorizationService.findByToken("state", STATE));
+		assertSame(issued, authorizationService.findByToken("code", CODE));
+		assertSame(issued, authorizationService.findByToken("access", OAuth2TokenType.ACCESS_TOKEN));
+		assertEquals(2, authorizationService.indexedTokens());
+	}
+
+	@Test
+	void removedAuthorizationsAreUnindexed() {
+		OAuth2Authorization authorization = authorization("a").accessToken(accessToken("access", Duration.ofMinutes(5))).build();
+		authorizationService.save(authorization);
+
+		authorizationService.remove(authorization);
+
+		assertNull(authorizationService.findById("a"));
+		assertNull(authorizationService.findByToken("access", null));
+		assertEquals(0, authorizationService.indexedTokens());
+	}
+
+	@Test
+	void authorizationsExpireWithTheirLastToken() {
+		authorizationService.save(authorization("a")
+				.accessToken(accessToken("access", Duration.ofMinutes(5)))
+				.refreshToken(new OAuth2RefreshToken("refresh", now, now.plus(Duration.ofHours(1))))
+				.build());
+
+		now = START.plus(Duration.ofMinutes(5));
+		assertNotNull(authorizationService.findByToken("refresh", OAuth2TokenType.REFRESH_TOKEN));
+
+		now = START.plus(Duration.ofHours(1));
+		authorizationService.cleanUp();
+		assertNull(authorizationService.findById("a"));
+		assertEquals(0, authorizationService.indexedTokens());
+	}
+
+	@Test
+	void pendingAuthorizationsExpireAfterPendingTtl() {
+		authorizationService.save(authorization("a").attribute(OAuth2ParameterNames.STATE, "state").build());
+
+		now = START.plus(PENDING_TTL).minusNanos(1);
+		assertNotNull(authorizationService.findByToken("state", STATE));
+
+		now = START.plus(PENDING_TTL);
+		authorizationService.cleanUp();
+		assertNull(authorizationService.findByToken("state", STATE));
+		assertEquals(0, authorizationService.indexedTokens());
+	}
+
+	@Test
+	void evictedAuthorizationsAreUnindexed() {
+		ExpiringOAuth2AuthorizationService bounded = service(1);
+		bounded.save(authorization("a").accessToken(accessToken("first", Duration.ofMinutes(5))).build());
+		bounded.save(authorization("b").accessToken(accessToken("second", Duration.ofMinutes(5))).build());
+
+		bounded.cleanUp();
+
+		assertEquals(1, bounded.indexedTokens());
+		assertEquals(1, (bounded.findById("a") == null ? 0 : 1) + (bounded.findById("b") == null ? 0 : 1));
+	}
+
+	private ExpiringOAuth2AuthorizationService service(long maxSize) {
+		return new ExpiringOAuth2AuthorizationService(maxSize, PENDING_TTL, new SimpleMeterRegistry(), clock,
+				() -> Duration.between(START, now).toNanos(), Runnable::run);
+	}
+
+	private OAuth2Authorization.Builder authorization(String id) {
+		return OAuth2Authorization.withRegisteredClient(CLIENT)
+				.id(id)
+				.principalName("reader")
+				.authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE);
+	}
+
+	private OAuth2AccessToken accessToken(String value, Duration lifetime) {
+		return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, value, now, now.plus(lifetime));
+	}
+}
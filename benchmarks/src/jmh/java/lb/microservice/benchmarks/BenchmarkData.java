@@ -0,0 +1,69 @@
+package lb.microservice.benchmarks;
+
+import lb.microservice.api.composite.product.ProductAggregate;
+import lb.microservice.api.composite.product.RecommendationSummary;
+import lb.microservice.api.composite.product.ReviewSummary;
+import lb.microservice.api.composite.product.ServiceAddresses;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.recommendation.Recommendation;
+import lb.microservice.api.core.review.Review;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Entities shaped like the ones the services exchange per request.
+ */
+public final class BenchmarkData {
+
+    public static final int PRODUCT_ID = 1;
+    private static final String ADDRESS = "host/10.0.0.1:8080";
+
+    private BenchmarkData() {
+    }
+
+    public static Product product() {
+        return new Product(PRODUCT_ID, "name " + PRODUCT_ID, 17, ADDRESS);
+    }
+
+    public static List<Recommendation> recommendations(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Recommendation(PRODUCT_ID, i, "author " + i, i % 5, "content of recommendation " + i, ADDRESS))
+                .toList();
+    }
+
+    public static List<Review> reviews(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Review(PRODUCT_ID, i, "author " + i, "subject " + i, "content of review " + i, ADDRESS))
+                .toList();
+    }
+
+    public static ProductAggregate aggregate(int count) {
+        List<RecommendationSummary> recommendations = recommendations(count).stream()
+                .map(r -> new RecommendationSummary(r.getRecommendationId(), r.getAuthor(), r.getRating(), r.getContent()))
+                .toList();
+        List<ReviewSummary> reviews = reviews(count).stream()
+                .map(r -> new ReviewSummary(r.getReviewId(), r.getAuthor(), r.getSubject(), r.getContent()))
+                .toList();
+        return new ProductAggregate(product(), recommendations, reviews,
+                new ServiceAddresses(ADDRESS, ADDRESS, ADDRESS, ADDRESS));
+    }
+
+    public static SecurityContext jwtSecurityContext() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .issuer("http://auth-server")
+                .subject("writer")
+                .audience(List.of("product-composite"))
+                .claim("scope", "product:read product:write")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+        return new SecurityContextImpl(new JwtAuthenticationToken(jwt));
+    }
+}
@@ -0,0 +1,102 @@
+package lb.microservice.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lb.microservice.api.core.review.Review;
+import lb.microservice.api.event.Event;
+import lb.microservice.util.messaging.AvroEventMessageConverter;
+import lb.microservice.util.messaging.LocalSchemaRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+
+/**
+ * Encoding and decoding of a review event with the JSON content type the binders use by default and with the
+ * Avro one, plain and deflated. The encoded size is reported as the {@code payloadBytes} secondary metric.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class EventSerializationBenchmark {
+
+    private static final TypeReference<Event<Integer, Review>> REVIEW_EVENT = new TypeReference<>() {
+    };
+
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Param({"application/json", "application/vnd.event+avro", "application/vnd.event+avro;codec=deflate"})
+    private String contentType;
+
+    private AvroEventMessageConverter avroConverter;
+    private MessageHeaders headers;
+    private Event<Integer, Review> event;
+    private Message<byte[]> encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        avroConverter = new AvroEventMessageConverter(new LocalSchemaRegistry("classpath*:schemas/*.avsc"), MAPPER);
+        headers = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, MimeType.valueOf(contentType)));
+        event = new Event<>(CREATE, BenchmarkData.PRODUCT_ID, BenchmarkData.reviews(1).get(0));
+        encoded = encode();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+    }
+
+    @Benchmark
+    public Message<byte[]> encode(PayloadSize size) throws IOException {
+        Message<byte[]> message = encode();
+        size.payloadBytes = message.getPayload().length;
+        return message;
+    }
+
+    @Benchmark
+    public Event<?, ?> decode() throws IOException {
+        if (isJson()) {
+            return MAPPER.readValue(encoded.getPayload(), REVIEW_EVENT);
+        }
+        return (Event<?, ?>) avroConverter.fromMessage(encoded, Event.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<byte[]> encode() throws IOException {
+        if (isJson()) {
+            return MessageBuilder.createMessage(MAPPER.writeValueAsBytes(event), headers);
+        }
+        return (Message<byte[]>) avroConverter.toMessage(event, headers);
+    }
+
+    private boolean isJson() {
+        return contentType.equals("application/json");
+    }
+}
@@ -0,0 +1,53 @@
+package lb.microservice.benchmarks;
+
+import lb.microservice.api.exceptions.InvalidInputException;
+import lb.microservice.api.exceptions.NotFoundException;
+import lb.microservice.util.GlobalControllerExceptionHandler;
+import lb.microservice.util.HttpErrorInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error responses of the services. The new* variants include creating the exception with its stack trace,
+ * which is what a failed lookup pays in practice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ExceptionHandlerBenchmark {
+
+    private final GlobalControllerExceptionHandler handler = new GlobalControllerExceptionHandler();
+
+    private ServerHttpRequest request;
+    private NotFoundException notFound;
+
+    @Setup
+    public void setUp() {
+        request = MockServerHttpRequest.get("/product-composite/13").build();
+        notFound = new NotFoundException("No product found for productId: 13");
+    }
+
+    @Benchmark
+    public HttpErrorInfo notFound() {
+        return handler.handleNotFoundExceptions(request, notFound);
+    }
+
+    @Benchmark
+    public HttpErrorInfo newNotFound() {
+        return handler.handleNotFoundExceptions(request, new NotFoundException("No product found for productId: 13"));
+    }
+
+    @Benchmark
+    public HttpErrorInfo newInvalidInput() {
+        return handler.handleInvalidInputException(request, new InvalidInputException("Invalid productId: -1"));
+    }
+}
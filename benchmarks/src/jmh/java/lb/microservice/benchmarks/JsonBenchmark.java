@@ -0,0 +1,84 @@
+package lb.microservice.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lb.microservice.api.composite.product.ProductAggregate;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.event.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+
+/**
+ * JSON encoding of the product events on the message bus and of the composite response body,
+ * with an ObjectMapper set up the way Spring Boot configures the services' one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final TypeReference<Event<Integer, Product>> PRODUCT_EVENT = new TypeReference<>() {
+    };
+
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private Event<Integer, Product> event;
+    private byte[] eventJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        event = new Event<>(CREATE, BenchmarkData.PRODUCT_ID, BenchmarkData.product());
+        eventJson = MAPPER.writeValueAsBytes(event);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Aggregate {
+
+        @Param({"0", "5", "50"})
+        private int items;
+
+        private ProductAggregate aggregate;
+        private byte[] json;
+
+        @Setup
+        public void setUp() throws IOException {
+            aggregate = BenchmarkData.aggregate(items);
+            json = MAPPER.writeValueAsBytes(aggregate);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProductEvent() throws IOException {
+        return MAPPER.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public Event<Integer, Product> deserializeProductEvent() throws IOException {
+        return MAPPER.readValue(eventJson, PRODUCT_EVENT);
+    }
+
+    @Benchmark
+    public byte[] serializeProductAggregate(Aggregate state) throws IOException {
+        return MAPPER.writeValueAsBytes(state.aggregate);
+    }
+
+    @Benchmark
+    public ProductAggregate deserializeProductAggregate(Aggregate state) throws IOException {
+        return MAPPER.readValue(state.json, ProductAggregate.class);
+    }
+}
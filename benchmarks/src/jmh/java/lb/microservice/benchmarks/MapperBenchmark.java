@@ -0,0 +1,81 @@
+package lb.microservice.benchmarks;
+
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.recommendation.Recommendation;
+import lb.microservice.api.core.review.Review;
+import lb.microservice.product.persistence.ProductEntity;
+import lb.microservice.product.persistence.ProductMapper;
+import lb.microservice.recommendation.persistence.RecommendationEntity;
+import lb.microservice.recommendation.persistence.RecommendationMapper;
+import lb.microservice.review.percistence.ReviewEntity;
+import lb.microservice.review.percistence.ReviewMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MapStruct mappers between API models and persistence entities, used on every read and write of the core services.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private final ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
+    private final RecommendationMapper recommendationMapper = Mappers.getMapper(RecommendationMapper.class);
+    private final ReviewMapper reviewMapper = Mappers.getMapper(ReviewMapper.class);
+
+    private Product product;
+    private ProductEntity productEntity;
+    private Recommendation recommendation;
+    private RecommendationEntity recommendationEntity;
+    private Review review;
+    private ReviewEntity reviewEntity;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product();
+        productEntity = productMapper.apiToEntity(product);
+        recommendation = BenchmarkData.recommendations(1).get(0);
+        recommendationEntity = recommendationMapper.apiToEntity(recommendation);
+        review = BenchmarkData.reviews(1).get(0);
+        reviewEntity = reviewMapper.apiToEntity(review);
+    }
+
+    @Benchmark
+    public Product productEntityToApi() {
+        return productMapper.entityToApi(productEntity);
+    }
+
+    @Benchmark
+    public ProductEntity productApiToEntity() {
+        return productMapper.apiToEntity(product);
+    }
+
+    @Benchmark
+    public Recommendation recommendationEntityToApi() {
+        return recommendationMapper.entityToApi(recommendationEntity);
+    }
+
+    @Benchmark
+    public RecommendationEntity recommendationApiToEntity() {
+        return recommendationMapper.apiToEntity(recommendation);
+    }
+
+    @Benchmark
+    public Review reviewEntityToApi() {
+        return reviewMapper.entityToApi(reviewEntity);
+    }
+
+    @Benchmark
+    public ReviewEntity reviewApiToEntity() {
+        return reviewMapper.apiToEntity(review);
+    }
+}
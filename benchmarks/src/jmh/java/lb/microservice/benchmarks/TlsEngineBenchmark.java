@@ -0,0 +1,153 @@
+package lb.microservice.benchmarks;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TLS engines of the gateway's 8443 listener, JDK against OpenSSL (BoringSSL), on the gateway's own key.
+ * Client and server engines talk through in-memory buffers, so only the TLS work is measured:
+ * a full handshake, a handshake resuming the previous session, and encrypting and decrypting a 16 KB record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TlsEngineBenchmark {
+
+    private static final String PEER_HOST = "gateway";
+    private static final int PEER_PORT = 8443;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    @Param({"JDK", "OPENSSL"})
+    private SslProvider engine;
+
+    private SslContext serverContext;
+    private SslContext resumingClientContext;
+    private SslContext clientContext;
+
+    private SSLEngine bulkClient;
+    private SSLEngine bulkServer;
+    private ByteBuffer clientToServer;
+    private ByteBuffer serverToClient;
+    private ByteBuffer application;
+    private ByteBuffer record;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = getClass().getResourceAsStream("/keystore/edge.p12")) {
+            keyStore.load(in, "password".toCharArray());
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, "password".toCharArray());
+        serverContext = SslContextBuilder.forServer(keyManagerFactory).sslProvider(engine).build();
+        clientContext = client();
+        resumingClientContext = client();
+        handshake(resumingClientContext.newEngine(ByteBufAllocator.DEFAULT, PEER_HOST, PEER_PORT));
+
+        bulkClient = clientContext.newEngine(ByteBufAllocator.DEFAULT);
+        bulkServer = handshake(bulkClient);
+        record = ByteBuffer.allocate(16 * 1024);
+    }
+
+    @Benchmark
+    public SSLEngine fullHandshake() throws SSLException {
+        return handshake(clientContext.newEngine(ByteBufAllocator.DEFAULT));
+    }
+
+    @Benchmark
+    public SSLEngine resumedHandshake() throws SSLException {
+        return handshake(resumingClientContext.newEngine(ByteBufAllocator.DEFAULT, PEER_HOST, PEER_PORT));
+    }
+
+    @Benchmark
+    public int encryptDecryptRecord() throws SSLException {
+        record.clear();
+        clientToServer.clear();
+        bulkClient.wrap(record, clientToServer);
+        clientToServer.flip();
+        application.clear();
+        bulkServer.unwrap(clientToServer, application);
+        return application.position();
+    }
+
+    private SslContext client() throws SSLException {
+        return SslContextBuilder.forClient()
+                .sslProvider(engine)
+                .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                .build();
+    }
+
+    /**
+     * Runs the handshake of the client with a new server engine, including the session tickets sent after it.
+     */
+    private SSLEngine handshake(SSLEngine client) throws SSLException {
+        SSLEngine server = serverContext.newEngine(ByteBufAllocator.DEFAULT);
+        client.setUseClientMode(true);
+        int packetSize = Math.max(client.getSession().getPacketBufferSize(), server.getSession().getPacketBufferSize());
+        int applicationSize = Math.max(client.getSession().getApplicationBufferSize(), server.getSession().getApplicationBufferSize());
+        clientToServer = ByteBuffer.allocate(packetSize * 4);
+        serverToClient = ByteBuffer.allocate(packetSize * 4);
+        application = ByteBuffer.allocate(applicationSize * 4);
+        client.beginHandshake();
+        server.beginHandshake();
+        boolean clientDone = false;
+        boolean serverDone = false;
+        for (int round = 0; round < 100; round++) {
+            clientDone |= step(client, serverToClient, clientToServer);
+            serverDone |= step(server, clientToServer, serverToClient);
+            if (clientDone && serverDone && clientToServer.position() == 0 && serverToClient.position() == 0) {
+                return server;
+            }
+        }
+        throw new IllegalStateException("Handshake did not finish with " + engine);
+    }
+
+    private boolean step(SSLEngine sslEngine, ByteBuffer in, ByteBuffer out) throws SSLException {
+        boolean finished = false;
+        in.flip();
+        while (in.hasRemaining()) {
+            application.clear();
+            SSLEngineResult result = sslEngine.unwrap(in, application);
+            finished |= runTasks(sslEngine, result);
+            if (result.getStatus() != SSLEngineResult.Status.OK || result.bytesConsumed() == 0) {
+                break;
+            }
+        }
+        in.compact();
+        SSLEngineResult result;
+        do {
+            result = sslEngine.wrap(EMPTY, out);
+            finished |= runTasks(sslEngine, result);
+        } while (result.getStatus() == SSLEngineResult.Status.OK && result.bytesProduced() > 0
+                && sslEngine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP);
+        return finished || sslEngine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    private static boolean runTasks(SSLEngine sslEngine, SSLEngineResult result) {
+        Runnable task;
+        while ((task = sslEngine.getDelegatedTask()) != null) {
+            task.run();
+        }
+        return result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED;
+    }
+}
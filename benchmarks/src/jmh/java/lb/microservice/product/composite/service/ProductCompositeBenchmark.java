@@ -0,0 +1,51 @@
+package lb.microservice.product.composite.service;
+
+import lb.microservice.api.composite.product.ProductAggregate;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.recommendation.Recommendation;
+import lb.microservice.api.core.review.Review;
+import lb.microservice.benchmarks.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembly of the composite response from the core service replies, done once per GET /product-composite/{id}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ProductCompositeBenchmark {
+
+    @Param({"0", "5", "50"})
+    private int items;
+
+    private ProductCompositeServiceImpl service;
+    private SecurityContext securityContext;
+    private Product product;
+    private List<Recommendation> recommendations;
+    private List<Review> reviews;
+
+    @Setup
+    public void setUp() {
+        service = new ProductCompositeServiceImpl(null, null, 0);
+        securityContext = BenchmarkData.jwtSecurityContext();
+        product = BenchmarkData.product();
+        recommendations = BenchmarkData.recommendations(items);
+        reviews = BenchmarkData.reviews(items);
+    }
+
+    @Benchmark
+    public ProductAggregate createProductAggregate() {
+        return service.createProductAggregate(securityContext, product, recommendations, reviews, "composite/10.0.0.2:8080");
+    }
+}
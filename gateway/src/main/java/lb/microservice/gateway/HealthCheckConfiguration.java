@@ -1,18 +1,19 @@
 package lb.microservice.gateway;
 
+import lb.microservice.util.health.CachedHealthContributor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.actuate.health.CompositeReactiveHealthContributor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.ReactiveHealthContributor;
-import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static java.util.logging.Level.FINE;
 
@@ -28,15 +29,19 @@ public class HealthCheckConfiguration {
         this.webClient = webClientBuilder.build();
     }
     
+    /**
+     * Health of the services behind the gateway, polled in the background so health probes do not call them.
+     */
     @Bean
-    ReactiveHealthContributor healthcheckMicroservices() {
-        final Map<String, ReactiveHealthIndicator> registry = new LinkedHashMap<>();
-        registry.put("product", () -> getHealth("http://product"));
-        registry.put("recommendation", () -> getHealth("http://recommendation"));
-        registry.put("review", () -> getHealth("http://review"));
-        registry.put("product-composite", () -> getHealth("http://product-composite"));
-        registry.put("authorization", () -> getHealth("http://authorization"));
-        return CompositeReactiveHealthContributor.fromMap(registry);
+    CachedHealthContributor healthcheckMicroservices(@Value("${app.health.pollInterval:10s}") Duration pollInterval,
+                                                     @Value("${app.health.staleAfter:30s}") Duration staleAfter) {
+        final Map<String, Supplier<Mono<Health>>> checks = new LinkedHashMap<>();
+        checks.put("product", () -> getHealth("http://product"));
+        checks.put("recommendation", () -> getHealth("http://recommendation"));
+        checks.put("review", () -> getHealth("http://review"));
+        checks.put("product-composite", () -> getHealth("http://product-composite"));
+        checks.put("authorization", () -> getHealth("http://authorization"));
+        return new CachedHealthContributor(checks, pollInterval, staleAfter);
     }
 
     private Mono<Health> getHealth(String baseUrl) {
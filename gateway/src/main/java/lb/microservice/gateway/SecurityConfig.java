@@ -1,8 +1,15 @@
 package lb.microservice.gateway;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lb.microservice.gateway.jwt.CachingReactiveJwtDecoder;
+import lb.microservice.gateway.jwt.JwkSetCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
 @EnableWebFluxSecurity
@@ -25,4 +32,16 @@ public class SecurityConfig {
 		return http.build();
 	}
 
+	/**
+	 * Verifies signatures against the background-refreshed {@link JwkSetCache} and caches verified tokens until they expire.
+	 */
+	@Bean
+	ReactiveJwtDecoder jwtDecoder(JwkSetCache jwkSetCache, MeterRegistry meterRegistry,
+								  @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+								  @Value("${app.jwt.cacheSize:10000}") long cacheSize) {
+		NimbusReactiveJwtDecoder verifier = NimbusReactiveJwtDecoder.withJwkSource(jwkSetCache::select).build();
+		verifier.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+		return new CachingReactiveJwtDecoder(verifier, cacheSize, meterRegistry);
+	}
+
 }
@@ -0,0 +1,51 @@
+package lb.microservice.gateway.cache;
+
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * A response body together with the headers needed to replay it. The body stays on the heap, so an evicted entry is
+ * freed by the garbage collector once the last response replaying it is written.
+ */
+@Getter
+public class CachedResponse {
+
+    private final HttpStatus status;
+    private final HttpHeaders headers;
+    private final ByteBuffer body;
+    private final Duration ttl;
+    private final long storedAt = System.nanoTime();
+
+    /**
+     * @param body owned by the entry from now on, it must not be changed
+     */
+    public CachedResponse(HttpStatus status, HttpHeaders headers, byte[] body, Duration ttl) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = ByteBuffer.wrap(body).asReadOnlyBuffer();
+        this.ttl = ttl;
+    }
+
+    public String getETag() {
+        return headers.getETag();
+    }
+
+    public long getAgeSeconds() {
+        return Duration.ofNanos(System.nanoTime() - storedAt).toSeconds();
+    }
+
+    /**
+     * A view of the body with its own position, safe to hand to one response.
+     */
+    public ByteBuffer bodyView() {
+        return body.duplicate();
+    }
+
+    int weight() {
+        return body.capacity() + 64 * headers.size();
+    }
+}
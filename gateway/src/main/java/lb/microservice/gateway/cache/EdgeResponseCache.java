@@ -0,0 +1,88 @@
+package lb.microservice.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Response bodies by request key, bounded by their total size in bytes. Each entry expires after its own TTL.
+ * <p>
+ * Concurrent misses for the same key are collapsed: the first request loads the entry, the others wait for it.
+ * A load that completes with null, i.e. an uncacheable response, leaves no entry behind.
+ * Hits, misses, evictions and size are published as {@code cache.*} meters with {@code cache=edge-responses}.
+ */
+@Slf4j
+@Component
+public class EdgeResponseCache {
+
+    private final AsyncCache<String, CachedResponse> cache;
+
+    @Autowired
+    public EdgeResponseCache(@Value("${app.responseCache.maxBytes:67108864}") long maxBytes, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.getTtl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.getTtl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "edge-responses");
+    }
+
+    /**
+     * Returns the entry of the key, or starts loading it with the supplied future if there is none.
+     * The caller owns the load when the returned future is the supplied one.
+     */
+    public CompletableFuture<CachedResponse> get(String key, Supplier<CompletableFuture<CachedResponse>> loader) {
+        return cache.get(key, (k, executor) -> loader.get());
+    }
+
+    /**
+     * The stored entry of the key, or null if there is none or it is still loading.
+     */
+    public CachedResponse getIfPresent(String key) {
+        CompletableFuture<CachedResponse> entry = cache.getIfPresent(key);
+        return entry != null && entry.isDone() && !entry.isCompletedExceptionally() ? entry.join() : null;
+    }
+
+    public void put(String key, CachedResponse response) {
+        cache.put(key, CompletableFuture.completedFuture(response));
+    }
+
+    public void invalidate(String key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    /**
+     * Drops every entry for the path, whatever its query and scope, including loads still in flight.
+     */
+    public void invalidatePath(String path) {
+        String prefix = path + "?";
+        if (cache.asMap().keySet().removeIf(key -> key.startsWith(prefix))) {
+            log.debug("Invalidated cached responses of {}", path);
+        }
+    }
+}
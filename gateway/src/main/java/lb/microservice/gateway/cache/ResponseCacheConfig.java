@@ -0,0 +1,42 @@
+package lb.microservice.gateway.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+@Slf4j
+@Configuration
+public class ResponseCacheConfig {
+
+    private static final String KEY_HEADER = "partitionKey";
+
+    /**
+     * Sees every product, recommendation and review event, on every gateway instance, and drops the cached
+     * composite responses of the product. Only the partitionKey header is read, so the payload format does not matter.
+     * <p>
+     * The core services apply an event some time after it is published, so the entries are dropped again
+     * after {@code app.responseCache.reinvalidateDelay}, to evict responses loaded in between.
+     */
+    @Bean
+    public Consumer<Message<byte[]>> responseCacheInvalidator(EdgeResponseCache cache,
+                                                              @Value("${app.responseCache.invalidatedPath:/product-composite/}") String pathPrefix,
+                                                              @Value("${app.responseCache.reinvalidateDelay:2s}") Duration reinvalidateDelay) {
+        return message -> {
+            Object key = message.getHeaders().get(KEY_HEADER);
+            if (key == null) {
+                log.warn("Event without {} header, cannot invalidate cached responses", KEY_HEADER);
+                return;
+            }
+            String path = pathPrefix + (key instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : key);
+            cache.invalidatePath(path);
+            Mono.delay(reinvalidateDelay).subscribe(tick -> cache.invalidatePath(path));
+        };
+    }
+}
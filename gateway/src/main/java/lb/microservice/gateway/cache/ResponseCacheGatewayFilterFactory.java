@@ -0,0 +1,264 @@
+package lb.microservice.gateway.cache;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Serves GET responses of a route from the {@link EdgeResponseCache}, keyed by path, query and the caller's scopes.
+ * <p>
+ * A response is stored only if it is a 200 without Set-Cookie whose Cache-Control allows shared caching.
+ * Its TTL is the s-maxage or max-age of the response, capped at the configured TTL.
+ * Requests with Cache-Control no-store bypass the cache. No-cache requests revalidate the entry with the origin by its
+ * ETag, while other requests keep being served from it: a 304 confirms the entry, a new cacheable response replaces it.
+ * If-None-Match is answered with 304 at the edge when the ETag of the entry matches.
+ */
+@Slf4j
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|,)\\s*(s-maxage|max-age)\\s*=\\s*(\\d+)");
+    private static final Set<String> NOT_REPLAYED = Set.of(HttpHeaders.SET_COOKIE, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.DATE);
+    private static final String CACHE_STATUS = "X-Cache";
+    private static final String HIT = "HIT";
+    private static final String MISS = "MISS";
+    private static final String REVALIDATED = "REVALIDATED";
+
+    private final EdgeResponseCache cache;
+
+    @Autowired
+    public ResponseCacheGatewayFilterFactory(EdgeResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String requestCacheControl = String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.CACHE_CONTROL));
+            if (request.getMethod() != HttpMethod.GET || requestCacheControl.contains("no-store")) {
+                return chain.filter(exchange);
+            }
+            return exchange.getPrincipal()
+                    .map(ResponseCacheGatewayFilterFactory::scope)
+                    .defaultIfEmpty("")
+                    .flatMap(scope -> {
+                        String query = request.getURI().getRawQuery();
+                        String key = request.getPath().value() + "?" + (query == null ? "" : query) + " " + scope;
+                        if (requestCacheControl.contains("no-cache")) {
+                            return revalidate(exchange, chain, config, key);
+                        }
+                        CompletableFuture<CachedResponse> load = new CompletableFuture<>();
+                        CompletableFuture<CachedResponse> entry = cache.get(key, () -> load);
+                        if (entry == load) {
+                            return loadFromOrigin(exchange, chain, config, load);
+                        }
+                        // a cancelled waiter must not cancel the load other requests are waiting for
+                        return Mono.fromFuture(entry.copy())
+                                .map(Optional::of)
+                                .defaultIfEmpty(Optional.empty())
+                                .onErrorReturn(Optional.empty())
+                                .flatMap(cached -> cached.isPresent()
+                                        ? replay(exchange, request.getHeaders().getIfNoneMatch(), cached.get(), HIT)
+                                        : chain.filter(exchange));
+                    });
+        };
+    }
+
+    private Mono<Void> loadFromOrigin(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                                      CompletableFuture<CachedResponse> load) {
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return DataBufferUtils.join(body).flatMap(joined -> {
+                    byte[] bytes = read(joined);
+                    CachedResponse cached = toCachedResponse(getStatusCode(), getHeaders(), bytes, config.getTtl());
+                    load.complete(cached);
+                    return writeFromOrigin(response, ifNoneMatch, cached, bytes, MISS);
+                }).switchIfEmpty(Mono.defer(() -> getDelegate().writeWith(Mono.empty())));
+            }
+        };
+        return chain.filter(exchange.mutate().request(originRequest(exchange, null)).response(capturing).build())
+                .doFinally(signal -> load.complete(null));
+    }
+
+    /**
+     * Sends the request to the origin, conditional on the ETag of the stored entry if there is one. The entry stays in
+     * place meanwhile. A 304 is answered from it, a new cacheable response replaces it, and any other response apart
+     * from a server error removes it, since the origin no longer serves what it holds.
+     */
+    private Mono<Void> revalidate(ServerWebExchange exchange, GatewayFilterChain chain, Config config, String key) {
+        CachedResponse stored = cache.getIfPresent(key);
+        String eTag = stored == null ? null : stored.getETag();
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (eTag != null && getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    return Flux.from(body).doOnNext(DataBufferUtils::release)
+                            .then(Mono.defer(() -> replay(exchange, ifNoneMatch, stored, REVALIDATED)));
+                }
+                Mono<byte[]> bytesFromOrigin = DataBufferUtils.join(body).map(ResponseCacheGatewayFilterFactory::read);
+                return bytesFromOrigin.defaultIfEmpty(new byte[0]).flatMap(bytes -> {
+                    HttpStatus status = getStatusCode();
+                    CachedResponse cached = toCachedResponse(status, getHeaders(), bytes, config.getTtl());
+                    if (cached != null) {
+                        cache.put(key, cached);
+                    } else if (stored != null && (status == null || !status.is5xxServerError())) {
+                        cache.invalidate(key);
+                    }
+                    return writeFromOrigin(response, ifNoneMatch, cached, bytes, MISS);
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().request(originRequest(exchange, eTag)).response(capturing).build());
+    }
+
+    /**
+     * The origin must send the full body even if the client already has it, the edge answers 304 itself.
+     * Only the ETag of the stored entry, if given, makes the request conditional. The mutated headers may be those of
+     * the client's request, so its If-None-Match has to be read before.
+     */
+    private static ServerHttpRequest originRequest(ServerWebExchange exchange, String eTag) {
+        return exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                    if (eTag != null) {
+                        headers.setIfNoneMatch(eTag);
+                    }
+                })
+                .build();
+    }
+
+    private static Mono<Void> writeFromOrigin(ServerHttpResponse response, List<String> ifNoneMatch, CachedResponse cached,
+                                              byte[] bytes, String cacheStatus) {
+        response.getHeaders().set(CACHE_STATUS, cacheStatus);
+        if (cached != null && matches(ifNoneMatch, cached.getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, List<String> ifNoneMatch, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        cached.getHeaders().forEach((name, values) -> {
+            if (!NOT_REPLAYED.contains(name)) {
+                headers.put(name, values);
+            }
+        });
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.getAgeSeconds()));
+        headers.set(CACHE_STATUS, cacheStatus);
+        if (matches(ifNoneMatch, cached.getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.getStatus());
+        headers.setContentLength(cached.getBody().remaining());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.bodyView())));
+    }
+
+    private CachedResponse toCachedResponse(HttpStatus status, HttpHeaders headers, byte[] body, Duration maxTtl) {
+        String cacheControl = String.join(",", headers.getOrEmpty(HttpHeaders.CACHE_CONTROL));
+        if (status != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || cacheControl.contains("no-store") || cacheControl.contains("private")) {
+            return null;
+        }
+        Duration ttl = maxTtl;
+        Duration sharedMaxAge = null;
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        while (matcher.find()) {
+            Duration age = Duration.ofSeconds(Long.parseLong(matcher.group(2)));
+            if (matcher.group(1).equals("s-maxage")) {
+                sharedMaxAge = age;
+            } else if (sharedMaxAge == null) {
+                ttl = min(maxTtl, age);
+            }
+        }
+        if (sharedMaxAge != null) {
+            ttl = min(maxTtl, sharedMaxAge);
+        }
+        if (ttl.isZero() || ttl.isNegative()) {
+            return null;
+        }
+        HttpHeaders replayed = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!NOT_REPLAYED.contains(name)) {
+                replayed.put(name, List.copyOf(values));
+            }
+        });
+        return new CachedResponse(status, replayed, body, ttl);
+    }
+
+    private static byte[] read(DataBuffer joined) {
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+    }
+
+    private static String scope(Principal principal) {
+        if (principal instanceof Authentication authentication) {
+            return authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .sorted()
+                    .collect(Collectors.joining(","));
+        }
+        return principal.getName();
+    }
+
+    @Data
+    public static class Config {
+        /**
+         * Upper bound of how long a response is served from the cache.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,80 @@
+package lb.microservice.gateway.hop;
+
+import lb.microservice.util.security.TrustedPrincipal;
+import lb.microservice.util.security.TrustedPrincipalCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Forwards the principal of the already verified bearer token to the routed service in the
+ * {@link TrustedPrincipalCodec#HEADER} header, so the service can skip its own JWT decode.
+ * A copy of the header sent by the client is always removed, whether forwarding is enabled or not.
+ */
+@Slf4j
+@Component
+public class TrustedPrincipalGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final String SCOPE_PREFIX = "SCOPE_";
+
+    private final TrustedPrincipalCodec codec;
+
+    @Autowired
+    public TrustedPrincipalGlobalFilter(@Value("${app.trustedHop.enabled:false}") boolean enabled,
+                                        @Value("${app.trustedHop.secret:}") String secret) {
+        this.codec = enabled ? new TrustedPrincipalCodec(secret) : null;
+        log.info("Trusted principal forwarding is {}", enabled ? "enabled" : "disabled");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        boolean spoofed = exchange.getRequest().getHeaders().containsKey(TrustedPrincipalCodec.HEADER);
+        if (codec == null) {
+            return chain.filter(spoofed ? withHeader(exchange, null) : exchange);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .mapNotNull(authentication -> encode((JwtAuthenticationToken) authentication))
+                .map(header -> withHeader(exchange, header))
+                .defaultIfEmpty(spoofed ? withHeader(exchange, null) : exchange)
+                .flatMap(chain::filter);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private String encode(JwtAuthenticationToken authentication) {
+        Jwt jwt = authentication.getToken();
+        List<String> scopes = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(SCOPE_PREFIX))
+                .map(authority -> authority.substring(SCOPE_PREFIX.length()))
+                .toList();
+        return jwt.getExpiresAt() == null ? null : codec.encode(new TrustedPrincipal(jwt.getSubject(), scopes, jwt.getExpiresAt()));
+    }
+
+    private static ServerWebExchange withHeader(ServerWebExchange exchange, String header) {
+        return exchange.mutate().request(request -> request.headers(headers -> {
+            headers.remove(TrustedPrincipalCodec.HEADER);
+            if (header != null) {
+                headers.set(TrustedPrincipalCodec.HEADER, header);
+            }
+        })).build();
+    }
+}
@@ -0,0 +1,103 @@
+package lb.microservice.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Verifies each bearer token once and serves repeated requests with the same token from a cache
+ * until the token expires. Entries are keyed by the SHA-256 of the token, tokens that fail verification
+ * are not cached, and concurrent first requests with one token share a single verification.
+ * Hits, misses, evictions and size are published as {@code cache.*} meters with {@code cache=verified-jwts}.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final Clock clock;
+    private final AsyncCache<String, Jwt> cache;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxSize, MeterRegistry meterRegistry) {
+        this(delegate, maxSize, meterRegistry, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    /**
+     * @param clock  compared with the tokens' expiry
+     * @param ticker measures how long entries have been cached
+     */
+    CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxSize, MeterRegistry meterRegistry, Clock clock, Ticker ticker) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                        return untilExpiry(jwt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return untilExpiry(jwt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-jwts");
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        AtomicReference<CompletableFuture<Jwt>> verification = new AtomicReference<>();
+        CompletableFuture<Jwt> cached = cache.get(hash(token), (key, executor) -> {
+            verification.set(delegate.decode(token).toFuture());
+            // a rejected token completes the entry with null, which leaves nothing in the cache
+            return verification.get().exceptionally(e -> null);
+        });
+        if (verification.get() != null) {
+            return Mono.fromFuture(verification.get().copy());
+        }
+        // a cancelled request must not cancel the verification other requests are waiting for,
+        // and requests that waited for a rejected token get its error from their own verification
+        return Mono.fromFuture(cached.copy())
+                .switchIfEmpty(Mono.defer(() -> delegate.decode(token)));
+    }
+
+    private long untilExpiry(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package lb.microservice.gateway.jwt;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * The authorization server's signing keys, loaded when the gateway is ready and refreshed in the background,
+ * so verifying a token never waits for the JWKS endpoint.
+ * A token signed with an unknown key triggers an early refresh, at most once per {@code minRefreshInterval},
+ * which picks up rotated keys without letting bad tokens hammer the endpoint.
+ */
+@Slf4j
+@Component
+public class JwkSetCache {
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<JWKSet> jwkSet = new AtomicReference<>(new JWKSet());
+    private final AtomicLong lastRefresh;
+    private Disposable refresher;
+
+    @Autowired
+    public JwkSetCache(@Value("${app.jwt.jwkSetUri:${spring.security.oauth2.resourceserver.jwt.issuer-uri}/oauth2/jwks}") String jwkSetUri,
+                       @Value("${app.jwt.jwkSetRefreshInterval:5m}") Duration refreshInterval,
+                       @Value("${app.jwt.jwkSetMinRefreshInterval:10s}") Duration minRefreshInterval) {
+        this(jwkSetUri, refreshInterval, minRefreshInterval, WebClient.create(), System::nanoTime);
+    }
+
+    JwkSetCache(String jwkSetUri, Duration refreshInterval, Duration minRefreshInterval, WebClient webClient,
+                LongSupplier nanoClock) {
+        this.jwkSetUri = jwkSetUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.webClient = webClient;
+        this.nanoClock = nanoClock;
+        this.lastRefresh = new AtomicLong(nanoClock.getAsLong() - Long.MAX_VALUE / 2);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refresher = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+    }
+
+    /**
+     * The keys that can have signed the token.
+     */
+    public Flux<JWK> select(SignedJWT jwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        List<JWK> keys = selector.select(jwkSet.get());
+        if (!keys.isEmpty()) {
+            return Flux.fromIterable(keys);
+        }
+        long now = nanoClock.getAsLong();
+        long last = lastRefresh.get();
+        if (now - last < minRefreshInterval.toNanos() || !lastRefresh.compareAndSet(last, now)) {
+            return Flux.empty();
+        }
+        log.info("No signing key matches kid {}, refreshing the JWK set", jwt.getHeader().getKeyID());
+        return refresh().flatMapIterable(selector::select);
+    }
+
+    private Mono<JWKSet> refresh() {
+        lastRefresh.set(nanoClock.getAsLong());
+        return webClient.get().uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(this::parse)
+                .doOnNext(keys -> {
+                    jwkSet.set(keys);
+                    log.debug("Loaded {} signing keys from {}", keys.getKeys().size(), jwkSetUri);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to load the JWK set from {}, keeping {} known keys: {}",
+                            jwkSetUri, jwkSet.get().getKeys().size(), e.toString());
+                    return Mono.just(jwkSet.get());
+                });
+    }
+
+    private JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JWK set: " + e.getMessage(), e);
+        }
+    }
+}
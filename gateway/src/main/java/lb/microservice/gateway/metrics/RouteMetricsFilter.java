@@ -0,0 +1,181 @@
+package lb.microservice.gateway.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Measures every routed request by route and status class ({@code 2xx}, {@code 5xx}, ... or {@code ERROR} if it failed):
+ * <ul>
+ *     <li>{@code gateway.route.latency}, from the first gateway filter until the response is written</li>
+ *     <li>{@code gateway.route.upstream}, until the routed service answered with its headers, see {@link UpstreamTimingFilter}</li>
+ *     <li>{@code gateway.route.overhead}, the latency not spent waiting for the routed service</li>
+ *     <li>{@code gateway.route.request.size} and {@code gateway.route.response.size} in bytes, request sizes only
+ *     for requests with a Content-Length</li>
+ *     <li>{@code gateway.route.active}, the requests in flight per route</li>
+ * </ul>
+ * The timers publish percentile histograms with the {@code app.routeMetrics.slo} buckets.
+ */
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] serviceLevelObjectives;
+    private final LongSupplier nanoClock;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RouteMetricsFilter(MeterRegistry meterRegistry,
+                              @Value("${app.routeMetrics.slo:50ms,100ms,250ms,500ms,1s,2s}") Duration[] serviceLevelObjectives) {
+        this(meterRegistry, serviceLevelObjectives, System::nanoTime);
+    }
+
+    RouteMetricsFilter(MeterRegistry meterRegistry, Duration[] serviceLevelObjectives, LongSupplier nanoClock) {
+        this.meterRegistry = meterRegistry;
+        this.serviceLevelObjectives = serviceLevelObjectives;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? UNKNOWN : route.getId();
+        long start = nanoClock.getAsLong();
+        AtomicInteger inFlight = active(routeId);
+        inFlight.incrementAndGet();
+        CountingResponse response = new CountingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> {
+                    inFlight.decrementAndGet();
+                    record(exchange, routeId, signal, nanoClock.getAsLong() - start, response.getBytesWritten());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void record(ServerWebExchange exchange, String routeId, SignalType signal, long latencyNanos, long responseBytes) {
+        String status = status(exchange, signal);
+        RouteMeters routeMeters = meters.computeIfAbsent(routeId + '\n' + status,
+                key -> routeMeters(Tags.of("route", routeId, "status", status)));
+        routeMeters.latency().record(latencyNanos, TimeUnit.NANOSECONDS);
+        Long upstreamNanos = exchange.getAttribute(UpstreamTimingFilter.UPSTREAM_NANOS_ATTR);
+        if (upstreamNanos != null) {
+            routeMeters.upstream().record(upstreamNanos, TimeUnit.NANOSECONDS);
+            routeMeters.overhead().record(Math.max(0, latencyNanos - upstreamNanos), TimeUnit.NANOSECONDS);
+        }
+        // chunked requests have no Content-Length, their size is unknown rather than 0
+        long requestBytes = exchange.getRequest().getHeaders().getContentLength();
+        if (requestBytes >= 0) {
+            routeMeters.requestSize().record(requestBytes);
+        }
+        routeMeters.responseSize().record(responseBytes);
+    }
+
+    /**
+     * The status class, or CANCELLED and ERROR for requests that ended before the status was final.
+     */
+    private static String status(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return "CANCELLED";
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return "ERROR";
+        }
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status == null ? UNKNOWN : status / 100 + "xx";
+    }
+
+    private RouteMeters routeMeters(Tags tags) {
+        return new RouteMeters(timer("gateway.route.latency", tags),
+                timer("gateway.route.upstream", tags),
+                timer("gateway.route.overhead", tags),
+                size("gateway.route.request.size", tags),
+                size("gateway.route.response.size", tags));
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(serviceLevelObjectives)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary size(String name, Tags tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private AtomicInteger active(String routeId) {
+        return active.computeIfAbsent(routeId, id -> {
+            AtomicInteger inFlight = new AtomicInteger();
+            Gauge.builder("gateway.route.active", inFlight, AtomicInteger::get)
+                    .tag("route", id)
+                    .register(meterRegistry);
+            return inFlight;
+        });
+    }
+
+    private record RouteMeters(Timer latency, Timer upstream, Timer overhead,
+                               DistributionSummary requestSize, DistributionSummary responseSize) {
+    }
+
+    private static class CountingResponse extends ServerHttpResponseDecorator {
+
+        private final AtomicLong bytesWritten = new AtomicLong();
+
+        CountingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        long getBytesWritten() {
+            return bytesWritten.get();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(buffer -> bytesWritten.addAndGet(buffer.readableByteCount())));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body)
+                    .map(part -> Flux.from(part).doOnNext(buffer -> bytesWritten.addAndGet(buffer.readableByteCount()))));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package lb.microservice.gateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Runs right before the routing filter and stores the time until the routed service answered with its headers,
+ * summed over retries, for {@link RouteMetricsFilter}. Responses served by the gateway itself have no upstream time.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    static final String UPSTREAM_NANOS_ATTR = UpstreamTimingFilter.class.getName() + ".upstreamNanos";
+
+    private final LongSupplier nanoClock;
+
+    public UpstreamTimingFilter() {
+        this(System::nanoTime);
+    }
+
+    UpstreamTimingFilter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = nanoClock.getAsLong();
+        return chain.filter(exchange)
+                .doOnTerminate(() -> exchange.getAttributes()
+                        .merge(UPSTREAM_NANOS_ATTR, nanoClock.getAsLong() - start, (a, b) -> (Long) a + (Long) b));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
@@ -0,0 +1,143 @@
+package lb.microservice.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token bucket per route and key, a drop-in for the Redis rate limiter of the {@code RequestRateLimiter} filter.
+ * Limits are configured per route with {@code local-rate-limiter.*} filter args, so read and write routes get their own buckets.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding the time at which it will be full again (GCRA),
+ * updated with compare-and-set, so concurrent requests never lock. Idle buckets are evicted.
+ * Decisions are counted as {@code gateway.ratelimit.requests} by route and outcome.
+ */
+@Slf4j
+@Component
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Cache<String, AtomicLong> buckets;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LocalTokenBucketRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                                       @Value("${app.rateLimit.maxBuckets:100000}") long maxBuckets,
+                                       @Value("${app.rateLimit.idleBucketExpiry:10m}") Duration idleBucketExpiry) {
+        this(configurationService, meterRegistry, maxBuckets, idleBucketExpiry, System::nanoTime);
+    }
+
+    LocalTokenBucketRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                                long maxBuckets, Duration idleBucketExpiry, LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleBucketExpiry)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit-buckets");
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            throw new IllegalArgumentException("No Configuration found for route " + routeId);
+        }
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = buckets.get(routeId + '\n' + id, key -> new AtomicLong(now));
+
+        long interval = NANOS_PER_SECOND / config.getReplenishRate();
+        long capacity = interval * config.getBurstCapacity();
+        long cost = interval * config.getRequestedTokens();
+        long current;
+        long next;
+        do {
+            current = fullAt.get();
+            next = Math.max(current, now) + cost;
+            if (next - now > capacity) {
+                long retryAfter = next - now - capacity;
+                long remaining = (capacity - (Math.max(current, now) - now)) / interval;
+                return Mono.just(decision(routeId, id, config, false, remaining, retryAfter));
+            }
+        } while (!fullAt.compareAndSet(current, next));
+        return Mono.just(decision(routeId, id, config, true, (capacity - (next - now)) / interval, 0));
+    }
+
+    private Response decision(String routeId, String id, Config config, boolean allowed, long remaining, long retryAfterNanos) {
+        counter(routeId, allowed).increment();
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(REMAINING_HEADER, Long.toString(remaining));
+        headers.put(REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()));
+        headers.put(REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+        if (!allowed) {
+            long seconds = (retryAfterNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+            headers.put(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, seconds)));
+            log.debug("Rate limited {} on route {}, retry after {}s", id, routeId, seconds);
+        }
+        return new Response(allowed, headers);
+    }
+
+    private Counter counter(String routeId, boolean allowed) {
+        String outcome = allowed ? "allowed" : "rejected";
+        return counters.computeIfAbsent(routeId + '\n' + outcome, key -> Counter.builder("gateway.ratelimit.requests")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    @Data
+    @Validated
+    public static class Config {
+        /**
+         * Tokens added to a bucket per second.
+         */
+        @Min(1)
+        private int replenishRate = 10;
+
+        /**
+         * Tokens a bucket holds when full, i.e. the largest burst allowed.
+         */
+        @Min(1)
+        private int burstCapacity = 20;
+
+        /**
+         * Tokens taken by each request.
+         */
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
@@ -0,0 +1,28 @@
+package lb.microservice.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+@Configuration
+public class RateLimitConfig {
+
+    private static final String CLIENT_ID_CLAIM = "client_id";
+
+    /**
+     * Rate limits by OAuth client, the {@code client_id} claim of the bearer token or else its subject.
+     * Requests without a bearer token resolve no key and are denied by the {@code RequestRateLimiter} filter.
+     */
+    @Bean
+    KeyResolver oauthClientKeyResolver() {
+        return exchange -> exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(principal -> {
+                    Jwt jwt = ((JwtAuthenticationToken) principal).getToken();
+                    String clientId = jwt.getClaimAsString(CLIENT_ID_CLAIM);
+                    return clientId != null ? clientId : jwt.getSubject();
+                });
+    }
+}
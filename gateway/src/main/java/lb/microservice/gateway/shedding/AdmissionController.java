@@ -0,0 +1,210 @@
+package lb.microservice.gateway.shedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the requests the gateway routes concurrently. A request gets a slot right away if its priority may use one,
+ * otherwise it queues for at most the max queue time of its priority, and freed slots go to the highest priority waiting.
+ * A request is shed without queueing if its priority does not queue, or the oldest request queued at its priority
+ * or above has already waited longer than the request could, i.e. the observed queueing delay is over its budget.
+ * <p>
+ * Queueing delays are timed as {@code gateway.admission.wait}, shed requests counted as {@code gateway.admission.shed},
+ * both by priority.
+ */
+@Slf4j
+@Component
+public class AdmissionController {
+
+    private final int maxConcurrent;
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private int inFlight;
+
+    @Autowired
+    public AdmissionController(@Value("${app.loadShedding.maxConcurrent:200}") int maxConcurrent, MeterRegistry meterRegistry) {
+        this(maxConcurrent, meterRegistry, System::nanoTime);
+    }
+
+    AdmissionController(int maxConcurrent, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.maxConcurrent = maxConcurrent;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            Gauge.builder("gateway.admission.queued", this, controller -> controller.queued(priority))
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("gateway.admission.wait")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("gateway.admission.active", this, AdmissionController::active).register(meterRegistry);
+    }
+
+    /**
+     * Emits the release of the slot given to the request, which must be run once the request is done,
+     * or signals {@link RejectedException} if the request is shed.
+     */
+    public Mono<Runnable> acquire(Priority priority) {
+        Waiter waiter;
+        synchronized (this) {
+            if (inFlight < limit(priority) && !hasWaiters(priority)) {
+                inFlight++;
+                return Mono.just(admitted(priority, 0));
+            }
+            long waited = oldestWait(priority);
+            if (priority.getMaxQueueTime().isZero() || waited > priority.getMaxQueueTime().toNanos()) {
+                return Mono.error(rejected(priority, "overloaded"));
+            }
+            waiter = new Waiter(priority, nanoClock.getAsLong());
+            queues.get(priority).addLast(waiter);
+        }
+        return waiter.sink.asMono()
+                .timeout(priority.getMaxQueueTime(), Mono.defer(() -> abandon(waiter)
+                        ? Mono.error(rejected(priority, "timeout"))
+                        : waiter.sink.asMono()))
+                .doOnCancel(() -> {
+                    if (!abandon(waiter)) {
+                        waiter.sink.asMono().subscribe(Runnable::run);
+                    }
+                });
+    }
+
+    /**
+     * Takes a waiter that gives up off its queue, fails if a slot has already been given to it.
+     */
+    private boolean abandon(Waiter waiter) {
+        if (!waiter.settled.compareAndSet(false, true)) {
+            return false;
+        }
+        synchronized (this) {
+            queues.get(waiter.priority).remove(waiter);
+        }
+        return true;
+    }
+
+    private Runnable admitted(Priority priority, long waitedNanos) {
+        waitTimers.get(priority).record(Duration.ofNanos(waitedNanos));
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        };
+    }
+
+    /**
+     * Hands the slot to the highest priority request waiting that may use it, or frees it.
+     */
+    private void release() {
+        Waiter next = null;
+        synchronized (this) {
+            for (Priority priority : Priority.values()) {
+                ArrayDeque<Waiter> queue = queues.get(priority);
+                if (inFlight > limit(priority)) {
+                    continue;
+                }
+                Waiter waiter;
+                while ((waiter = queue.pollFirst()) != null) {
+                    if (waiter.settled.compareAndSet(false, true)) {
+                        next = waiter;
+                        break;
+                    }
+                }
+                if (next != null) {
+                    break;
+                }
+            }
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        if (next != null) {
+            next.sink.tryEmitValue(admitted(next.priority, nanoClock.getAsLong() - next.enqueuedAt));
+        }
+    }
+
+    private int limit(Priority priority) {
+        return (int) Math.ceil(maxConcurrent * priority.getShare());
+    }
+
+    private boolean hasWaiters(Priority priority) {
+        for (Priority other : Priority.values()) {
+            if (other.compareTo(priority) <= 0 && !queues.get(other).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The time the oldest request queued at the priority or above has waited so far.
+     */
+    private long oldestWait(Priority priority) {
+        long now = nanoClock.getAsLong();
+        long oldest = 0;
+        for (Priority other : Priority.values()) {
+            Waiter waiter = other.compareTo(priority) <= 0 ? queues.get(other).peekFirst() : null;
+            if (waiter != null) {
+                oldest = Math.max(oldest, now - waiter.enqueuedAt);
+            }
+        }
+        return oldest;
+    }
+
+    private RejectedException rejected(Priority priority, String reason) {
+        shedCounters.computeIfAbsent(priority.name() + '\n' + reason, key -> Counter.builder("gateway.admission.shed")
+                        .tag("priority", priority.name())
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+        log.debug("Shed a {} request, {}", priority, reason);
+        return new RejectedException(priority);
+    }
+
+    private synchronized int queued(Priority priority) {
+        return queues.get(priority).size();
+    }
+
+    private synchronized int active() {
+        return inFlight;
+    }
+
+    public static class RejectedException extends RuntimeException {
+        RejectedException(Priority priority) {
+            super("Shed a " + priority + " request", null, false, false);
+        }
+    }
+
+    private static class Waiter {
+        private final Priority priority;
+        private final long enqueuedAt;
+        private final Sinks.One<Runnable> sink = Sinks.one();
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        Waiter(Priority priority, long enqueuedAt) {
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package lb.microservice.gateway.shedding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Admits routed requests through the {@link AdmissionController} by the {@code priority} metadata of their route,
+ * LOW if the route has none or an unknown one. Shed requests get a 503 with {@code Retry-After}.
+ */
+@Slf4j
+@Component
+public class LoadSheddingFilter implements GlobalFilter, Ordered {
+
+    static final String PRIORITY_METADATA = "priority";
+
+    private final AdmissionController admissionController;
+    private final String retryAfter;
+    private final Map<String, Priority> priorities = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LoadSheddingFilter(AdmissionController admissionController,
+                              @Value("${app.loadShedding.retryAfter:1s}") Duration retryAfter) {
+        this.admissionController = admissionController;
+        this.retryAfter = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return admissionController.acquire(priority(exchange))
+                .onErrorResume(AdmissionController.RejectedException.class, e -> {
+                    exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+                    return exchange.getResponse().setComplete().then(Mono.empty());
+                })
+                .flatMap(release -> chain.filter(exchange).doFinally(signal -> release.run()));
+    }
+
+    /**
+     * Runs after the metrics and principal filters, so shed requests are measured, before any route filter.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    private Priority priority(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        Object priority = route == null ? null : route.getMetadata().get(PRIORITY_METADATA);
+        if (priority == null) {
+            return Priority.LOW;
+        }
+        return priorities.computeIfAbsent(route.getId() + '\n' + priority, key -> parse(route.getId(), priority.toString()));
+    }
+
+    private static Priority parse(String routeId, String priority) {
+        try {
+            return Priority.valueOf(priority.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown priority {} of route {}, admitting its requests as LOW", priority, routeId);
+            return Priority.LOW;
+        }
+    }
+}
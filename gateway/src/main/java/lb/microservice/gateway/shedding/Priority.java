@@ -0,0 +1,35 @@
+package lb.microservice.gateway.shedding;
+
+import java.time.Duration;
+
+/**
+ * Admission priority of a route, from its {@code priority} metadata. Under overload lower priorities are shed first:
+ * they may only fill part of the concurrency limit, and wait less for a free slot before they are rejected.
+ */
+public enum Priority {
+    CRITICAL(1.0, Duration.ofSeconds(2)),
+    CORE(0.9, Duration.ofMillis(500)),
+    LOW(0.5, Duration.ZERO);
+
+    private final double share;
+    private final Duration maxQueueTime;
+
+    Priority(double share, Duration maxQueueTime) {
+        this.share = share;
+        this.maxQueueTime = maxQueueTime;
+    }
+
+    /**
+     * The part of the concurrency limit requests of this priority may use.
+     */
+    public double getShare() {
+        return share;
+    }
+
+    /**
+     * How long a request of this priority may wait for a free slot.
+     */
+    public Duration getMaxQueueTime() {
+        return maxQueueTime;
+    }
+}
@@ -0,0 +1,94 @@
+package lb.microservice.gateway.tls;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.util.Arrays;
+
+/**
+ * Tells from the hello messages, which are sent in the clear, whether a TLS handshake resumed a session, whatever the
+ * engine. In TLS 1.3 the ServerHello accepts a session ticket with its {@code pre_shared_key} extension; before
+ * TLS 1.3 the server resumes by echoing the session id that the client offered. Sits in front of the SSL handler and
+ * passes the bytes on untouched. A hello split over several reads or writes is not parsed and counts as not resumed.
+ */
+class SessionResumptionDetector extends ChannelDuplexHandler {
+
+    private static final short HANDSHAKE = 22;
+    private static final short CLIENT_HELLO = 1;
+    private static final short SERVER_HELLO = 2;
+    private static final int PRE_SHARED_KEY = 41;
+    private static final int SUPPORTED_VERSIONS = 43;
+    // record header, handshake message header, legacy version and random
+    private static final int SESSION_ID_OFFSET = 5 + 4 + 2 + 32;
+
+    private byte[] clientSessionId;
+    private boolean resumed;
+
+    boolean isResumed() {
+        return resumed;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf buf && isHello(buf, CLIENT_HELLO)) {
+            clientSessionId = sessionId(buf);
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        // A HelloRetryRequest is a ServerHello too, the last one decides
+        if (msg instanceof ByteBuf buf && isHello(buf, SERVER_HELLO)) {
+            resumed = resumes(buf);
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    private boolean resumes(ByteBuf buf) {
+        byte[] serverSessionId = sessionId(buf);
+        if (serverSessionId == null) {
+            return false;
+        }
+        int start = buf.readerIndex();
+        int end = Math.min(buf.writerIndex(), start + 5 + buf.getUnsignedShort(start + 3));
+        // cipher suite and compression method
+        int index = start + SESSION_ID_OFFSET + 1 + serverSessionId.length + 2 + 1;
+        if (index + 2 > end) {
+            return false;
+        }
+        end = Math.min(end, index + 2 + buf.getUnsignedShort(index));
+        index += 2;
+        boolean tls13 = false;
+        while (index + 4 <= end) {
+            int extension = buf.getUnsignedShort(index);
+            if (extension == PRE_SHARED_KEY) {
+                return true;
+            }
+            tls13 |= extension == SUPPORTED_VERSIONS;
+            index += 4 + buf.getUnsignedShort(index + 2);
+        }
+        // TLS 1.3 servers echo the client's session id in every handshake
+        return !tls13 && serverSessionId.length > 0 && Arrays.equals(serverSessionId, clientSessionId);
+    }
+
+    private static boolean isHello(ByteBuf buf, short messageType) {
+        int start = buf.readerIndex();
+        return buf.readableBytes() > SESSION_ID_OFFSET
+                && buf.getUnsignedByte(start) == HANDSHAKE
+                && buf.getUnsignedByte(start + 5) == messageType;
+    }
+
+    private static byte[] sessionId(ByteBuf buf) {
+        int index = buf.readerIndex() + SESSION_ID_OFFSET;
+        int length = buf.getUnsignedByte(index);
+        if (index + 1 + length > buf.writerIndex()) {
+            return null;
+        }
+        byte[] sessionId = new byte[length];
+        buf.getBytes(index + 1, sessionId);
+        return sessionId;
+    }
+}
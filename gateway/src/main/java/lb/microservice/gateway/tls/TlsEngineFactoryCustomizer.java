@@ -0,0 +1,60 @@
+package lb.microservice.gateway.tls;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Replaces Boot's TLS setup of the Netty server with {@link TlsEngineServerCustomizer} using the {@code app.tls.engine}
+ * TLS engine. OPENSSL falls back to the JDK engine if netty-tcnative cannot be loaded on this platform.
+ * Runs after the customizer applying the {@code server.*} properties, so the SSL and HTTP/2 settings are in place.
+ */
+@Slf4j
+@Component
+public class TlsEngineFactoryCustomizer implements WebServerFactoryCustomizer<NettyReactiveWebServerFactory>, Ordered {
+
+    private final MeterRegistry meterRegistry;
+    private final SslProvider engine;
+    private final long sessionCacheSize;
+    private final Duration sessionTimeout;
+
+    @Autowired
+    public TlsEngineFactoryCustomizer(MeterRegistry meterRegistry,
+                                      @Value("${app.tls.engine:JDK}") SslProvider engine,
+                                      @Value("${app.tls.sessionCacheSize:20000}") long sessionCacheSize,
+                                      @Value("${app.tls.sessionTimeout:1h}") Duration sessionTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.engine = engine;
+        this.sessionCacheSize = sessionCacheSize;
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    @Override
+    public void customize(NettyReactiveWebServerFactory factory) {
+        if (factory.getSsl() == null || !factory.getSsl().isEnabled()) {
+            return;
+        }
+        SslProvider provider = engine;
+        if (provider != SslProvider.JDK && !OpenSsl.isAvailable()) {
+            log.warn("TLS engine {} is not available, using JDK instead", provider, OpenSsl.unavailabilityCause());
+            provider = SslProvider.JDK;
+        }
+        log.info("Using the {} TLS engine, session cache size {}, session timeout {}", provider, sessionCacheSize, sessionTimeout);
+        factory.addServerCustomizers(new TlsEngineServerCustomizer(factory.getSsl(), factory.getHttp2(),
+                factory.getSslStoreProvider(), provider, sessionCacheSize, sessionTimeout, meterRegistry));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,108 @@
+package lb.microservice.gateway.tls;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import io.netty.handler.ssl.SslProvider;
+import org.springframework.boot.web.embedded.netty.SslServerCustomizer;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.boot.web.server.SslStoreProvider;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.tcp.AbstractProtocolSslContextSpec;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boot's TLS setup of the Netty server with an explicit TLS engine and session cache. With {@link SslProvider#OPENSSL}
+ * handshakes and bulk encryption run in BoringSSL, which also issues session tickets, so returning clients resume
+ * their sessions without a full handshake. HTTP/2 is negotiated with ALPN when {@code server.http2.enabled} is set.
+ * <p>
+ * Handshakes are counted as {@code gateway.tls.handshakes} by engine and result, and timed as
+ * {@code gateway.tls.handshake.time} from the connection being accepted. Results are {@code full}, {@code resumed} or
+ * {@code failed}, as told by {@link SessionResumptionDetector}: BoringSSL gives resumed TLS 1.3 sessions neither an id
+ * nor their original creation time, so the session itself cannot tell.
+ */
+public class TlsEngineServerCustomizer extends SslServerCustomizer {
+
+    private static final String METRICS_HANDLER = "tlsHandshakeMetrics";
+    private static final String RESUMPTION_DETECTOR = "tlsResumptionDetector";
+
+    private final SslProvider provider;
+    private final long sessionCacheSize;
+    private final Duration sessionTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HandshakeMeters> meters = new ConcurrentHashMap<>();
+
+    public TlsEngineServerCustomizer(Ssl ssl, Http2 http2, SslStoreProvider sslStoreProvider, SslProvider provider,
+                                     long sessionCacheSize, Duration sessionTimeout, MeterRegistry meterRegistry) {
+        super(ssl, http2, sslStoreProvider);
+        this.provider = provider;
+        this.sessionCacheSize = sessionCacheSize;
+        this.sessionTimeout = sessionTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public HttpServer apply(HttpServer server) {
+        return super.apply(server).doOnChannelInit((observer, channel, remoteAddress) -> {
+            if (channel.pipeline().get(NettyPipeline.SslHandler) != null) {
+                SessionResumptionDetector resumption = new SessionResumptionDetector();
+                channel.pipeline().addBefore(NettyPipeline.SslHandler, RESUMPTION_DETECTOR, resumption);
+                channel.pipeline().addAfter(NettyPipeline.SslHandler, METRICS_HANDLER, new HandshakeMetricsHandler(resumption));
+            }
+        });
+    }
+
+    @Override
+    protected AbstractProtocolSslContextSpec<?> createSslContextSpec() {
+        return super.createSslContextSpec().configure(builder -> builder
+                .sslProvider(provider)
+                .sessionCacheSize(sessionCacheSize)
+                .sessionTimeout(sessionTimeout.toSeconds()));
+    }
+
+    private class HandshakeMetricsHandler extends ChannelInboundHandlerAdapter {
+
+        private final long acceptedNanos = System.nanoTime();
+        private final SessionResumptionDetector resumption;
+
+        private HandshakeMetricsHandler(SessionResumptionDetector resumption) {
+            this.resumption = resumption;
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object event) throws Exception {
+            if (event instanceof SslHandshakeCompletionEvent completion) {
+                record(!completion.isSuccess() ? "failed" : resumption.isResumed() ? "resumed" : "full");
+                ctx.pipeline().remove(resumption);
+                ctx.pipeline().remove(this);
+            }
+            super.userEventTriggered(ctx, event);
+        }
+
+        private void record(String result) {
+            HandshakeMeters handshake = meters.computeIfAbsent(result, key -> new HandshakeMeters(
+                    Counter.builder("gateway.tls.handshakes")
+                            .tag("engine", provider.name())
+                            .tag("result", result)
+                            .register(meterRegistry),
+                    Timer.builder("gateway.tls.handshake.time")
+                            .tag("engine", provider.name())
+                            .tag("result", result)
+                            .register(meterRegistry)));
+            handshake.count().increment();
+            handshake.time().record(System.nanoTime() - acceptedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record HandshakeMeters(Counter count, Timer time) {
+    }
+}
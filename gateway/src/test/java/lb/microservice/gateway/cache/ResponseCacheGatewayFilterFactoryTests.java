@@ -0,0 +1,272 @@
+package lb.microservice.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+    private static final String PATH = "/product-composite/1";
+    private static final String KEY = PATH + "? ";
+
+    private final EdgeResponseCache cache = new EdgeResponseCache(1 << 20, new SimpleMeterRegistry());
+    private final GatewayFilter filter = new ResponseCacheGatewayFilterFactory(cache).apply(new ResponseCacheGatewayFilterFactory.Config());
+    private final List<String> originIfNoneMatch = new ArrayList<>();
+
+    private HttpStatus originStatus = HttpStatus.OK;
+    private String originCacheControl = "max-age=0, s-maxage=10";
+    private String originETag = "\"v1\"";
+    private String originBody = "{\"productId\":1}";
+    private String originSetCookie;
+    private Mono<Void> originGate = Mono.empty();
+
+    @Test
+    void missIsStoredAndServedAsHit() {
+        MockServerWebExchange miss = get(PATH);
+        MockServerWebExchange hit = get(PATH);
+
+        assertEquals("MISS", cacheStatus(miss));
+        assertEquals("HIT", cacheStatus(hit));
+        assertEquals(originBody, body(hit));
+        assertEquals(HttpStatus.OK, hit.getResponse().getStatusCode());
+        assertEquals("\"v1\"", hit.getResponse().getHeaders().getETag());
+        assertEquals(1, originIfNoneMatch.size());
+    }
+
+    @Test
+    void queriesAreCachedSeparately() {
+        get(PATH + "?maxRecommendations=1");
+
+        assertEquals("MISS", cacheStatus(get(PATH)));
+        assertEquals("HIT", cacheStatus(get(PATH + "?maxRecommendations=1")));
+    }
+
+    @Test
+    void ifNoneMatchIsAnsweredAtTheEdge() {
+        get(PATH);
+
+        MockServerWebExchange conditional = get(PATH, HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals(1, originIfNoneMatch.size());
+    }
+
+    @Test
+    void ttlIsTheSharedMaxAgeCappedByTheRoute() {
+        assertEquals(Duration.ofSeconds(10), storedTtl("max-age=0, s-maxage=10"));
+        assertEquals(Duration.ofSeconds(10), storedTtl("s-maxage=10, max-age=20"));
+        assertEquals(Duration.ofSeconds(5), storedTtl("max-age=5"));
+        assertEquals(Duration.ofSeconds(30), storedTtl("max-age=0, s-maxage=60"));
+        assertEquals(Duration.ofSeconds(30), storedTtl("public"));
+        assertNull(storedTtl("public, s-maxage=0, max-age=60"));
+    }
+
+    @Test
+    void privateResponsesAreNotStored() {
+        originCacheControl = "private, max-age=60";
+
+        get(PATH);
+
+        assertEquals("MISS", cacheStatus(get(PATH)));
+        assertEquals(2, originIfNoneMatch.size());
+    }
+
+    @Test
+    void responsesWithCookiesAreNotStored() {
+        originSetCookie = "session=1";
+
+        get(PATH);
+
+        assertEquals("MISS", cacheStatus(get(PATH)));
+        assertEquals(2, originIfNoneMatch.size());
+    }
+
+    @Test
+    void errorsAreNotStored() {
+        originStatus = HttpStatus.NOT_FOUND;
+
+        get(PATH);
+
+        assertEquals("MISS", cacheStatus(get(PATH)));
+    }
+
+    @Test
+    void noStoreRequestsBypassTheCache() {
+        get(PATH);
+
+        MockServerWebExchange bypass = get(PATH, HttpHeaders.CACHE_CONTROL, "no-store");
+
+        assertNull(cacheStatus(bypass));
+        assertEquals(2, originIfNoneMatch.size());
+    }
+
+    @Test
+    void concurrentMissesShareOneOriginRequest() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        originGate = gate.asMono();
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        List<MockServerWebExchange> done = new ArrayList<>();
+
+        filter.filter(first, origin()).subscribe(null, null, () -> done.add(first));
+        filter.filter(second, origin()).subscribe(null, null, () -> done.add(second));
+        assertEquals(List.of(), done);
+
+        gate.tryEmitEmpty();
+
+        assertEquals(2, done.size());
+        assertEquals(1, originIfNoneMatch.size());
+        assertEquals("MISS", cacheStatus(first));
+        assertEquals("HIT", cacheStatus(second));
+        assertEquals(originBody, body(second));
+    }
+
+    @Test
+    void noCacheRequestRevalidatesTheEntryWithoutDroppingIt() {
+        get(PATH);
+        CachedResponse stored = cache.getIfPresent(KEY);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        originGate = gate.asMono();
+        originStatus = HttpStatus.NOT_MODIFIED;
+
+        MockServerWebExchange revalidating = MockServerWebExchange.from(
+                MockServerHttpRequest.get(PATH).header(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        filter.filter(revalidating, origin()).subscribe();
+        assertEquals("HIT", cacheStatus(get(PATH)));
+        gate.tryEmitEmpty();
+
+        assertEquals("\"v1\"", originIfNoneMatch.get(1));
+        assertEquals("REVALIDATED", cacheStatus(revalidating));
+        assertEquals(HttpStatus.OK, revalidating.getResponse().getStatusCode());
+        assertEquals(originBody, body(revalidating));
+        assertSame(stored, cache.getIfPresent(KEY));
+    }
+
+    @Test
+    void noCacheRequestReplacesAChangedEntry() {
+        get(PATH);
+        originETag = "\"v2\"";
+        originBody = "{\"productId\":1,\"name\":\"new\"}";
+
+        MockServerWebExchange revalidating = get(PATH, HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        assertEquals("MISS", cacheStatus(revalidating));
+        assertEquals(originBody, body(revalidating));
+        MockServerWebExchange hit = get(PATH);
+        assertEquals("HIT", cacheStatus(hit));
+        assertEquals("\"v2\"", hit.getResponse().getHeaders().getETag());
+        assertEquals(originBody, body(hit));
+    }
+
+    @Test
+    void noCacheRequestRemovesAnEntryTheOriginNoLongerServes() {
+        get(PATH);
+        originStatus = HttpStatus.NOT_FOUND;
+
+        get(PATH, HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        assertNull(cache.getIfPresent(KEY));
+    }
+
+    @Test
+    void noCacheRequestKeepsTheEntryOnServerErrors() {
+        get(PATH);
+        originStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+        get(PATH, HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        assertNotNull(cache.getIfPresent(KEY));
+    }
+
+    @Test
+    void productEventsInvalidateTheProductsEntries() {
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.getOrSet();
+        try {
+            Consumer<org.springframework.messaging.Message<byte[]>> invalidator = new ResponseCacheConfig()
+                    .responseCacheInvalidator(cache, "/product-composite/", Duration.ofSeconds(2));
+            get(PATH);
+            get(PATH + "?maxRecommendations=1");
+            get("/product-composite/2");
+
+            invalidator.accept(MessageBuilder.withPayload(new byte[0])
+                    .setHeader("partitionKey", "1".getBytes(StandardCharsets.UTF_8))
+                    .build());
+
+            assertNull(cache.getIfPresent(KEY));
+            assertNull(cache.getIfPresent(PATH + "?maxRecommendations=1 "));
+            assertNotNull(cache.getIfPresent("/product-composite/2? "));
+
+            // loaded before the core service applied the event
+            get(PATH);
+            scheduler.advanceTimeBy(Duration.ofSeconds(2));
+            assertNull(cache.getIfPresent(KEY));
+            assertNotNull(cache.getIfPresent("/product-composite/2? "));
+        } finally {
+            VirtualTimeScheduler.reset();
+        }
+    }
+
+    private Duration storedTtl(String cacheControl) {
+        cache.invalidatePath(PATH);
+        originCacheControl = cacheControl;
+        get(PATH);
+        CachedResponse stored = cache.getIfPresent(KEY);
+        return stored == null ? null : stored.getTtl();
+    }
+
+    private MockServerWebExchange get(String uri) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+        filter.filter(exchange, origin()).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange get(String uri, String header, String value) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri).header(header, value));
+        filter.filter(exchange, origin()).block();
+        return exchange;
+    }
+
+    private GatewayFilterChain origin() {
+        return exchange -> originGate.then(Mono.defer(() -> {
+            originIfNoneMatch.add(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(originStatus);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, originCacheControl);
+            response.getHeaders().setETag(originETag);
+            if (originSetCookie != null) {
+                response.getHeaders().set(HttpHeaders.SET_COOKIE, originSetCookie);
+            }
+            byte[] body = originStatus == HttpStatus.NOT_MODIFIED ? new byte[0] : originBody.getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(body.length == 0 ? Mono.empty() : Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    }
+
+    private static String cacheStatus(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst("X-Cache");
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+}
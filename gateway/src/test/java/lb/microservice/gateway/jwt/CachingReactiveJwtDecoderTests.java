@@ -0,0 +1,121 @@
+package lb.microservice.gateway.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachingReactiveJwtDecoderTests {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private Instant now = START;
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+    private final List<String> verified = new ArrayList<>();
+    private Duration lifetime = Duration.ofMinutes(5);
+    private Mono<Void> verification = Mono.empty();
+
+    private final ReactiveJwtDecoder verifier = token -> verification.then(Mono.defer(() -> {
+        verified.add(token);
+        if (token.startsWith("bad")) {
+            return Mono.error(new BadJwtException("Invalid signature"));
+        }
+        return Mono.just(jwt(token));
+    }));
+    private final CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(verifier, 100, new SimpleMeterRegistry(),
+            clock, () -> Duration.between(START, now).toNanos());
+
+    @Test
+    void verifiesEachTokenOnce() {
+        assertEquals("a", decoder.decode("a").block().getTokenValue());
+        assertEquals("a", decoder.decode("a").block().getTokenValue());
+        assertEquals("b", decoder.decode("b").block().getTokenValue());
+
+        assertEquals(List.of("a", "b"), verified);
+    }
+
+    @Test
+    void concurrentFirstRequestsShareOneVerification() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        verification = gate.asMono();
+        List<Jwt> decoded = new ArrayList<>();
+
+        decoder.decode("a").subscribe(decoded::add);
+        decoder.decode("a").subscribe(decoded::add);
+        gate.tryEmitEmpty();
+
+        assertEquals(2, decoded.size());
+        assertEquals(List.of("a"), verified);
+    }
+
+    @Test
+    void rejectedTokensAreNotCached() {
+        StepVerifier.create(decoder.decode("bad")).expectError(BadJwtException.class).verify();
+        StepVerifier.create(decoder.decode("bad")).expectError(BadJwtException.class).verify();
+
+        assertEquals(List.of("bad", "bad"), verified);
+    }
+
+    @Test
+    void tokensAreCachedUntilTheyExpire() {
+        decoder.decode("a").block();
+
+        now = START.plus(lifetime).minusSeconds(1);
+        decoder.decode("a").block();
+        assertEquals(List.of("a"), verified);
+
+        now = START.plus(lifetime);
+        decoder.decode("a").block();
+        assertEquals(List.of("a", "a"), verified);
+    }
+
+    @Test
+    void tokensWithoutExpiryAreNotCached() {
+        lifetime = null;
+
+        decoder.decode("a").block();
+        decoder.decode("a").block();
+
+        assertEquals(List.of("a", "a"), verified);
+    }
+
+    private Jwt jwt(String token) {
+        Jwt.Builder builder = Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("me")
+                .issuedAt(now);
+        if (lifetime != null) {
+            builder.expiresAt(now.plus(lifetime));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,104 @@
+package lb.microservice.gateway.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JwkSetCacheTests {
+
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+    private final RSAKey current = generate("current");
+    private final RSAKey next = generate("next");
+    private JWKSet served = new JWKSet(current.toPublicJWK());
+    private HttpStatus status = HttpStatus.OK;
+    private int fetches;
+    private long nanoTime;
+
+    private final WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                fetches++;
+                return Mono.just(ClientResponse.create(status)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(served.toString())
+                        .build());
+            })
+            .build();
+    private final JwkSetCache jwkSetCache = new JwkSetCache("http://auth-server/oauth2/jwks", Duration.ofMinutes(5),
+            MIN_REFRESH_INTERVAL, webClient, () -> nanoTime);
+
+    @Test
+    void knownKeysAreSelectedWithoutFetching() {
+        assertEquals(List.of("current"), keyIds(jwkSetCache.select(signedBy(current))));
+        assertEquals(1, fetches);
+
+        assertEquals(List.of("current"), keyIds(jwkSetCache.select(signedBy(current))));
+        assertEquals(1, fetches);
+    }
+
+    @Test
+    void unknownKeyRefreshesAtMostOncePerMinRefreshInterval() {
+        keyIds(jwkSetCache.select(signedBy(current)));
+
+        served = new JWKSet(List.of(current.toPublicJWK(), next.toPublicJWK()));
+        nanoTime += MIN_REFRESH_INTERVAL.toNanos() - 1;
+        assertEquals(List.of(), keyIds(jwkSetCache.select(signedBy(next))));
+        assertEquals(1, fetches);
+
+        nanoTime += 1;
+        assertEquals(List.of("next"), keyIds(jwkSetCache.select(signedBy(next))));
+        assertEquals(2, fetches);
+
+        nanoTime += 1;
+        assertEquals(List.of(), keyIds(jwkSetCache.select(signedBy(generate("forged")))));
+        assertEquals(2, fetches);
+    }
+
+    @Test
+    void failedRefreshKeepsTheKnownKeys() {
+        keyIds(jwkSetCache.select(signedBy(current)));
+
+        status = HttpStatus.SERVICE_UNAVAILABLE;
+        nanoTime += MIN_REFRESH_INTERVAL.toNanos();
+        assertEquals(List.of(), keyIds(jwkSetCache.select(signedBy(next))));
+        assertEquals(2, fetches);
+
+        assertEquals(List.of("current"), keyIds(jwkSetCache.select(signedBy(current))));
+    }
+
+    private static List<String> keyIds(Flux<JWK> keys) {
+        return keys.map(JWK::getKeyID).collectList().block();
+    }
+
+    private static SignedJWT signedBy(RSAKey key) {
+        return new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder().subject("me").build());
+    }
+
+    private static RSAKey generate(String keyId) {
+        try {
+            return new RSAKeyGenerator(2048).keyID(keyId).generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
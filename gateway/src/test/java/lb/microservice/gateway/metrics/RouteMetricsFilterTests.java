@@ -0,0 +1,155 @@
+package lb.microservice.gateway.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RouteMetricsFilterTests {
+
+    private static final String ROUTE = "product-composite";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private long nanoTime;
+    private final RouteMetricsFilter filter = new RouteMetricsFilter(meterRegistry,
+            new Duration[]{Duration.ofMillis(100)}, () -> nanoTime);
+    private final UpstreamTimingFilter upstreamTiming = new UpstreamTimingFilter(() -> nanoTime);
+
+    @Test
+    void requestsAreMeasuredByStatusClass() {
+        filter.filter(exchange(MockServerHttpRequest.get("/product-composite/1")), exchange -> respond(exchange, HttpStatus.OK)).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/product-composite/2")), exchange -> respond(exchange, HttpStatus.NO_CONTENT)).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/product-composite/3")), exchange -> respond(exchange, HttpStatus.BAD_GATEWAY)).block();
+
+        assertEquals(2, latency("2xx").count());
+        assertEquals(1, latency("5xx").count());
+        assertEquals(2, meterRegistry.find("gateway.route.latency").timers().size());
+    }
+
+    @Test
+    void failedAndCancelledRequestsAreMeasuredApart() {
+        filter.filter(exchange(MockServerHttpRequest.get("/product-composite/1")),
+                        exchange -> Mono.error(new IllegalStateException("connection reset")))
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        Disposable cancelled = filter.filter(exchange(MockServerHttpRequest.get("/product-composite/1")), exchange -> Mono.never())
+                .subscribe();
+        assertEquals(1.0, meterRegistry.get("gateway.route.active").tag("route", ROUTE).gauge().value());
+
+        cancelled.dispose();
+
+        assertEquals(1, latency("ERROR").count());
+        assertEquals(1, latency("CANCELLED").count());
+        assertEquals(0.0, meterRegistry.get("gateway.route.active").tag("route", ROUTE).gauge().value());
+    }
+
+    @Test
+    void latencyIsSplitIntoUpstreamAndOverhead() {
+        nanoTime = 1_000_000_000L;
+        filter.filter(exchange(MockServerHttpRequest.get("/product-composite/1")), exchange -> {
+            // 5 ms in gateway filters before routing, 30 ms waiting for the service, 10 ms writing the response
+            nanoTime += TimeUnit.MILLISECONDS.toNanos(5);
+            return upstreamTiming.filter(exchange, routed -> {
+                        nanoTime += TimeUnit.MILLISECONDS.toNanos(30);
+                        routed.getResponse().setStatusCode(HttpStatus.OK);
+                        return Mono.empty();
+                    })
+                    .then(Mono.fromRunnable(() -> nanoTime += TimeUnit.MILLISECONDS.toNanos(10)));
+        }).block();
+
+        assertEquals(45, latency("2xx").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(30, timer("gateway.route.upstream", "2xx").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(15, timer("gateway.route.overhead", "2xx").totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void responsesServedByTheGatewayHaveNoUpstreamTime() {
+        filter.filter(exchange(MockServerHttpRequest.get("/product-composite/1")), exchange -> respond(exchange, HttpStatus.NOT_MODIFIED))
+                .block();
+
+        assertEquals(1, latency("3xx").count());
+        assertEquals(0, timer("gateway.route.upstream", "3xx").count());
+    }
+
+    @Test
+    void requestAndResponseBytesAreCounted() {
+        MockServerWebExchange sized = exchange(MockServerHttpRequest.post("/product-composite").contentLength(12));
+        filter.filter(sized, exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().writeWith(Flux.just(buffer("hello "), buffer("world")));
+        }).block();
+
+        MockServerWebExchange chunked = exchange(MockServerHttpRequest.post("/product-composite")
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked"));
+        filter.filter(chunked, exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().writeAndFlushWith(Flux.just(Flux.just(buffer("a")), Flux.just(buffer("bc"))));
+        }).block();
+
+        DistributionSummary requestSize = size("gateway.route.request.size");
+        assertEquals(1, requestSize.count());
+        assertEquals(12, requestSize.totalAmount());
+        DistributionSummary responseSize = size("gateway.route.response.size");
+        assertEquals(2, responseSize.count());
+        assertEquals(14, responseSize.totalAmount());
+    }
+
+    @Test
+    void requestsWithoutRouteAreMeasuredAsUnknown() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/unrouted"));
+        filter.filter(exchange, e -> respond(e, HttpStatus.NOT_FOUND)).block();
+
+        assertEquals(1, meterRegistry.get("gateway.route.latency").tags("route", "UNKNOWN", "status", "4xx").timer().count());
+        assertNull(meterRegistry.find("gateway.route.latency").tag("route", ROUTE).timer());
+    }
+
+    private Timer latency(String status) {
+        return timer("gateway.route.latency", status);
+    }
+
+    private Timer timer(String name, String status) {
+        return meterRegistry.get(name).tags("route", ROUTE, "status", status).timer();
+    }
+
+    private DistributionSummary size(String name) {
+        return meterRegistry.get(name).tags("route", ROUTE, "status", "2xx").summary();
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return Mono.empty();
+    }
+
+    private static DataBuffer buffer(String content) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id(ROUTE)
+                .uri("lb://product-composite")
+                .predicate(e -> true)
+                .build());
+        return exchange;
+    }
+}
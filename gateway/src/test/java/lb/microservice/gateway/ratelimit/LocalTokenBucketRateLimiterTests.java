@@ -0,0 +1,127 @@
+package lb.microservice.gateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+import static lb.microservice.gateway.ratelimit.LocalTokenBucketRateLimiter.REMAINING_HEADER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalTokenBucketRateLimiterTests {
+
+    private static final String READ_ROUTE = "product-composite";
+    private static final String WRITE_ROUTE = "product-composite-write";
+    private static final long MILLIS = 1_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private long nanoTime = -5_000 * MILLIS;
+    private final LocalTokenBucketRateLimiter rateLimiter = new LocalTokenBucketRateLimiter(null, meterRegistry, 100,
+            Duration.ofMinutes(10), () -> nanoTime);
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter.getConfig().put(READ_ROUTE, config(2, 3));
+        rateLimiter.getConfig().put(WRITE_ROUTE, config(1, 1));
+    }
+
+    @Test
+    void burstUpToCapacity() {
+        assertAllowed(READ_ROUTE, "client", 2);
+        assertAllowed(READ_ROUTE, "client", 1);
+        assertAllowed(READ_ROUTE, "client", 0);
+
+        Response rejected = isAllowed(READ_ROUTE, "client");
+        assertFalse(rejected.isAllowed());
+        assertEquals("0", rejected.getHeaders().get(REMAINING_HEADER));
+        assertEquals("1", rejected.getHeaders().get(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void tokensRefillAtTheReplenishRate() {
+        burst(READ_ROUTE, "client", 3);
+
+        nanoTime += 499 * MILLIS;
+        assertFalse(isAllowed(READ_ROUTE, "client").isAllowed());
+
+        nanoTime += MILLIS;
+        assertAllowed(READ_ROUTE, "client", 0);
+        assertFalse(isAllowed(READ_ROUTE, "client").isAllowed());
+
+        nanoTime += 10_000 * MILLIS;
+        assertAllowed(READ_ROUTE, "client", 2);
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        rateLimiter.getConfig().put(READ_ROUTE, config(1, 2));
+        burst(READ_ROUTE, "client", 2);
+
+        nanoTime += 100 * MILLIS;
+        assertEquals("1", isAllowed(READ_ROUTE, "client").getHeaders().get(HttpHeaders.RETRY_AFTER));
+
+        rateLimiter.getConfig().get(READ_ROUTE).setRequestedTokens(2);
+        assertEquals("2", isAllowed(READ_ROUTE, "client").getHeaders().get(HttpHeaders.RETRY_AFTER));
+        assertNull(isAllowed(READ_ROUTE, "other").getHeaders().get(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void readAndWriteRoutesHaveSeparateBuckets() {
+        burst(WRITE_ROUTE, "client", 1);
+        assertFalse(isAllowed(WRITE_ROUTE, "client").isAllowed());
+
+        assertAllowed(READ_ROUTE, "client", 2);
+        assertAllowed(WRITE_ROUTE, "other", 0);
+    }
+
+    @Test
+    void decisionsAreCountedByRouteAndOutcome() {
+        burst(WRITE_ROUTE, "client", 1);
+        isAllowed(WRITE_ROUTE, "client");
+        isAllowed(WRITE_ROUTE, "client");
+        isAllowed(READ_ROUTE, "client");
+
+        assertEquals(1.0, counter(WRITE_ROUTE, "allowed"));
+        assertEquals(2.0, counter(WRITE_ROUTE, "rejected"));
+        assertEquals(1.0, counter(READ_ROUTE, "allowed"));
+    }
+
+    @Test
+    void unknownRouteIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.isAllowed("unknown", "client"));
+    }
+
+    private void burst(String routeId, String id, int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertTrue(isAllowed(routeId, id).isAllowed());
+        }
+    }
+
+    private void assertAllowed(String routeId, String id, int remaining) {
+        Response response = isAllowed(routeId, id);
+        assertTrue(response.isAllowed());
+        assertEquals(Integer.toString(remaining), response.getHeaders().get(REMAINING_HEADER));
+    }
+
+    private Response isAllowed(String routeId, String id) {
+        return rateLimiter.isAllowed(routeId, id).block();
+    }
+
+    private double counter(String routeId, String outcome) {
+        return meterRegistry.get("gateway.ratelimit.requests").tag("route", routeId).tag("outcome", outcome).counter().count();
+    }
+
+    private static LocalTokenBucketRateLimiter.Config config(int replenishRate, int burstCapacity) {
+        LocalTokenBucketRateLimiter.Config config = new LocalTokenBucketRateLimiter.Config();
+        config.setReplenishRate(replenishRate);
+        config.setBurstCapacity(burstCapacity);
+        return config;
+    }
+}
@@ -0,0 +1,183 @@
+package lb.microservice.gateway.shedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTests {
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.getOrSet();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // CRITICAL and CORE may use both slots, LOW only one
+    private final AdmissionController admissionController = new AdmissionController(2, meterRegistry,
+            () -> scheduler.now(TimeUnit.NANOSECONDS));
+
+    @AfterEach
+    void tearDown() {
+        VirtualTimeScheduler.reset();
+    }
+
+    @Test
+    void lowPriorityIsShedWithoutQueueing() {
+        Request critical = acquire(Priority.CRITICAL);
+        Request low = acquire(Priority.LOW);
+
+        assertTrue(critical.isAdmitted());
+        assertTrue(low.isRejected());
+        assertEquals(0.0, queued(Priority.LOW));
+        assertEquals(1.0, shed(Priority.LOW, "overloaded"));
+        assertEquals(1.0, active());
+    }
+
+    @Test
+    void releaseHandsTheSlotToTheHighestPriorityWaiting() {
+        Request first = acquire(Priority.CRITICAL);
+        Request second = acquire(Priority.CRITICAL);
+        Request core = acquire(Priority.CORE);
+        Request critical = acquire(Priority.CRITICAL);
+        assertTrue(core.isWaiting());
+        assertTrue(critical.isWaiting());
+
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        first.release();
+        assertTrue(critical.isAdmitted());
+        assertTrue(core.isWaiting());
+
+        second.release();
+        assertTrue(core.isAdmitted());
+        assertEquals(2.0, active());
+        assertEquals(100.0, meterRegistry.get("gateway.admission.wait").tag("priority", "CORE").timer()
+                .totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void queuedRequestTimesOutAndItsSlotIsNotHandedOver() {
+        Request first = acquire(Priority.CRITICAL);
+        acquire(Priority.CRITICAL);
+        Request core = acquire(Priority.CORE);
+
+        scheduler.advanceTimeBy(Priority.CORE.getMaxQueueTime().minusNanos(1));
+        assertTrue(core.isWaiting());
+        scheduler.advanceTimeBy(Duration.ofNanos(1));
+        assertTrue(core.isRejected());
+        assertEquals(1.0, shed(Priority.CORE, "timeout"));
+        assertEquals(0.0, queued(Priority.CORE));
+
+        first.release();
+        assertEquals(1.0, active());
+    }
+
+    @Test
+    void grantJustBeforeTheTimeoutWins() {
+        Request first = acquire(Priority.CRITICAL);
+        acquire(Priority.CRITICAL);
+        Request core = acquire(Priority.CORE);
+
+        scheduler.advanceTimeBy(Priority.CORE.getMaxQueueTime().minusNanos(1));
+        first.release();
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertTrue(core.isAdmitted());
+        assertEquals(2.0, active());
+        core.release();
+        assertEquals(1.0, active());
+    }
+
+    @Test
+    void releaseAfterCancelFreesTheSlot() {
+        Request first = acquire(Priority.CRITICAL);
+        acquire(Priority.CRITICAL);
+        Request core = acquire(Priority.CORE);
+
+        core.cancel();
+        assertEquals(0.0, queued(Priority.CORE));
+        first.release();
+
+        assertNull(core.slot.get());
+        assertEquals(1.0, active());
+    }
+
+    @Test
+    void requestIsShedWhenTheQueueingDelayIsOverItsBudget() {
+        acquire(Priority.CRITICAL);
+        acquire(Priority.CRITICAL);
+        Request critical = acquire(Priority.CRITICAL);
+
+        scheduler.advanceTimeBy(Priority.CORE.getMaxQueueTime().plusMillis(1));
+        Request core = acquire(Priority.CORE);
+
+        assertTrue(core.isRejected());
+        assertEquals(1.0, shed(Priority.CORE, "overloaded"));
+        assertTrue(critical.isWaiting());
+    }
+
+    @Test
+    void slotIsReleasedOnce() {
+        Request first = acquire(Priority.CRITICAL);
+        acquire(Priority.CRITICAL);
+
+        first.release();
+        first.release();
+
+        assertEquals(1.0, active());
+    }
+
+    private Request acquire(Priority priority) {
+        Request request = new Request();
+        request.subscription = admissionController.acquire(priority).subscribe(request.slot::set, request.error::set);
+        return request;
+    }
+
+    private double active() {
+        return meterRegistry.get("gateway.admission.active").gauge().value();
+    }
+
+    private double queued(Priority priority) {
+        return meterRegistry.get("gateway.admission.queued").tag("priority", priority.name()).gauge().value();
+    }
+
+    private double shed(Priority priority, String reason) {
+        return meterRegistry.get("gateway.admission.shed").tag("priority", priority.name()).tag("reason", reason)
+                .counter().count();
+    }
+
+    private static class Request {
+
+        private final AtomicReference<Runnable> slot = new AtomicReference<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private Disposable subscription;
+
+        boolean isAdmitted() {
+            return slot.get() != null;
+        }
+
+        boolean isRejected() {
+            return error.get() instanceof AdmissionController.RejectedException;
+        }
+
+        boolean isWaiting() {
+            return slot.get() == null && error.get() == null;
+        }
+
+        void release() {
+            assertNotNull(slot.get());
+            slot.get().run();
+        }
+
+        void cancel() {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package lb.microservice.gateway.shedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static lb.microservice.gateway.shedding.LoadSheddingFilter.PRIORITY_METADATA;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class LoadSheddingFilterTests {
+
+    // CRITICAL requests may use both slots, LOW only one
+    private final LoadSheddingFilter filter = new LoadSheddingFilter(new AdmissionController(2, new SimpleMeterRegistry()),
+            Duration.ofSeconds(2));
+
+    @Test
+    void shedRequestsGetServiceUnavailable() {
+        MockServerWebExchange routed = exchange("low");
+        filter.filter(routed, exchange -> Mono.never()).subscribe();
+
+        MockServerWebExchange shed = exchange("low");
+        filter.filter(shed, exchange -> Mono.empty()).block();
+
+        assertNull(routed.getResponse().getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals("2", shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void priorityIsCaseInsensitive() {
+        filter.filter(exchange("Critical"), exchange -> Mono.never()).subscribe();
+
+        MockServerWebExchange critical = exchange("critical");
+        filter.filter(critical, exchange -> Mono.empty()).block();
+
+        assertNull(critical.getResponse().getStatusCode());
+    }
+
+    @Test
+    void unknownPriorityIsAdmittedAsLow() {
+        filter.filter(exchange("urgent"), exchange -> Mono.never()).subscribe();
+
+        MockServerWebExchange urgent = exchange("urgent");
+        filter.filter(urgent, exchange -> Mono.empty()).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, urgent.getResponse().getStatusCode());
+    }
+
+    private static MockServerWebExchange exchange(String priority) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("product-composite-" + priority)
+                .uri("lb://product-composite")
+                .predicate(e -> true)
+                .metadata(Map.of(PRIORITY_METADATA, priority))
+                .build());
+        return exchange;
+    }
+}
@@ -0,0 +1,166 @@
+package lb.microservice.gateway.tls;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.http.server.reactive.HttpHandler;
+import reactor.core.publisher.Mono;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class HandshakeMetricsHandlerTests {
+
+    private static final String TLS_1_2 = "TLSv1.2";
+    private static final String TLS_1_3 = "TLSv1.3";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WebServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void jdkEngineCountsFullAndResumedHandshakes() throws Exception {
+        start(SslProvider.JDK);
+
+        connectTimes(3, trustingContext(), TLS_1_3);
+        connectTimes(3, trustingContext(), TLS_1_2);
+
+        assertHandshakes("JDK", 2, 4);
+    }
+
+    @Test
+    void openSslEngineCountsFullAndResumedHandshakes() throws Exception {
+        assumeTrue(OpenSsl.isAvailable(), "netty-tcnative is not available on this platform");
+        start(SslProvider.OPENSSL);
+
+        connectTimes(3, trustingContext(), TLS_1_3);
+        connectTimes(3, trustingContext(), TLS_1_2);
+
+        assertHandshakes("OPENSSL", 2, 4);
+    }
+
+    @Test
+    void rejectedHandshakesCountAsFailed() throws Exception {
+        start(SslProvider.JDK);
+        SSLContext distrustingContext = SSLContext.getInstance("TLS");
+        distrustingContext.init(null, new TrustManager[]{new TrustAll() {
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+                throw new CertificateException("untrusted");
+            }
+        }}, null);
+
+        assertThrows(SSLHandshakeException.class, () -> connect(distrustingContext, TLS_1_3));
+
+        Timer failed = awaitTimer("JDK", "failed");
+        assertEquals(1, failed.count());
+    }
+
+    private void start(SslProvider engine) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(0);
+        Ssl ssl = new Ssl();
+        ssl.setKeyStoreType("PKCS12");
+        ssl.setKeyStore("classpath:keystore/edge.p12");
+        ssl.setKeyStorePassword("password");
+        factory.setSsl(ssl);
+        new TlsEngineFactoryCustomizer(meterRegistry, engine, 100, Duration.ofMinutes(5)).customize(factory);
+        HttpHandler handler = (request, response) ->
+                response.writeWith(Mono.just(response.bufferFactory().wrap("ok".getBytes(StandardCharsets.UTF_8))));
+        server = factory.getWebServer(handler);
+        server.start();
+    }
+
+    private void connectTimes(int times, SSLContext context, String protocol) throws IOException {
+        for (int i = 0; i < times; i++) {
+            connect(context, protocol);
+        }
+    }
+
+    /**
+     * One HTTP/1.1 request per connection. Reading the response also takes in the session tickets that the server
+     * sends after a TLS 1.3 handshake, so the next connection of the same context can resume.
+     */
+    private void connect(SSLContext context, String protocol) throws IOException {
+        try (SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket("localhost", server.getPort())) {
+            socket.setEnabledProtocols(new String[]{protocol});
+            socket.startHandshake();
+            OutputStream out = socket.getOutputStream();
+            out.write("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            String response = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            assertTrue(response.startsWith("HTTP/1.1 200"), response);
+        }
+    }
+
+    private void assertHandshakes(String engine, long full, long resumed) throws InterruptedException {
+        assertEquals(full, awaitTimer(engine, "full").count());
+        assertEquals(resumed, awaitTimer(engine, "resumed").count());
+        assertEquals(full + resumed, meterRegistry.get("gateway.tls.handshakes").tag("engine", engine).counters()
+                .stream().mapToDouble(counter -> counter.count()).sum());
+    }
+
+    /**
+     * Handshakes are recorded on the server's event loop, possibly after the client is done.
+     */
+    private Timer awaitTimer(String engine, String result) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Timer timer = meterRegistry.find("gateway.tls.handshake.time").tags("engine", engine, "result", result).timer();
+            if (timer != null) {
+                return timer;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("No " + result + " handshake recorded for " + engine);
+    }
+
+    private static SSLContext trustingContext() throws GeneralSecurityException {
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[]{new TrustAll()}, null);
+        return context;
+    }
+
+    private static class TrustAll implements X509TrustManager {
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
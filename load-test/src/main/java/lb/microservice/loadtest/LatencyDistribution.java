@@ -0,0 +1,40 @@
+package lb.microservice.loadtest;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response time of a stub service, given by its median and, for the log-normal shape, its 99th percentile.
+ */
+@Data
+public class LatencyDistribution {
+
+    public enum Shape {
+        FIXED, EXPONENTIAL, LOGNORMAL
+    }
+
+    private static final double Z_99 = 2.3263;
+
+    private Shape shape = Shape.LOGNORMAL;
+    private double medianMs = 5;
+    private double p99Ms = 50;
+
+    public Duration next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double millis = switch (shape) {
+            case FIXED -> medianMs;
+            case EXPONENTIAL -> -medianMs / Math.log(2) * Math.log(1 - random.nextDouble());
+            case LOGNORMAL -> medianMs * Math.exp(random.nextGaussian() * Math.log(p99Ms / medianMs) / Z_99);
+        };
+        return Duration.ofNanos((long) (millis * 1_000_000));
+    }
+
+    @Override
+    public String toString() {
+        return shape == Shape.LOGNORMAL
+                ? "%s(median %.1f ms, p99 %.1f ms)".formatted(shape, medianMs, p99Ms)
+                : "%s(median %.1f ms)".formatted(shape, medianMs);
+    }
+}
@@ -0,0 +1,118 @@
+package lb.microservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lb.microservice.loadtest.stub.StubEventRelay;
+import lb.microservice.loadtest.stub.StubProductService;
+import lb.microservice.loadtest.stub.StubRecommendationService;
+import lb.microservice.loadtest.stub.StubReviewService;
+import lb.microservice.loadtest.stub.StubServer;
+import lb.microservice.product.composite.ProductCompositeServiceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the product composite in this JVM against stub product, recommendation and review services and measures
+ * it under an open workload. Settings come from {@code load-test.yml}, any of them can be overridden with
+ * {@code --loadtest.<name>=<value>}, e.g. {@code --loadtest.rate=500 --loadtest.product.p99Ms=200}.
+ * Everything shares the CPUs of one machine, compare runs with each other rather than with production numbers.
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestProperties properties = bindProperties(args);
+        Payloads payloads = new Payloads(properties.getCatalog());
+        int catalogSize = properties.getCatalog().getProducts();
+        StubProductService productService = new StubProductService(properties.getProduct(), payloads, catalogSize);
+        StubRecommendationService recommendationService =
+                new StubRecommendationService(properties.getRecommendation(), payloads, catalogSize);
+        StubReviewService reviewService = new StubReviewService(properties.getReview(), payloads, catalogSize);
+        log.info("Stub latencies: product {}, recommendation {}, review {}",
+                properties.getProduct(), properties.getRecommendation(), properties.getReview());
+
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        LoopResources stubLoops = LoopResources.create("stub");
+        LoopResources clientLoops = LoopResources.create("load-test");
+        List<StubServer> stubs = List.of(
+                StubServer.product(productService, mapper, stubLoops),
+                StubServer.recommendation(recommendationService, mapper, stubLoops),
+                StubServer.review(reviewService, mapper, stubLoops));
+
+        ConfigurableApplicationContext composite = startComposite(properties, stubs);
+        StubEventRelay relay = new StubEventRelay(composite.getBean(OutputDestination.class), mapper,
+                productService, recommendationService, reviewService);
+        try {
+            int port = ((ReactiveWebServerApplicationContext) composite).getWebServer().getPort();
+            OpenLoadGenerator generator = new OpenLoadGenerator(properties, webClient(properties, port, clientLoops), payloads);
+            generator.report(generator.run());
+            log.info("Relayed {} events to the stub services", relay.getRelayed());
+        } finally {
+            relay.close();
+            composite.close();
+            stubs.forEach(StubServer::close);
+            clientLoops.dispose();
+            stubLoops.dispose();
+        }
+    }
+
+    private static LoadTestProperties bindProperties(String[] args) throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        new YamlPropertySourceLoader().load("load-test", new ClassPathResource("load-test.yml"))
+                .forEach(environment.getPropertySources()::addLast);
+        return Binder.get(environment).bindOrCreate("loadtest", LoadTestProperties.class);
+    }
+
+    private static ConfigurableApplicationContext startComposite(LoadTestProperties properties, List<StubServer> stubs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--eureka.client.enabled=false",
+                "--spring.main.allow-bean-definition-overriding=true",
+                // binds the event outputs at startup, so their test binder queues exist before the relay polls them
+                "--spring.cloud.stream.source=products;recommendations;reviews",
+                // replaces the composite's own application.yml, which imports its settings from the config server
+                "--spring.config.location=file:" + properties.getConfigRepo() + "/product-composite.yml,"
+                        + "classpath:load-test-composite.yml"));
+        if (!properties.getProfiles().isBlank()) {
+            args.add("--spring.profiles.active=" + properties.getProfiles());
+        }
+        for (StubServer stub : stubs) {
+            args.add("--spring.cloud.discovery.client.simple.instances." + stub.getName() + "[0].uri=" + stub.getUri());
+        }
+        return new SpringApplicationBuilder(ProductCompositeServiceApplication.class, LoadTestCompositeConfig.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static WebClient webClient(LoadTestProperties properties, int port, LoopResources loops) {
+        ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .runOn(loops)
+                .responseTimeout(Duration.ofMillis(properties.getResponseTimeoutMs()));
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
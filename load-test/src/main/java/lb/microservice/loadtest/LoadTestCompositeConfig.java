@@ -0,0 +1,23 @@
+package lb.microservice.loadtest;
+
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+/**
+ * Runs the composite without an authorization server and without a broker: requests are not authenticated
+ * and events go to the in-memory test binder.
+ */
+@Configuration
+@Import(TestChannelBinderConfiguration.class)
+public class LoadTestCompositeConfig {
+
+    @Bean
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+        http.csrf().disable().authorizeExchange().anyExchange().permitAll();
+        return http.build();
+    }
+}
@@ -0,0 +1,56 @@
+package lb.microservice.loadtest;
+
+import lombok.Data;
+
+/**
+ * Settings of a load test run, bound from {@code load-test.yml} and {@code --loadtest.*} arguments.
+ */
+@Data
+public class LoadTestProperties {
+
+    public enum Arrivals {
+        /** Exponential gaps between requests, like independent users. */
+        POISSON,
+        /** Evenly spaced requests. */
+        CONSTANT
+    }
+
+    /** Directory with product-composite.yml, the composite runs with the same settings as deployed. */
+    private String configRepo = "../config-repo";
+    /** Extra profiles for the composite, events must stay JSON for the stub event relay. */
+    private String profiles = "";
+
+    /** Offered load in requests per second over all operations, kept regardless of response times. */
+    private double rate = 200;
+    private Arrivals arrivals = Arrivals.POISSON;
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+    private int reportIntervalSeconds = 5;
+
+    /** Relative share of each operation in the traffic mix. */
+    private int readWeight = 90;
+    private int createWeight = 5;
+    private int deleteWeight = 5;
+
+    private int maxConnections = 500;
+    /** Requests beyond this many outstanding ones are dropped and counted, the schedule never waits. */
+    private int maxOutstanding = 5000;
+    private int responseTimeoutMs = 10000;
+    /** Where the HDR percentile distributions (.hgrm) of the run are written. */
+    private String histogramDir = "build/load-test";
+
+    private Catalog catalog = new Catalog();
+    private LatencyDistribution product = new LatencyDistribution();
+    private LatencyDistribution recommendation = new LatencyDistribution();
+    private LatencyDistribution review = new LatencyDistribution();
+
+    @Data
+    public static class Catalog {
+        /** Products known to the stubs up front, reads pick among them uniformly. */
+        private int products = 1000;
+        private int recommendationsPerProduct = 5;
+        private int reviewsPerProduct = 5;
+        /** Length of names, authors, subjects and contents in characters. */
+        private int textSize = 100;
+    }
+}
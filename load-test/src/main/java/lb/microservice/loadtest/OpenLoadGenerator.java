@@ -0,0 +1,179 @@
+package lb.microservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sends requests on a fixed schedule derived from the offered rate (an open workload model): a slow composite
+ * does not slow the senders down, its latency is measured from the scheduled send time instead.
+ */
+@Slf4j
+class OpenLoadGenerator {
+
+    private final LoadTestProperties properties;
+    private final WebClient client;
+    private final Payloads payloads;
+    private final OperationStats read = new OperationStats("read");
+    private final OperationStats create = new OperationStats("create");
+    private final OperationStats delete = new OperationStats("delete");
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger nextProductId;
+    private final Queue<Integer> createdProductIds = new ConcurrentLinkedQueue<>();
+
+    OpenLoadGenerator(LoadTestProperties properties, WebClient client, Payloads payloads) {
+        this.properties = properties;
+        this.client = client;
+        this.payloads = payloads;
+        this.nextProductId = new AtomicInteger(properties.getCatalog().getProducts() + 1);
+    }
+
+    List<OperationStats> run() throws InterruptedException {
+        long warmup = SECONDS.toNanos(properties.getWarmupSeconds());
+        long interval = SECONDS.toNanos(properties.getReportIntervalSeconds());
+        long start = System.nanoTime();
+        long end = start + warmup + SECONDS.toNanos(properties.getDurationSeconds());
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "load-test-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.schedule(() -> sample(false, start), warmup, NANOSECONDS);
+        reporter.scheduleAtFixedRate(() -> sample(true, start), warmup + interval, interval, NANOSECONDS);
+
+        log.info("Offering {} requests/s for {}s after {}s of warmup", properties.getRate(),
+                properties.getDurationSeconds(), properties.getWarmupSeconds());
+        long scheduled = start;
+        while (scheduled < end) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(scheduled);
+            scheduled += nextGap();
+        }
+
+        reporter.shutdown();
+        reporter.awaitTermination(1, SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getResponseTimeoutMs());
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        sample(true, start);
+        return List.of(read, create, delete);
+    }
+
+    void report(List<OperationStats> operations) throws IOException {
+        double measuredSeconds = properties.getDurationSeconds();
+        Path histogramDir = Path.of(properties.getHistogramDir());
+        Files.createDirectories(histogramDir);
+        log.info(String.format("%-8s %10s %8s %8s %10s %9s %9s %9s %9s %9s",
+                "op", "requests", "errors", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (OperationStats operation : operations) {
+            Histogram total = operation.getTotal();
+            log.info(String.format("%-8s %10d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    operation.getName(), total.getTotalCount(), operation.getTotalErrors(), operation.getTotalDropped(),
+                    total.getTotalCount() / measuredSeconds, millis(total, 50), millis(total, 90), millis(total, 99),
+                    millis(total, 99.9), total.getMaxValue() / 1000.0));
+            writeDistribution(histogramDir.resolve(operation.getName() + ".hgrm"), total);
+        }
+        log.info("Percentile distributions written to {}", histogramDir.toAbsolutePath());
+    }
+
+    private void send(long scheduled) {
+        int weight = ThreadLocalRandom.current().nextInt(
+                properties.getReadWeight() + properties.getCreateWeight() + properties.getDeleteWeight());
+        OperationStats operation;
+        Mono<HttpStatus> request;
+        if (weight < properties.getReadWeight()) {
+            operation = read;
+            int productId = ThreadLocalRandom.current().nextInt(properties.getCatalog().getProducts()) + 1;
+            request = exchange(client.get().uri("/product-composite/{productId}", productId));
+        } else if (weight < properties.getReadWeight() + properties.getCreateWeight()) {
+            operation = create;
+            int productId = nextProductId.getAndIncrement();
+            request = exchange(client.post().uri("/product-composite").bodyValue(payloads.aggregate(productId)))
+                    .doOnNext(status -> {
+                        if (status.is2xxSuccessful()) {
+                            createdProductIds.add(productId);
+                        }
+                    });
+        } else {
+            operation = delete;
+            Integer productId = createdProductIds.poll();
+            // nothing created yet, deleting an unknown product is accepted as well
+            request = exchange(client.delete().uri("/product-composite/{productId}",
+                    productId != null ? productId : nextProductId.get()));
+        }
+
+        if (outstanding.incrementAndGet() > properties.getMaxOutstanding()) {
+            outstanding.decrementAndGet();
+            operation.recordDropped();
+            return;
+        }
+        request.doFinally(signal -> outstanding.decrementAndGet())
+                .subscribe(status -> {
+                    if (status.is2xxSuccessful()) {
+                        operation.recordSuccess(scheduled);
+                    } else {
+                        operation.recordError();
+                    }
+                }, error -> operation.recordError());
+    }
+
+    private static Mono<HttpStatus> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()));
+    }
+
+    private long nextGap() {
+        double meanNanos = SECONDS.toNanos(1) / properties.getRate();
+        return switch (properties.getArrivals()) {
+            case CONSTANT -> (long) meanNanos;
+            case POISSON -> (long) (-meanNanos * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+        };
+    }
+
+    private void sample(boolean measured, long start) {
+        double intervalSeconds = properties.getReportIntervalSeconds();
+        StringBuilder line = new StringBuilder(String.format("[%4ds]", NANOSECONDS.toSeconds(System.nanoTime() - start)));
+        for (OperationStats operation : List.of(read, create, delete)) {
+            operation.sample(measured);
+            Histogram interval = operation.getInterval();
+            line.append(String.format(" | %s %.1f/s p50 %.2f p99 %.2f ms errors %d", operation.getName(),
+                    interval.getTotalCount() / intervalSeconds, millis(interval, 50), millis(interval, 99),
+                    operation.getIntervalErrors()));
+        }
+        log.info("{}{}", measured ? "" : "warmup ", line);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(file.toFile())) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
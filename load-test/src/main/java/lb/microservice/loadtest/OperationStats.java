@@ -0,0 +1,80 @@
+package lb.microservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one operation. Latencies are recorded in microseconds from the time the request was
+ * scheduled to be sent, so a stalled composite shows up as queueing delay instead of as fewer requests.
+ */
+class OperationStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+    private long totalErrors;
+    private long totalDropped;
+    private Histogram interval;
+    private long intervalErrors;
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void recordSuccess(long scheduledNanos) {
+        recorder.recordValue(Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - scheduledNanos) / 1000));
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Closes the current interval; its results count towards the totals unless the run is still warming up.
+     */
+    void sample(boolean measured) {
+        interval = recorder.getIntervalHistogram(interval);
+        intervalErrors = errors.sumThenReset();
+        long intervalDropped = dropped.sumThenReset();
+        if (measured) {
+            total.add(interval);
+            totalErrors += intervalErrors;
+            totalDropped += intervalDropped;
+        }
+    }
+
+    Histogram getInterval() {
+        return interval;
+    }
+
+    long getIntervalErrors() {
+        return intervalErrors;
+    }
+
+    Histogram getTotal() {
+        return total;
+    }
+
+    long getTotalErrors() {
+        return totalErrors;
+    }
+
+    long getTotalDropped() {
+        return totalDropped;
+    }
+}
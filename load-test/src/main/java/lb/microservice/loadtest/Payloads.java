@@ -0,0 +1,53 @@
+package lb.microservice.loadtest;
+
+import lb.microservice.api.composite.product.ProductAggregate;
+import lb.microservice.api.composite.product.RecommendationSummary;
+import lb.microservice.api.composite.product.ReviewSummary;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.recommendation.Recommendation;
+import lb.microservice.api.core.review.Review;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Builds entities of the configured sizes, for the stub catalog and for the bodies of create requests.
+ */
+public class Payloads {
+
+    private static final String SERVICE_ADDRESS = "stub";
+
+    private final LoadTestProperties.Catalog catalog;
+    private final String text;
+
+    public Payloads(LoadTestProperties.Catalog catalog) {
+        this.catalog = catalog;
+        this.text = "lorem ipsum ".repeat(catalog.getTextSize() / 12 + 1).substring(0, catalog.getTextSize());
+    }
+
+    public Product product(int productId) {
+        return new Product(productId, text, productId % 100, SERVICE_ADDRESS);
+    }
+
+    public List<Recommendation> recommendations(int productId) {
+        return IntStream.range(0, catalog.getRecommendationsPerProduct())
+                .mapToObj(i -> new Recommendation(productId, i, text, i % 5, text, SERVICE_ADDRESS))
+                .toList();
+    }
+
+    public List<Review> reviews(int productId) {
+        return IntStream.range(0, catalog.getReviewsPerProduct())
+                .mapToObj(i -> new Review(productId, i, text, text, text, SERVICE_ADDRESS))
+                .toList();
+    }
+
+    public ProductAggregate aggregate(int productId) {
+        List<RecommendationSummary> recommendations = recommendations(productId).stream()
+                .map(r -> new RecommendationSummary(r.getRecommendationId(), r.getAuthor(), r.getRating(), r.getContent()))
+                .toList();
+        List<ReviewSummary> reviews = reviews(productId).stream()
+                .map(r -> new ReviewSummary(r.getReviewId(), r.getAuthor(), r.getSubject(), r.getContent()))
+                .toList();
+        return new ProductAggregate(productId, text, productId % 100, recommendations, reviews, null);
+    }
+}
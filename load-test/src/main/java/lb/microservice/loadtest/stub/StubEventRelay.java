@@ -0,0 +1,117 @@
+package lb.microservice.loadtest.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.product.ProductService;
+import lb.microservice.api.core.recommendation.Recommendation;
+import lb.microservice.api.core.recommendation.RecommendationService;
+import lb.microservice.api.core.review.Review;
+import lb.microservice.api.core.review.ReviewService;
+import lb.microservice.api.event.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.messaging.Message;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stands in for the broker: takes the events the composite publishes to the test binder and applies them to the
+ * stub services, so created products become readable and the binder queues do not grow during a run.
+ * The composite must bind its event outputs at startup, the test binder has no queue for an unbound destination.
+ */
+@Slf4j
+public class StubEventRelay implements AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final OutputDestination output;
+    private final ObjectMapper mapper;
+    private final ProductService productService;
+    private final RecommendationService recommendationService;
+    private final ReviewService reviewService;
+    private final AtomicLong relayed = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public StubEventRelay(OutputDestination output, ObjectMapper mapper, ProductService productService,
+                          RecommendationService recommendationService, ReviewService reviewService) {
+        this.output = output;
+        this.mapper = mapper;
+        this.productService = productService;
+        this.recommendationService = recommendationService;
+        this.reviewService = reviewService;
+        this.thread = new Thread(this::run, "stub-event-relay");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public long getRelayed() {
+        return relayed.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            boolean idle = !relay("products") & !relay("recommendations") & !relay("reviews");
+            if (idle) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private boolean relay(String destination) {
+        Message<byte[]> message = output.receive(0, destination);
+        if (message == null) {
+            return false;
+        }
+        try {
+            apply(destination, mapper.readTree(message.getPayload()));
+            relayed.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to relay event from {}: {}", destination, e.toString());
+        }
+        return true;
+    }
+
+    private void apply(String destination, JsonNode event) throws IOException {
+        Event.Type type = Event.Type.valueOf(event.get("eventType").asText());
+        int productId = event.get("key").asInt();
+        JsonNode data = event.get("data");
+        switch (destination) {
+            case "products" -> {
+                if (type == Event.Type.CREATE) {
+                    productService.createProduct(mapper.treeToValue(data, Product.class)).block();
+                } else {
+                    productService.deleteProduct(productId).block();
+                }
+            }
+            case "recommendations" -> {
+                if (type == Event.Type.CREATE) {
+                    recommendationService.createRecommendation(mapper.treeToValue(data, Recommendation.class)).block();
+                } else {
+                    recommendationService.deleteRecommendations(productId).block();
+                }
+            }
+            default -> {
+                if (type == Event.Type.CREATE) {
+                    reviewService.createReview(mapper.treeToValue(data, Review.class)).block();
+                } else {
+                    reviewService.deleteReviews(productId).block();
+                }
+            }
+        }
+    }
+}
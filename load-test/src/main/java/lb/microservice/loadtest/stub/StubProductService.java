@@ -0,0 +1,48 @@
+package lb.microservice.loadtest.stub;
+
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.product.ProductService;
+import lb.microservice.api.exceptions.NotFoundException;
+import lb.microservice.loadtest.LatencyDistribution;
+import lb.microservice.loadtest.Payloads;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory product service, reads answer after a delay drawn from the configured latency distribution.
+ */
+public class StubProductService implements ProductService {
+
+    private final Map<Integer, Product> products = new ConcurrentHashMap<>();
+    private final LatencyDistribution latency;
+
+    public StubProductService(LatencyDistribution latency, Payloads payloads, int catalogSize) {
+        this.latency = latency;
+        IntStream.rangeClosed(1, catalogSize).forEach(id -> products.put(id, payloads.product(id)));
+    }
+
+    @Override
+    public Mono<Product> getProduct(int productId) {
+        Product product = products.get(productId);
+        Mono<Product> result = product == null
+                ? Mono.error(new NotFoundException("No product found for productId: " + productId))
+                : Mono.just(product);
+        return Mono.delay(latency.next()).then(result);
+    }
+
+    @Override
+    public Mono<Product> createProduct(Product body) {
+        return Mono.fromCallable(() -> {
+            products.put(body.getProductId(), body);
+            return body;
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteProduct(int productId) {
+        return Mono.fromRunnable(() -> products.remove(productId));
+    }
+}
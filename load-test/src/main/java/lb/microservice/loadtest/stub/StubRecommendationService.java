@@ -0,0 +1,70 @@
+package lb.microservice.loadtest.stub;
+
+import lb.microservice.api.core.recommendation.RatingSummary;
+import lb.microservice.api.core.recommendation.Recommendation;
+import lb.microservice.api.core.recommendation.RecommendationService;
+import lb.microservice.loadtest.LatencyDistribution;
+import lb.microservice.loadtest.Payloads;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory recommendation service, reads answer after a delay drawn from the configured latency distribution.
+ */
+public class StubRecommendationService implements RecommendationService {
+
+    private final Map<Integer, List<Recommendation>> recommendations = new ConcurrentHashMap<>();
+    private final LatencyDistribution latency;
+
+    public StubRecommendationService(LatencyDistribution latency, Payloads payloads, int catalogSize) {
+        this.latency = latency;
+        IntStream.rangeClosed(1, catalogSize)
+                .forEach(id -> recommendations.put(id, new CopyOnWriteArrayList<>(payloads.recommendations(id))));
+    }
+
+    @Override
+    public Flux<Recommendation> getRecommendations(int productId) {
+        return Mono.delay(latency.next())
+                .thenMany(Flux.defer(() -> Flux.fromIterable(recommendations.getOrDefault(productId, List.of()))));
+    }
+
+    @Override
+    public Flux<Recommendation> getTopRecommendations(int productId, int limit) {
+        return Mono.delay(latency.next())
+                .thenMany(Flux.defer(() -> Flux.fromStream(recommendations.getOrDefault(productId, List.of()).stream()
+                        .sorted(Comparator.comparingInt(Recommendation::getRating).reversed()
+                                .thenComparingInt(Recommendation::getRecommendationId))
+                        .limit(limit))));
+    }
+
+    @Override
+    public Mono<RatingSummary> getRatingSummary(int productId) {
+        return Mono.delay(latency.next()).then(Mono.fromCallable(() -> {
+            List<Recommendation> list = recommendations.getOrDefault(productId, List.of());
+            long sum = list.stream().mapToLong(Recommendation::getRating).sum();
+            return new RatingSummary(productId, list.size(), sum, list.isEmpty() ? 0 : (double) sum / list.size(),
+                    list.stream().collect(Collectors.groupingBy(Recommendation::getRating, Collectors.counting())), null);
+        }));
+    }
+
+    @Override
+    public Mono<Recommendation> createRecommendation(Recommendation body) {
+        return Mono.fromCallable(() -> {
+            recommendations.computeIfAbsent(body.getProductId(), id -> new CopyOnWriteArrayList<>()).add(body);
+            return body;
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteRecommendations(int productId) {
+        return Mono.fromRunnable(() -> recommendations.remove(productId));
+    }
+}
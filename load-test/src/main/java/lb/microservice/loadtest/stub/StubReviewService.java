@@ -0,0 +1,63 @@
+package lb.microservice.loadtest.stub;
+
+import lb.microservice.api.core.review.Review;
+import lb.microservice.api.core.review.ReviewSearchResult;
+import lb.microservice.api.core.review.ReviewService;
+import lb.microservice.loadtest.LatencyDistribution;
+import lb.microservice.loadtest.Payloads;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory review service, reads answer after a delay drawn from the configured latency distribution.
+ */
+public class StubReviewService implements ReviewService {
+
+    private final Map<Integer, List<Review>> reviews = new ConcurrentHashMap<>();
+    private final LatencyDistribution latency;
+
+    public StubReviewService(LatencyDistribution latency, Payloads payloads, int catalogSize) {
+        this.latency = latency;
+        IntStream.rangeClosed(1, catalogSize)
+                .forEach(id -> reviews.put(id, new CopyOnWriteArrayList<>(payloads.reviews(id))));
+    }
+
+    @Override
+    public Flux<Review> getReviews(int productId) {
+        return Mono.delay(latency.next())
+                .thenMany(Flux.defer(() -> Flux.fromIterable(reviews.getOrDefault(productId, List.of()))));
+    }
+
+    /**
+     * Plain substring match in insertion order, the load test does not exercise search ranking.
+     */
+    @Override
+    public Mono<ReviewSearchResult> searchReviews(int productId, String query, int page, int size) {
+        return Mono.delay(latency.next()).then(Mono.fromCallable(() -> {
+            List<Review> matches = reviews.getOrDefault(productId, List.of()).stream()
+                    .filter(r -> r.getSubject().contains(query) || r.getContent().contains(query))
+                    .toList();
+            List<Review> pageOfMatches = matches.stream().skip((long) page * size).limit(size).toList();
+            return new ReviewSearchResult(productId, query, matches.size(), page, size, pageOfMatches);
+        }));
+    }
+
+    @Override
+    public Mono<Review> createReview(Review body) {
+        return Mono.fromCallable(() -> {
+            reviews.computeIfAbsent(body.getProductId(), id -> new CopyOnWriteArrayList<>()).add(body);
+            return body;
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteReviews(int productId) {
+        return Mono.fromRunnable(() -> reviews.remove(productId));
+    }
+}
@@ -0,0 +1,114 @@
+package lb.microservice.loadtest.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import lb.microservice.api.core.product.ProductService;
+import lb.microservice.api.core.recommendation.RecommendationService;
+import lb.microservice.api.core.review.ReviewService;
+import lb.microservice.api.exceptions.NotFoundException;
+import lb.microservice.util.HttpErrorInfo;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+import reactor.netty.resources.LoopResources;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Serves a stub service on a random local port under the paths of the real service. The stubs run on their own
+ * event loops, so they do not take turns with the composite under test.
+ */
+public class StubServer implements AutoCloseable {
+
+    private static final byte[] HEALTH_UP = "{\"status\":\"UP\"}".getBytes();
+
+    private final String name;
+    private final DisposableServer server;
+
+    private StubServer(String name, LoopResources loops, Consumer<HttpServerRoutes> routes) {
+        this.name = name;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .runOn(loops)
+                .route(r -> routes.accept(r.get("/actuator/health", (request, response) ->
+                        response.header(CONTENT_TYPE, APPLICATION_JSON_VALUE).sendByteArray(Mono.just(HEALTH_UP)))))
+                .bindNow();
+    }
+
+    public static StubServer product(ProductService service, ObjectMapper mapper, LoopResources loops) {
+        return new StubServer("product", loops, routes -> routes.get("/product/{productId}", (request, response) ->
+                reply(mapper, request, response, service.getProduct(Integer.parseInt(request.param("productId"))))));
+    }
+
+    public static StubServer recommendation(RecommendationService service, ObjectMapper mapper, LoopResources loops) {
+        return new StubServer("recommendation", loops, routes -> routes
+                .get("/recommendation", (request, response) ->
+                        reply(mapper, request, response, service.getRecommendations(productIdParam(request)).collectList()))
+                .get("/recommendation/top", (request, response) ->
+                        reply(mapper, request, response, service.getTopRecommendations(productIdParam(request), limitParam(request)).collectList()))
+                .get("/recommendation/summary", (request, response) ->
+                        reply(mapper, request, response, service.getRatingSummary(productIdParam(request)))));
+    }
+
+    public static StubServer review(ReviewService service, ObjectMapper mapper, LoopResources loops) {
+        return new StubServer("review", loops, routes -> routes.get("/review", (request, response) ->
+                reply(mapper, request, response, service.getReviews(productIdParam(request)).collectList())));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public URI getUri() {
+        return URI.create("http://" + server.host() + ":" + server.port());
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static int productIdParam(HttpServerRequest request) {
+        return intParam(request, "productId");
+    }
+
+    private static int limitParam(HttpServerRequest request) {
+        return intParam(request, "limit");
+    }
+
+    private static int intParam(HttpServerRequest request, String name) {
+        List<String> values = new QueryStringDecoder(request.uri()).parameters().get(name);
+        return values == null ? 0 : Integer.parseInt(values.get(0));
+    }
+
+    private static Publisher<Void> reply(ObjectMapper mapper, HttpServerRequest request, HttpServerResponse response,
+                                         Mono<?> body) {
+        return body.map(value -> toJson(mapper, value))
+                .onErrorResume(NotFoundException.class, ex -> {
+                    response.status(NOT_FOUND.value());
+                    return Mono.just(toJson(mapper, new HttpErrorInfo(NOT_FOUND, "/" + request.path(), ex.getMessage())));
+                })
+                .flatMap(json -> response.header(CONTENT_TYPE, APPLICATION_JSON_VALUE).sendByteArray(Mono.just(json)).then());
+    }
+
+    private static byte[] toJson(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -4,24 +4,26 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import lb.microservice.product.composite.service.ProductCompositeIntegration;
+import lb.microservice.util.health.CachedHealthContributor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
-import org.springframework.boot.actuate.health.CompositeReactiveHealthContributor;
-import org.springframework.boot.actuate.health.ReactiveHealthContributor;
-import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Slf4j
 @SpringBootApplication
@@ -81,13 +83,17 @@ public class ProductCompositeServiceApplication {
         return WebClient.builder();
     }
 
+    /**
+     * Health of the core services, polled in the background so health probes do not call them.
+     */
     @Bean
-    public ReactiveHealthContributor coreServices() {
-        final Map<String, ReactiveHealthIndicator> registry = new LinkedHashMap<>();
-        registry.put("product", () -> integration.getProductHealth());
-        registry.put("recommendation", () -> integration.getRecommendationHealth());
-        registry.put("review", () -> integration.getReviewHealth());
-        return CompositeReactiveHealthContributor.fromMap(registry);
+    public CachedHealthContributor coreServices(@Value("${app.health.pollInterval:10s}") Duration pollInterval,
+                                                @Value("${app.health.staleAfter:30s}") Duration staleAfter) {
+        final Map<String, Supplier<Mono<Health>>> checks = new LinkedHashMap<>();
+        checks.put("product", () -> integration.getProductHealth());
+        checks.put("recommendation", () -> integration.getRecommendationHealth());
+        checks.put("review", () -> integration.getReviewHealth());
+        return new CachedHealthContributor(checks, pollInterval, staleAfter);
     }
 
 
@@ -1,17 +1,28 @@
 package lb.microservice.product.composite;
 
+import lb.microservice.util.security.TrustedPrincipalCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.web.server.ServerBearerTokenAuthenticationConverter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import reactor.core.publisher.Mono;
 
 import static org.springframework.http.HttpMethod.*;
 
+@Slf4j
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
 	@Bean
-	SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+	SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http,
+													 @Value("${app.trustedHop.enabled:false}") boolean trustedHopEnabled,
+													 @Value("${app.trustedHop.secret:}") String trustedHopSecret) {
 		http.authorizeExchange()
 			.pathMatchers("/actuator/**").permitAll()
 			.pathMatchers("/openapi/**").permitAll()
@@ -22,7 +33,27 @@ public class SecurityConfig {
 			.anyExchange().authenticated()
 			.and()
 			.oauth2ResourceServer().jwt();
+		if (trustedHopEnabled) {
+			trustedHop(http, new TrustedPrincipalCodec(trustedHopSecret));
+		}
+		log.info("Trusted principal header from the gateway is {}", trustedHopEnabled ? "accepted" : "ignored");
 		return http.build();
 	}
 
+	/**
+	 * Accepts the principal forwarded by the gateway in place of the bearer token,
+	 * the bearer token is only decoded if the forwarded principal is missing or invalid.
+	 */
+	private void trustedHop(ServerHttpSecurity http, TrustedPrincipalCodec codec) {
+		AuthenticationWebFilter trustedPrincipalFilter = new AuthenticationWebFilter((ReactiveAuthenticationManager) Mono::just);
+		trustedPrincipalFilter.setServerAuthenticationConverter(new TrustedPrincipalAuthenticationConverter(codec));
+		http.addFilterBefore(trustedPrincipalFilter, SecurityWebFiltersOrder.AUTHENTICATION);
+
+		ServerBearerTokenAuthenticationConverter bearerTokenConverter = new ServerBearerTokenAuthenticationConverter();
+		http.oauth2ResourceServer().bearerTokenConverter(exchange ->
+			exchange.getAttribute(TrustedPrincipalAuthenticationConverter.AUTHENTICATED_ATTRIBUTE) != null
+				? Mono.empty()
+				: bearerTokenConverter.convert(exchange));
+	}
+
 }
\ No newline at end of file
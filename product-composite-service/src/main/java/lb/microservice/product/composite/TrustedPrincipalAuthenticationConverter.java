@@ -0,0 +1,52 @@
+package lb.microservice.product.composite;
+
+import lb.microservice.util.security.TrustedPrincipal;
+import lb.microservice.util.security.TrustedPrincipalCodec;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Authenticates requests carrying a valid {@link TrustedPrincipalCodec#HEADER} set by the gateway.
+ * The principal is exposed as a {@link JwtAuthenticationToken} over the forwarded claims, so it looks the same
+ * as a decoded bearer token to the rest of the service. Requests without a valid header are left to the bearer token.
+ */
+public class TrustedPrincipalAuthenticationConverter implements ServerAuthenticationConverter {
+
+	static final String AUTHENTICATED_ATTRIBUTE = TrustedPrincipalAuthenticationConverter.class.getName() + ".AUTHENTICATED";
+
+	private final TrustedPrincipalCodec codec;
+
+	public TrustedPrincipalAuthenticationConverter(TrustedPrincipalCodec codec) {
+		this.codec = codec;
+	}
+
+	@Override
+	public Mono<Authentication> convert(ServerWebExchange exchange) {
+		String header = exchange.getRequest().getHeaders().getFirst(TrustedPrincipalCodec.HEADER);
+		if (header == null) {
+			return Mono.empty();
+		}
+		return Mono.justOrEmpty(codec.decode(header))
+			.map(principal -> {
+				exchange.getAttributes().put(AUTHENTICATED_ATTRIBUTE, Boolean.TRUE);
+				return toAuthentication(header, principal);
+			});
+	}
+
+	private static Authentication toAuthentication(String header, TrustedPrincipal principal) {
+		Jwt jwt = Jwt.withTokenValue(header)
+			.header("alg", "HS256")
+			.subject(principal.subject())
+			.claim("scope", String.join(" ", principal.scopes()))
+			.expiresAt(principal.expiresAt())
+			.build();
+		return new JwtAuthenticationToken(jwt, principal.scopes().stream()
+			.map(scope -> new SimpleGrantedAuthority("SCOPE_" + scope))
+			.toList());
+	}
+}
@@ -7,9 +7,11 @@ import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import lb.microservice.api.core.product.Product;
 import lb.microservice.api.core.product.ProductService;
+import lb.microservice.api.core.recommendation.RatingSummary;
 import lb.microservice.api.core.recommendation.Recommendation;
 import lb.microservice.api.core.recommendation.RecommendationService;
 import lb.microservice.api.core.review.Review;
+import lb.microservice.api.core.review.ReviewSearchResult;
 import lb.microservice.api.core.review.ReviewService;
 import lb.microservice.api.event.Event;
 import lb.microservice.api.exceptions.InvalidInputException;
@@ -33,6 +35,7 @@ import reactor.core.scheduler.Scheduler;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.logging.Level.FINE;
 import static lb.microservice.api.event.Event.Type.CREATE;
@@ -46,6 +49,12 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
     private static final String RECOMMENDATION_SERVICE_URL = "http://recommendation";
     private static final String REVIEW_SERVICE_URL = "http://review";
 
+    /**
+     * Context key of an {@link AtomicBoolean} that the read fallbacks set when they answer in place of a failed call,
+     * so a caller can tell an empty answer from a degraded one.
+     */
+    public static final String DEGRADED = ProductCompositeIntegration.class.getName() + ".degraded";
+
     private final ServiceUtil serviceUtil;
     private final Scheduler publishEventScheduler;
     private final StreamBridge streamBridge;
@@ -68,10 +77,9 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
     @TimeLimiter(name = "product")
     @CircuitBreaker(name = "product", fallbackMethod = "getProductFallbackValue")
     @Override
-    public Mono<Product> getProduct(int productId, int delay, int faultPercent) {
-        URI url = UriComponentsBuilder.fromUriString(PRODUCT_SERVICE_URL + "/product/{productId}?delay={delay}"
-                        + "&faultPercent={faultPercent}")
-                .build(productId, delay, faultPercent);
+    public Mono<Product> getProduct(int productId) {
+        URI url = UriComponentsBuilder.fromUriString(PRODUCT_SERVICE_URL + "/product/{productId}")
+                .build(productId);
         log.debug("Will call getProduct API by URL:{}", url);
         return webClient.get()
                 .uri(url)
@@ -81,8 +89,9 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
                 .onErrorMap(WebClientResponseException.class, this::handleException);
     }
 
-    private Mono<Product> getProductFallbackValue(int productId, int delay, int faultPercent, CallNotPermittedException ex){
-        return Mono.just(new Product(productId, "Fallback product" + productId, productId, serviceUtil.getServiceAddress()));
+    private Mono<Product> getProductFallbackValue(int productId, CallNotPermittedException ex){
+        return degraded("getProduct", ex)
+                .then(Mono.just(new Product(productId, "Fallback product" + productId, productId, serviceUtil.getServiceAddress())));
     }
 
     @Override
@@ -109,7 +118,31 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
                 .retrieve()
                 .bodyToFlux(Recommendation.class)
                 .log(log.getName(), FINE)
-                .onErrorResume(error -> Flux.empty());
+                .onErrorResume(error -> degraded("getRecommendations", error).thenMany(Flux.empty()));
+    }
+
+    @Override
+    public Flux<Recommendation> getTopRecommendations(int productId, int limit) {
+        String url = RECOMMENDATION_SERVICE_URL + "/recommendation/top?productId=" + productId + "&limit=" + limit;
+        log.debug("Will call getTopRecommendations API by URL:{}", url);
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToFlux(Recommendation.class)
+                .log(log.getName(), FINE)
+                .onErrorResume(error -> degraded("getTopRecommendations", error).thenMany(Flux.empty()));
+    }
+
+    @Override
+    public Mono<RatingSummary> getRatingSummary(int productId) {
+        String url = RECOMMENDATION_SERVICE_URL + "/recommendation/summary?productId=" + productId;
+        log.debug("Will call getRatingSummary API by URL:{}", url);
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(RatingSummary.class)
+                .log(log.getName(), FINE)
+                .onErrorResume(error -> degraded("getRatingSummary", error).then(Mono.empty()));
     }
 
     @Override
@@ -138,7 +171,20 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
                 .retrieve()
                 .bodyToFlux(Review.class)
                 .log(log.getName(), FINE)
-                .onErrorResume(error -> Mono.empty());
+                .onErrorResume(error -> degraded("getReviews", error).thenMany(Flux.empty()));
+    }
+
+    @Override
+    public Mono<ReviewSearchResult> searchReviews(int productId, String query, int page, int size) {
+        URI url = UriComponentsBuilder.fromUriString(REVIEW_SERVICE_URL + "/review/search?productId={productId}&query={query}&page={page}&size={size}")
+                .build(productId, query, page, size);
+        log.debug("Will call the searchReviews API on URL: {}", url);
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(ReviewSearchResult.class)
+                .log(log.getName(), FINE)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
     }
 
     @Override
@@ -155,6 +201,17 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
                 .subscribeOn(publishEventScheduler).then();
     }
 
+    /**
+     * Marks the subscriber's {@link #DEGRADED} flag, if it has one, before a fallback answers.
+     */
+    public static Mono<Void> degraded(String call, Throwable error) {
+        return Mono.deferContextual(context -> {
+            log.debug("{} failed, answering with a fallback: {}", call, error.toString());
+            context.<AtomicBoolean>getOrEmpty(DEGRADED).ifPresent(degraded -> degraded.set(true));
+            return Mono.empty();
+        });
+    }
+
     private String getErrorMessage(WebClientResponseException ex) {
         try {
             return mapper.readValue(ex.getResponseBodyAsString(), HttpErrorInfo.class).getMessage();
@@ -2,23 +2,35 @@ package lb.microservice.product.composite.service;
 
 import lb.microservice.api.composite.product.*;
 import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.recommendation.RatingSummary;
 import lb.microservice.api.core.recommendation.Recommendation;
 import lb.microservice.api.core.review.Review;
+import lb.microservice.api.exceptions.InvalidInputException;
 import lb.microservice.util.ServiceUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 @Slf4j
@@ -27,29 +39,74 @@ public class ProductCompositeServiceImpl implements ProductCompositeService {
 
     private final ServiceUtil serviceUtil;
     private final ProductCompositeIntegration integration;
+    private final CacheControl cacheControl;
 
+    /**
+     * @param sharedMaxAgeSeconds if positive, lets shared caches such as the gateway keep product aggregates this long,
+     *                            while clients revalidate with the ETag on every use
+     */
     @Autowired
-    public ProductCompositeServiceImpl(ServiceUtil serviceUtil, ProductCompositeIntegration integration) {
+    public ProductCompositeServiceImpl(ServiceUtil serviceUtil, ProductCompositeIntegration integration,
+                                       @Value("${app.productAggregate.sharedMaxAgeSeconds:0}") long sharedMaxAgeSeconds) {
         this.serviceUtil = serviceUtil;
         this.integration = integration;
+        this.cacheControl = sharedMaxAgeSeconds > 0
+                ? CacheControl.maxAge(Duration.ZERO).sMaxAge(Duration.ofSeconds(sharedMaxAgeSeconds))
+                : null;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Answers 304 without building the aggregate when If-None-Match matches the ETag of the constituent versions.
+     * An aggregate with a constituent answered by a fallback gets neither ETag nor Cache-Control, so no cache keeps it.
+     * An invalid {@code maxRecommendations} is rejected here, the recommendation service's 422 would be swallowed like
+     * any of its errors and answered with an empty list.
+     */
 	@Override
-    public Mono<ProductAggregate> getProduct(int productId, int delay, int faultPercent) {
-        return Mono.zip(values -> createProductAggregate((SecurityContext) values[0],
-                                (Product) values[1],
-                                (List<Recommendation>) values[2],
-                                (List<Review>) values[3],
-                                serviceUtil.getServiceAddress()),
-                        getSecurityContextMono(),
-                        integration.getProduct(productId, delay, faultPercent),
-                        integration.getRecommendations(productId).collectList(),
-                        integration.getReviews(productId).collectList())
+    public Mono<ProductAggregate> getProduct(int productId, boolean includeRating, Integer maxRecommendations,
+                                             ServerWebExchange exchange) {
+        if (maxRecommendations != null && maxRecommendations < 1) {
+            throw new InvalidInputException("Invalid maxRecommendations: " + maxRecommendations);
+        }
+        Flux<Recommendation> recommendations = maxRecommendations == null
+                ? integration.getRecommendations(productId)
+                : integration.getTopRecommendations(productId, maxRecommendations);
+        Mono<Optional<RatingSummary>> rating = includeRating
+                ? integration.getRatingSummary(productId).map(Optional::of).defaultIfEmpty(Optional.empty())
+                : Mono.just(Optional.empty());
+        return Mono.defer(() -> {
+                    AtomicBoolean degraded = new AtomicBoolean();
+                    return Mono.zip(values -> aggregate(values, degraded.get(), exchange),
+                                    getSecurityContextMono(),
+                                    integration.getProduct(productId),
+                                    recommendations.collectList(),
+                                    integration.getReviews(productId).collectList(),
+                                    rating)
+                            .contextWrite(Context.of(ProductCompositeIntegration.DEGRADED, degraded));
+                })
+                .flatMap(Mono::justOrEmpty)
                 .doOnError(ex -> log.warn("getCompositeProduct filed: {}", ex.toString()))
                 .log(log.getName(), Level.FINE);
     }
 
+    @SuppressWarnings("unchecked")
+    private Optional<ProductAggregate> aggregate(Object[] values, boolean degraded, ServerWebExchange exchange) {
+        Product product = (Product) values[1];
+        List<Recommendation> recommendationList = (List<Recommendation>) values[2];
+        List<Review> reviewList = (List<Review>) values[3];
+        RatingSummary ratingSummary = ((Optional<RatingSummary>) values[4]).orElse(null);
+        String eTag = degraded ? null : eTag(product, recommendationList, reviewList, ratingSummary);
+        if (eTag != null && cacheControl != null) {
+            exchange.getResponse().getHeaders().setCacheControl(cacheControl);
+        }
+        if (eTag != null && exchange.checkNotModified(eTag)) {
+            return Optional.empty();
+        }
+        ProductAggregate result = createProductAggregate((SecurityContext) values[0], product,
+                recommendationList, reviewList, serviceUtil.getServiceAddress());
+        result.setRating(ratingSummary == null ? null : toProductRating(ratingSummary));
+        return Optional.of(result);
+    }
+
     @Override
     public Mono<Void> createProduct(ProductAggregate body) {
         try {
@@ -107,7 +164,7 @@ public class ProductCompositeServiceImpl implements ProductCompositeService {
         }
     }
 
-    private ProductAggregate createProductAggregate(SecurityContext sc, Product product, List<Recommendation> recommendations,
+    ProductAggregate createProductAggregate(SecurityContext sc, Product product, List<Recommendation> recommendations,
                                                     List<Review> reviews, String productCompositeAddress) {
         logAuthorizationInfo(sc);
         List<RecommendationSummary> recommendationSummaries = recommendations == null ? null : recommendations.stream()
@@ -123,6 +180,39 @@ public class ProductCompositeServiceImpl implements ProductCompositeService {
         return new ProductAggregate(product, recommendationSummaries, reviewSummaries, serviceAddress);
     }
 
+    /**
+     * Weak ETag over the entity versions the aggregate is built from: service addresses are not part of it,
+     * so responses with the same tag are equivalent but not byte for byte the same.
+     * Returns null if a constituent has no version, e.g. the circuit breaker fallback product.
+     */
+    String eTag(Product product, List<Recommendation> recommendations, List<Review> reviews, RatingSummary rating) {
+        if (product.getVersion() == null) {
+            return null;
+        }
+        StringBuilder versions = new StringBuilder()
+                .append(product.getProductId()).append(':').append(product.getVersion());
+        for (Recommendation r : recommendations) {
+            if (r.getVersion() == null) {
+                return null;
+            }
+            versions.append("|r").append(r.getRecommendationId()).append(':').append(r.getVersion());
+        }
+        for (Review r : reviews) {
+            if (r.getVersion() == null) {
+                return null;
+            }
+            versions.append("|v").append(r.getReviewId()).append(':').append(r.getVersion());
+        }
+        if (rating != null) {
+            versions.append("|s").append(rating.getCount()).append(':').append(rating.getSum());
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    private ProductRating toProductRating(RatingSummary summary) {
+        return new ProductRating(summary.getCount(), summary.getAverage(), summary.getHistogram());
+    }
+
     private Mono<SecurityContext> getLogAuthorizationInfoMono() {
         return getSecurityContextMono().doOnNext(this::logAuthorizationInfo);
     }
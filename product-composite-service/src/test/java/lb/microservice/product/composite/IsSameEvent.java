@@ -38,6 +38,7 @@ public class IsSameEvent extends TypeSafeMatcher<String> {
         log.trace("Convert the following json string to a map: {}", eventAsJson);
         Map<String, Object> mapEvent = convertJsonStringToMap(eventAsJson);
         mapEvent.remove("eventCreatedAt");
+        mapEvent.remove("eventId");
 
         Map<String, Object> mapExpectedEvent = getMapWithoutCreatedAt(expectedEvent);
 
@@ -59,6 +60,7 @@ public class IsSameEvent extends TypeSafeMatcher<String> {
     private Map<String, Object> getMapWithoutCreatedAt(Event<Integer, ?> event) {
         Map<String, Object> mapEvent = convertObjectToMap(event);
         mapEvent.remove("eventCreatedAt");
+        mapEvent.remove("eventId");
         return mapEvent;
     }
 
@@ -1,6 +1,7 @@
 package lb.microservice.product.composite;
 
 import lb.microservice.api.core.product.Product;
+import lb.microservice.api.core.recommendation.RatingSummary;
 import lb.microservice.api.core.recommendation.Recommendation;
 import lb.microservice.api.core.review.Review;
 import lb.microservice.api.exceptions.InvalidInputException;
@@ -17,7 +18,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.HttpStatus.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
@@ -26,12 +31,15 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 		properties = {"spring.security.oauth2.resourceserver.jwt.issuer-uri=",
 				"spring.main.allow-bean-definition-overriding=true",
 				"spring.cloud.config.enabled=false",
-				"eureka.client.enabled=false"})
+				"eureka.client.enabled=false",
+				"app.productAggregate.sharedMaxAgeSeconds=30"})
 class ProductCompositeServiceApplicationTests {
 
 	private static final int PRODUCT_ID_OK = 1;
 	private static final int PRODUCT_ID_NOT_FOUND = 2;
 	private static final int PRODUCT_ID_INVALID = 3;
+	private static final int PRODUCT_ID_VERSIONED = 4;
+	private static final int PRODUCT_ID_DEGRADED = 5;
 
 	@MockBean
 	private ProductCompositeIntegration compositeIntegration;
@@ -42,7 +50,7 @@ class ProductCompositeServiceApplicationTests {
 	@BeforeEach
 	void setUp() {
 
-		when(compositeIntegration.getProduct(PRODUCT_ID_OK, 0, 0))
+		when(compositeIntegration.getProduct(PRODUCT_ID_OK))
 				.thenReturn(Mono.just(new Product(PRODUCT_ID_OK, "name", 1, "mock-address")));
 		when(compositeIntegration.getRecommendations(PRODUCT_ID_OK))
 				.thenReturn(Flux.fromIterable(singletonList(
@@ -51,10 +59,30 @@ class ProductCompositeServiceApplicationTests {
 				.thenReturn(Flux.fromIterable(singletonList(
 						new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address"))));
 
-		when(compositeIntegration.getProduct(PRODUCT_ID_NOT_FOUND, 0, 0))
+		when(compositeIntegration.getTopRecommendations(PRODUCT_ID_OK, 1))
+				.thenReturn(Flux.just(new Recommendation(PRODUCT_ID_OK, 2, "author", 5, "content", "mock address")));
+		when(compositeIntegration.getRatingSummary(PRODUCT_ID_OK))
+				.thenReturn(Mono.just(new RatingSummary(PRODUCT_ID_OK, 1, 1, 1.0, singletonMap(1, 1L), "mock address")));
+
+		when(compositeIntegration.getProduct(PRODUCT_ID_VERSIONED))
+				.thenReturn(Mono.just(new Product(PRODUCT_ID_VERSIONED, "name", 1, "mock-address", 0)));
+		when(compositeIntegration.getRecommendations(PRODUCT_ID_VERSIONED))
+				.thenReturn(Flux.just(new Recommendation(PRODUCT_ID_VERSIONED, 1, "author", 1, "content", "mock address", 0)));
+		when(compositeIntegration.getReviews(PRODUCT_ID_VERSIONED))
+				.thenReturn(Flux.just(new Review(PRODUCT_ID_VERSIONED, 1, "author", "subject", "content", "mock address", 0)));
+
+		when(compositeIntegration.getProduct(PRODUCT_ID_DEGRADED))
+				.thenReturn(Mono.just(new Product(PRODUCT_ID_DEGRADED, "name", 1, "mock-address", 0)));
+		when(compositeIntegration.getRecommendations(PRODUCT_ID_DEGRADED))
+				.thenReturn(Flux.just(new Recommendation(PRODUCT_ID_DEGRADED, 1, "author", 1, "content", "mock address", 0)));
+		when(compositeIntegration.getReviews(PRODUCT_ID_DEGRADED))
+				.thenReturn(ProductCompositeIntegration.degraded("getReviews", new IllegalStateException("review down"))
+						.thenMany(Flux.empty()));
+
+		when(compositeIntegration.getProduct(PRODUCT_ID_NOT_FOUND))
 				.thenThrow(new NotFoundException("NOT FOUND: " + PRODUCT_ID_NOT_FOUND));
 
-		when(compositeIntegration.getProduct(PRODUCT_ID_INVALID, 0, 0))
+		when(compositeIntegration.getProduct(PRODUCT_ID_INVALID))
 				.thenThrow(new InvalidInputException("INVALID: " + PRODUCT_ID_INVALID));
 	}
 
@@ -67,6 +95,97 @@ class ProductCompositeServiceApplicationTests {
 				.jsonPath("$.reviews.length()").isEqualTo(1);
 	}
 
+	@Test
+	void getProductWithRating() {
+
+		getAndVerifyProduct(PRODUCT_ID_OK, OK)
+				.jsonPath("$.rating").doesNotExist();
+
+		getAndVerifyProduct(PRODUCT_ID_OK + "?includeRating=true", OK)
+				.jsonPath("$.rating.count").isEqualTo(1)
+				.jsonPath("$.rating.average").isEqualTo(1.0)
+				.jsonPath("$.rating.histogram.1").isEqualTo(1);
+	}
+
+	@Test
+	void getProductWithTopRecommendations() {
+
+		getAndVerifyProduct(PRODUCT_ID_OK + "?maxRecommendations=1", OK)
+				.jsonPath("$.recommendations.length()").isEqualTo(1)
+				.jsonPath("$.recommendations[0].recommendationId").isEqualTo(2)
+				.jsonPath("$.recommendations[0].rate").isEqualTo(5);
+	}
+
+	@Test
+	void getProductWithInvalidMaxRecommendations() {
+
+		getAndVerifyProduct(PRODUCT_ID_OK + "?maxRecommendations=0", UNPROCESSABLE_ENTITY)
+				.jsonPath("$.message").isEqualTo("Invalid maxRecommendations: 0");
+		getAndVerifyProduct(PRODUCT_ID_OK + "?maxRecommendations=-1", UNPROCESSABLE_ENTITY)
+				.jsonPath("$.message").isEqualTo("Invalid maxRecommendations: -1");
+	}
+
+	@Test
+	void getProductNotModified() {
+
+		String eTag = client.get()
+				.uri("/product-composite/" + PRODUCT_ID_VERSIONED)
+				.accept(APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueMatches(ETAG, "W/\"[0-9a-f]+\"")
+				.expectHeader().valueEquals(CACHE_CONTROL, "max-age=0, s-maxage=30")
+				.returnResult(String.class)
+				.getResponseHeaders().getETag();
+
+		client.get()
+				.uri("/product-composite/" + PRODUCT_ID_VERSIONED)
+				.accept(APPLICATION_JSON)
+				.header(IF_NONE_MATCH, eTag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectBody().isEmpty();
+
+		when(compositeIntegration.getProduct(PRODUCT_ID_VERSIONED))
+				.thenReturn(Mono.just(new Product(PRODUCT_ID_VERSIONED, "new name", 1, "mock-address", 1)));
+
+		client.get()
+				.uri("/product-composite/" + PRODUCT_ID_VERSIONED)
+				.accept(APPLICATION_JSON)
+				.header(IF_NONE_MATCH, eTag)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.name").isEqualTo("new name");
+	}
+
+	@Test
+	void getProductWithoutVersionsHasNoETag() {
+
+		client.get()
+				.uri("/product-composite/" + PRODUCT_ID_OK)
+				.accept(APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().doesNotExist(ETAG);
+	}
+
+	@Test
+	void getDegradedProductIsNotCacheable() {
+
+		client.get()
+				.uri("/product-composite/" + PRODUCT_ID_DEGRADED)
+				.accept(APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().doesNotExist(ETAG)
+				// Spring Security's default, not the aggregate's shared max age
+				.expectHeader().valueEquals(CACHE_CONTROL, "no-cache, no-store, max-age=0, must-revalidate")
+				.expectBody()
+				.jsonPath("$.recommendations.length()").isEqualTo(1)
+				.jsonPath("$.reviews.length()").isEqualTo(0);
+	}
+
 	@Test
 	void getProductNotFound() {
 
@@ -84,8 +203,12 @@ class ProductCompositeServiceApplicationTests {
 	}
 
 	private WebTestClient.BodyContentSpec getAndVerifyProduct(int productId, HttpStatus expectedStatus) {
+		return getAndVerifyProduct(String.valueOf(productId), expectedStatus);
+	}
+
+	private WebTestClient.BodyContentSpec getAndVerifyProduct(String productPath, HttpStatus expectedStatus) {
 		return client.get()
-				.uri("/product-composite/" + productId)
+				.uri("/product-composite/" + productPath)
 				.accept(APPLICATION_JSON)
 				.exchange()
 				.expectStatus().isEqualTo(expectedStatus)
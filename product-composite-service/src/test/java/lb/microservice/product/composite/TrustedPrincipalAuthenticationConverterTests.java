@@ -0,0 +1,69 @@
+package lb.microservice.product.composite;
+
+import lb.microservice.util.security.TrustedPrincipal;
+import lb.microservice.util.security.TrustedPrincipalCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrustedPrincipalAuthenticationConverterTests {
+
+    private static final String SECRET = "a-secret-shared-by-gateway-and-composite";
+
+    private final TrustedPrincipalCodec codec = new TrustedPrincipalCodec(SECRET);
+    private final TrustedPrincipalAuthenticationConverter converter = new TrustedPrincipalAuthenticationConverter(codec);
+
+    @Test
+    void acceptsSignedPrincipal() {
+        String header = codec.encode(new TrustedPrincipal("writer", List.of("product:read", "product:write"),
+                Instant.now().plusSeconds(60)));
+
+        StepVerifier.create(converter.convert(exchange(header)))
+                .assertNext(authentication -> {
+                    assertTrue(authentication.isAuthenticated());
+                    assertEquals("writer", ((JwtAuthenticationToken) authentication).getToken().getSubject());
+                    assertEquals(List.of("SCOPE_product:read", "SCOPE_product:write"),
+                            authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectsTamperedPrincipal() {
+        String header = codec.encode(new TrustedPrincipal("reader", List.of("product:read"), Instant.now().plusSeconds(60)));
+        String forged = codec.encode(new TrustedPrincipal("reader", List.of("product:write"), Instant.now().plusSeconds(60)));
+        String tampered = forged.substring(0, forged.indexOf('.')) + header.substring(header.indexOf('.'));
+
+        StepVerifier.create(converter.convert(exchange(tampered))).verifyComplete();
+    }
+
+    @Test
+    void rejectsPrincipalSignedWithOtherSecret() {
+        String header = new TrustedPrincipalCodec(SECRET + "-other").encode(
+                new TrustedPrincipal("writer", List.of("product:write"), Instant.now().plusSeconds(60)));
+
+        StepVerifier.create(converter.convert(exchange(header))).verifyComplete();
+    }
+
+    @Test
+    void rejectsExpiredPrincipal() {
+        String header = codec.encode(new TrustedPrincipal("writer", List.of("product:write"), Instant.now().minusSeconds(1)));
+
+        StepVerifier.create(converter.convert(exchange(header))).verifyComplete();
+        StepVerifier.create(converter.convert(exchange("not-a-header"))).verifyComplete();
+    }
+
+    private MockServerWebExchange exchange(String header) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1")
+                .header(TrustedPrincipalCodec.HEADER, header));
+    }
+}
@@ -4,10 +4,12 @@ import lb.microservice.api.core.product.Product;
 import lb.microservice.api.core.product.ProductService;
 import lb.microservice.api.event.Event;
 import lb.microservice.api.exceptions.EventProcessingException;
+import lb.microservice.util.messaging.EventConsumerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 
 import java.util.function.Consumer;
 
@@ -22,24 +24,34 @@ public class MessageProcessorConfig {
     }
 
     @Bean
-    public Consumer<Event<Integer, Product>> messageProcessor(){
-        return event -> {
-            log.info("Process message with key:{} created at {}", event.getKey(), event.getEventCreatedAt());
-            switch (event.getEventType()) {
-                case CREATE -> {
-                    log.info("Create a product with id:{}", event.getKey());
-                    productService.createProduct(event.getData()).block();
-                }
-                case DELETE -> {
-                    log.info("Delete product with id:{}", event.getKey());
-                    productService.deleteProduct(event.getKey()).block();
-                }
-                default -> {
-                    String errorMessage = String.format("Incorrect event type: %s , expected a CREATE or DELETE event", event.getEventType());
-                    throw new EventProcessingException(errorMessage);
-                }
+    public Consumer<Message<Event<Integer, Product>>> messageProcessor(EventConsumerFactory consumerFactory) {
+        return consumerFactory.create("messageProcessor-in-0", Product.class, this::processEvent);
+    }
+
+    /**
+     * Sees every product event, on every instance, to keep the instance's {@link ProductCache} fresh.
+     */
+    @Bean
+    public Consumer<Event<Integer, Object>> productCacheInvalidator(ProductCache productCache) {
+        return event -> productCache.invalidate(event.getKey());
+    }
+
+    private void processEvent(Event<Integer, Product> event) {
+        log.info("Process message with key:{} created at {}", event.getKey(), event.getEventCreatedAt());
+        switch (event.getEventType()) {
+            case CREATE -> {
+                log.info("Create a product with id:{}", event.getKey());
+                productService.createProduct(event.getData()).block();
+            }
+            case DELETE -> {
+                log.info("Delete product with id:{}", event.getKey());
+                productService.deleteProduct(event.getKey()).block();
+            }
+            default -> {
+                String errorMessage = String.format("Incorrect event type: %s , expected a CREATE or DELETE event", event.getEventType());
+                throw new EventProcessingException(errorMessage);
             }
-            log.info("Message processing done!");
-        };
+        }
+        log.info("Message processing done!");
     }
 }
@@ -0,0 +1,66 @@
+package lb.microservice.product.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lb.microservice.product.persistence.ProductEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Near cache of product entities by productId, so repeatedly requested products are not read from MongoDB every time.
+ * Concurrent misses for the same product share one query, and products that don't exist are not cached.
+ * <p>
+ * Entries are replaced by this instance's writes and invalidated by every product event, whichever instance
+ * processes it. The TTL, {@code app.productCache.ttlSeconds}, bounds how long a missed invalidation can serve stale data.
+ * Hits, misses, evictions and size are published as {@code cache.*} meters with {@code cache=products}.
+ * A {@code app.productCache.maxSize} of 0 disables the cache.
+ */
+@Component
+public class ProductCache {
+
+    private final AsyncCache<Integer, ProductEntity> cache;
+    private final boolean enabled;
+
+    @Autowired
+    public ProductCache(@Value("${app.productCache.maxSize:10000}") long maxSize,
+                        @Value("${app.productCache.ttlSeconds:60}") long ttlSeconds,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        this.enabled = maxSize > 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mono<ProductEntity> get(int productId, IntFunction<Mono<ProductEntity>> loader) {
+        CompletableFuture<ProductEntity> entity = cache.get(productId, (id, executor) -> loader.apply(id).toFuture());
+        // a cancelled subscriber must not cancel the load other subscribers are waiting for
+        return Mono.fromFuture(entity.copy());
+    }
+
+    public void put(ProductEntity entity) {
+        cache.put(entity.getProductId(), CompletableFuture.completedFuture(entity));
+    }
+
+    public void invalidate(int productId) {
+        cache.synchronous().invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
@@ -8,43 +8,52 @@ import lb.microservice.product.persistence.ProductEntity;
 import lb.microservice.product.persistence.ProductMapper;
 import lb.microservice.product.persistence.ProductRepository;
 import lb.microservice.util.ServiceUtil;
+import lb.microservice.util.mongo.MongoReadRouter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.util.Random;
 import java.util.logging.Level;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Slf4j
 @RestController
 public class ProductServiceImpl implements ProductService {
 
-    private final Random randomNumberGenerator = new Random();
     private final ServiceUtil serviceUtil;
     private final ProductRepository repository;
     private final ProductMapper mapper;
+    private final ProductCache productCache;
+    private final MongoReadRouter readRouter;
 
     @Autowired
-    public ProductServiceImpl(ServiceUtil serviceUtil, ProductRepository repository, ProductMapper mapper) {
+    public ProductServiceImpl(ServiceUtil serviceUtil, ProductRepository repository, ProductMapper mapper, ProductCache productCache,
+                              MongoReadRouter readRouter) {
         this.serviceUtil = serviceUtil;
         this.repository = repository;
         this.mapper = mapper;
+        this.productCache = productCache;
+        this.readRouter = readRouter;
     }
 
     @Override
-    public Mono<Product> getProduct(int productId, int delay, int faultPercent) {
+    public Mono<Product> getProduct(int productId) {
         if (productId < 1) {
             throw new InvalidInputException("Invalid productId: " + productId);
         }
-        return repository.findByProductId(productId)
-                .map(e -> throwErrorIfBadLuck(e, faultPercent))
+        // the cache is filled from the primary, a stale secondary would keep serving its data for the whole TTL;
+        // only uncached reads go through the router and its read preference
+        Mono<ProductEntity> entity = productCache.isEnabled()
+                ? productCache.get(productId, repository::findByProductId)
+                : readRouter.findOne(Query.query(where("productId").is(productId)), ProductEntity.class);
+        return entity
                 .switchIfEmpty(Mono.error(new NotFoundException("No product found for productId: " + productId)))
                 .log(log.getName(), Level.FINE)
                 .map(mapper::entityToApi)
-                .delayElement(Duration.ofSeconds(delay))
                 .map(this::setServiceAddress);
     }
 
@@ -54,6 +63,7 @@ public class ProductServiceImpl implements ProductService {
         return repository.save(entity)
                 .log(log.getName(), Level.FINE)
                 .onErrorMap(DuplicateKeyException.class, ex -> new InvalidInputException("Duplicate key, Product Id: " + body.getProductId()))
+                .doOnNext(productCache::put)
                 .map(mapper::entityToApi)
                 .map(this::setServiceAddress);
     }
@@ -64,32 +74,12 @@ public class ProductServiceImpl implements ProductService {
         return repository.findByProductId(productId)
                 .log(log.getName(), Level.FINE)
                 .map(repository::delete)
-                .flatMap(e -> e);
+                .flatMap(e -> e)
+                .doOnSuccess(v -> productCache.invalidate(productId));
     }
 
     private Product setServiceAddress(Product product) {
         product.setServiceAddress(serviceUtil.getServiceAddress());
         return product;
     }
-
-    private ProductEntity throwErrorIfBadLuck(ProductEntity entity, int faultPercent) {
-        if (faultPercent == 0) {
-            return entity;
-        }
-        int randomThreshold = getRandomNumber(1, 100);
-        if (faultPercent < randomThreshold) {
-            log.debug("We got lucky, no error occurred, {} < {}", faultPercent, randomThreshold);
-        } else {
-            log.debug("Bad luck, an error occurred, {} >= {}", faultPercent, randomThreshold);
-            throw new RuntimeException("Something went wrong...");
-        }
-        return entity;
-    }
-
-    private int getRandomNumber(int min, int max) {
-        if (max < min) {
-            throw new IllegalArgumentException("Max must be greater than min");
-        }
-        return randomNumberGenerator.nextInt((max - min) + 1) + min;
-    }
 }
@@ -1,9 +1,12 @@
 package lb.microservice.product;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lb.microservice.api.core.product.Product;
 import lb.microservice.api.event.Event;
 import lb.microservice.api.exceptions.InvalidInputException;
 import lb.microservice.product.persistence.ProductRepository;
+import lb.microservice.product.service.ProductCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +14,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.test.StepVerifier;
 
@@ -31,13 +36,24 @@ class ProductServiceApplicationTests extends AbstractMongoDbTestBase {
     @Autowired
     private ProductRepository repository;
 
+    @Autowired
+    private ProductCache productCache;
+
     @Autowired
     @Qualifier("messageProcessor")
-    private Consumer<Event<Integer, Product>> messageProcessor;
+    private Consumer<Message<Event<Integer, Product>>> messageProcessor;
+
+    @Autowired
+    @Qualifier("productCacheInvalidator")
+    private Consumer<Event<Integer, Object>> productCacheInvalidator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @BeforeEach
     void setupDb() {
         repository.deleteAll().block();
+        productCache.invalidateAll();
     }
 
     @Test
@@ -95,6 +111,56 @@ class ProductServiceApplicationTests extends AbstractMongoDbTestBase {
         assertThrows(InvalidInputException.class, () -> sendCreateProductEvent(productId));
     }
 
+    @Test
+    void redeliveredEventIsSkipped() {
+        int productId = 1;
+        Product product = new Product(productId, "Name " + productId, productId, "SA");
+        Event<Integer, Product> event = new Event<>(CREATE, productId, product);
+
+        messageProcessor.accept(MessageBuilder.withPayload(event).build());
+        assertNotNull(repository.findByProductId(productId).block());
+
+        assertDoesNotThrow(() -> messageProcessor.accept(MessageBuilder.withPayload(event).build()));
+        StepVerifier.create(repository.count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void cachedProductIsInvalidatedByProductEvents() {
+        int productId = 1;
+        sendCreateProductEvent(productId);
+        getAndVerifyProduct(productId, HttpStatus.OK);
+
+        repository.deleteAll().block();
+        getAndVerifyProduct(productId, HttpStatus.OK);
+
+        productCacheInvalidator.accept(new Event<>(DELETE, productId, null));
+        getAndVerifyProduct(productId, HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void processedEventsAreMeasured() {
+        double processedBefore = processedCreateEvents();
+
+        sendCreateProductEvent(1);
+
+        assertEquals(processedBefore + 1, processedCreateEvents());
+        assertNotNull(meterRegistry.find("event.age").tag("type", "CREATE").timer());
+    }
+
+    @Test
+    void cacheMissesAreNotRoutedToSecondaries() {
+        int productId = 42;
+        double readsBefore = routedProductReads();
+        sendCreateProductEvent(productId);
+        productCache.invalidate(productId);
+
+        getAndVerifyProduct(productId, HttpStatus.OK);
+
+        assertEquals(readsBefore, routedProductReads());
+    }
+
     @Test
     void deleteProduct() {
         int productId = 1;
@@ -124,12 +190,21 @@ class ProductServiceApplicationTests extends AbstractMongoDbTestBase {
     private void sendCreateProductEvent(int productId) {
         Product product = new Product(productId, "Name " + productId, productId, "SA");
         Event<Integer, Product> event = new Event<>(CREATE, productId, product);
-        messageProcessor.accept(event);
+        messageProcessor.accept(MessageBuilder.withPayload(event).build());
     }
 
     private void sendDeleteProductEvent(int productId) {
         Event<Integer, Product> event = new Event<>(DELETE, productId, null);
-        messageProcessor.accept(event);
+        messageProcessor.accept(MessageBuilder.withPayload(event).build());
+    }
+
+    private double processedCreateEvents() {
+        Timer timer = meterRegistry.find("event.processing").tags("type", "CREATE", "outcome", "success").timer();
+        return timer == null ? 0 : timer.count();
     }
 
+    private double routedProductReads() {
+        Timer timer = meterRegistry.find("mongodb.reads").tags("collection", "products").timer();
+        return timer == null ? 0 : timer.count();
+    }
 }
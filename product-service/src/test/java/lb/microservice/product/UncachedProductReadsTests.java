@@ -0,0 +1,73 @@
+package lb.microservice.product;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.event.Event;
+import lb.microservice.product.persistence.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.function.Consumer;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = {"eureka.client.enabled=false", "spring.cloud.config.enabled=false", "app.productCache.maxSize=0"})
+class UncachedProductReadsTests extends AbstractMongoDbTestBase {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    @Qualifier("messageProcessor")
+    private Consumer<Message<Event<Integer, Product>>> messageProcessor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setupDb() {
+        repository.deleteAll().block();
+    }
+
+    @Test
+    void everyReadIsRoutedAndMeasuredByReadPreference() {
+        int productId = 1;
+        double readsBefore = successfulProductReads();
+        Product product = new Product(productId, "Name " + productId, productId, "SA");
+        messageProcessor.accept(MessageBuilder.withPayload(new Event<>(CREATE, productId, product)).build());
+
+        getProduct(productId);
+        getProduct(productId);
+
+        assertEquals(readsBefore + 2, successfulProductReads());
+    }
+
+    private void getProduct(int productId) {
+        client.get()
+                .uri("/product/" + productId)
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.productId").isEqualTo(productId);
+    }
+
+    private double successfulProductReads() {
+        Timer timer = meterRegistry.find("mongodb.reads")
+                .tags("collection", "products", "readPreference", "primary", "outcome", "success").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,33 @@
+package lb.microservice.recommendation.persistence;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-product rating totals, kept up to date with single-document upserted $inc updates as recommendations are created.
+ * Deleting the recommendations removes the summary. Recommendations created before summaries were kept are counted
+ * once by {@link lb.microservice.recommendation.service.RatingSummaryBackfill}.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "ratingSummaries")
+public class RatingSummaryEntity {
+
+    @Id
+    private Integer productId;
+
+    private long count;
+
+    private long sum;
+
+    private Map<Integer, Long> histogram = new HashMap<>();
+
+    public RatingSummaryEntity(Integer productId) {
+        this.productId = productId;
+    }
+}
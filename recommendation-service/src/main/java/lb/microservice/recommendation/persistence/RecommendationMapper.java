@@ -1,5 +1,6 @@
 package lb.microservice.recommendation.persistence;
 
+import lb.microservice.api.core.recommendation.RatingSummary;
 import lb.microservice.api.core.recommendation.Recommendation;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -13,4 +14,8 @@ public interface RecommendationMapper {
     @Mapping(target = "version", ignore = true)
     RecommendationEntity apiToEntity(Recommendation api);
 
+    @Mapping(target = "average", expression = "java(entity.getCount() == 0 ? 0 : (double) entity.getSum() / entity.getCount())")
+    @Mapping(target = "serviceAddress", ignore = true)
+    RatingSummary summaryEntityToApi(RatingSummaryEntity entity);
+
 }
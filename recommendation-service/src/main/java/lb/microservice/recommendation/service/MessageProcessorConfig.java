@@ -4,10 +4,12 @@ import lb.microservice.api.core.recommendation.Recommendation;
 import lb.microservice.api.core.recommendation.RecommendationService;
 import lb.microservice.api.event.Event;
 import lb.microservice.api.exceptions.EventProcessingException;
+import lb.microservice.util.messaging.EventConsumerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 
 import java.util.function.Consumer;
 
@@ -23,30 +25,31 @@ public class MessageProcessorConfig {
     }
 
     @Bean
-    public Consumer<Event<Integer, Recommendation>> messageProcessor() {
-        return event -> {
-
-            log.info("Process message created at {}...", event.getEventCreatedAt());
-
-            switch (event.getEventType()) {
-                case CREATE -> {
-                    Recommendation recommendation = event.getData();
-                    log.info("Create recommendation with ID: {}/{}", recommendation.getProductId(), recommendation.getRecommendationId());
-                    recommendationService.createRecommendation(recommendation).block();
-                }
-                case DELETE -> {
-                    int productId = event.getKey();
-                    log.info("Delete recommendations with ProductID: {}", productId);
-                    recommendationService.deleteRecommendations(productId).block();
-                }
-                default -> {
-                    String errorMessage = "Incorrect event type: " + event.getEventType() + ", expected a CREATE or DELETE event";
-                    log.warn(errorMessage);
-                    throw new EventProcessingException(errorMessage);
-                }
+    public Consumer<Message<Event<Integer, Recommendation>>> messageProcessor(EventConsumerFactory consumerFactory) {
+        return consumerFactory.create("messageProcessor-in-0", Recommendation.class, this::processEvent);
+    }
+
+    private void processEvent(Event<Integer, Recommendation> event) {
+        log.info("Process message created at {}...", event.getEventCreatedAt());
+
+        switch (event.getEventType()) {
+            case CREATE -> {
+                Recommendation recommendation = event.getData();
+                log.info("Create recommendation with ID: {}/{}", recommendation.getProductId(), recommendation.getRecommendationId());
+                recommendationService.createRecommendation(recommendation).block();
+            }
+            case DELETE -> {
+                int productId = event.getKey();
+                log.info("Delete recommendations with ProductID: {}", productId);
+                recommendationService.deleteRecommendations(productId).block();
+            }
+            default -> {
+                String errorMessage = "Incorrect event type: " + event.getEventType() + ", expected a CREATE or DELETE event";
+                log.warn(errorMessage);
+                throw new EventProcessingException(errorMessage);
             }
+        }
 
-            log.info("Message processing done!");
-        };
+        log.info("Message processing done!");
     }
 }
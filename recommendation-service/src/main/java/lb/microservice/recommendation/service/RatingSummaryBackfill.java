@@ -0,0 +1,72 @@
+package lb.microservice.recommendation.service;
+
+import lb.microservice.recommendation.persistence.RatingSummaryEntity;
+import lb.microservice.recommendation.persistence.RecommendationEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Counts the recommendations that were created before rating summaries were kept into their products' summaries.
+ * Runs once per database, at startup before this instance consumes events, and records that it ran as
+ * {@code ratingSummaryBackfill} in the {@code migrations} collection. Summaries are replaced by the counted totals,
+ * so creates that another instance counts while the backfill runs can be lost.
+ */
+@Slf4j
+@Component
+public class RatingSummaryBackfill {
+
+    private static final String MARKER = "ratingSummaryBackfill";
+    private static final String MIGRATIONS = "migrations";
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Autowired
+    public RatingSummaryBackfill(ReactiveMongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @PostConstruct
+    public void backfillOnce() {
+        Query marker = Query.query(where("_id").is(MARKER));
+        if (Boolean.TRUE.equals(mongoOperations.exists(marker, MIGRATIONS).block())) {
+            return;
+        }
+        long products = backfill().count().blockOptional().orElse(0L);
+        mongoOperations.save(new Document("_id", MARKER).append("products", products).append("completedAt", new Date()),
+                MIGRATIONS).block();
+        log.info("Backfilled the rating summaries of {} products", products);
+    }
+
+    private Flux<RatingSummaryEntity> backfill() {
+        return mongoOperations.aggregate(newAggregation(RecommendationEntity.class, group("productId", "rating").count().as("count")),
+                        Document.class)
+                .collect(HashMap<Integer, RatingSummaryEntity>::new, RatingSummaryBackfill::add)
+                .flatMapMany(summaries -> Flux.fromIterable(summaries.values()))
+                .flatMap(mongoOperations::save);
+    }
+
+    private static void add(Map<Integer, RatingSummaryEntity> summaries, Document group) {
+        Document id = group.get("_id", Document.class);
+        int productId = id.getInteger("productId");
+        int rating = id.getInteger("rating");
+        long count = ((Number) group.get("count")).longValue();
+        RatingSummaryEntity summary = summaries.computeIfAbsent(productId, RatingSummaryEntity::new);
+        summary.setCount(summary.getCount() + count);
+        summary.setSum(summary.getSum() + rating * count);
+        summary.getHistogram().put(rating, count);
+    }
+}
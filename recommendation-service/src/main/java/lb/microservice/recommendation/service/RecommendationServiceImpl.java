@@ -1,20 +1,28 @@
 package lb.microservice.recommendation.service;
 
+import lb.microservice.api.core.recommendation.RatingSummary;
 import lb.microservice.api.core.recommendation.Recommendation;
 import lb.microservice.api.core.recommendation.RecommendationService;
 import lb.microservice.api.exceptions.InvalidInputException;
+import lb.microservice.recommendation.persistence.RatingSummaryEntity;
 import lb.microservice.recommendation.persistence.RecommendationEntity;
 import lb.microservice.recommendation.persistence.RecommendationMapper;
 import lb.microservice.recommendation.persistence.RecommendationRepository;
 import lb.microservice.util.ServiceUtil;
+import lb.microservice.util.mongo.MongoReadRouter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import static java.util.logging.Level.FINE;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @Slf4j
 @RestController
@@ -25,23 +33,63 @@ public class RecommendationServiceImpl implements RecommendationService {
 
     private final RecommendationMapper mapper;
 
+    private final MongoReadRouter readRouter;
+
+    private final ReactiveMongoOperations mongoOperations;
+
     @Autowired
-    public RecommendationServiceImpl(ServiceUtil serviceUtil, RecommendationRepository repository, RecommendationMapper mapper) {
+    public RecommendationServiceImpl(ServiceUtil serviceUtil, RecommendationRepository repository, RecommendationMapper mapper,
+                                     MongoReadRouter readRouter, ReactiveMongoOperations mongoOperations) {
         this.serviceUtil = serviceUtil;
         this.repository = repository;
         this.mapper = mapper;
+        this.readRouter = readRouter;
+        this.mongoOperations = mongoOperations;
     }
 
     @Override
     public Flux<Recommendation> getRecommendations(int productId) {
         checkProductId(productId);
         log.info("Will get recommendations for product with id={}", productId);
-        return repository.findByProductId(productId)
+        return readRouter.find(Query.query(where("productId").is(productId)), RecommendationEntity.class)
+                .log(log.getName(), FINE)
+                .map(mapper::entityToApi)
+                .map(this::setServiceAddress);
+    }
+
+    /**
+     * Sorted and limited by Mongo on the prod-rating index, so only the returned documents are read.
+     */
+    @Override
+    public Flux<Recommendation> getTopRecommendations(int productId, int limit) {
+        checkProductId(productId);
+        if (limit < 1) {
+            throw new InvalidInputException("Invalid limit: " + limit);
+        }
+        log.info("Will get the top {} recommendations for product with id={}", limit, productId);
+        Query query = Query.query(where("productId").is(productId))
+                .with(Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("recommendationId")))
+                .limit(limit);
+        return readRouter.find(query, RecommendationEntity.class)
                 .log(log.getName(), FINE)
                 .map(mapper::entityToApi)
                 .map(this::setServiceAddress);
     }
 
+    @Override
+    public Mono<RatingSummary> getRatingSummary(int productId) {
+        checkProductId(productId);
+        log.debug("getRatingSummary: will get the rating summary for product with id={}", productId);
+        return readRouter.findOne(summaryQuery(productId), RatingSummaryEntity.class)
+                .defaultIfEmpty(new RatingSummaryEntity(productId))
+                .log(log.getName(), FINE)
+                .map(mapper::summaryEntityToApi)
+                .map(summary -> {
+                    summary.setServiceAddress(serviceUtil.getServiceAddress());
+                    return summary;
+                });
+    }
+
     @Override
     public Mono<Recommendation> createRecommendation(Recommendation recommendation) {
         checkProductId(recommendation.getProductId());
@@ -52,6 +100,7 @@ public class RecommendationServiceImpl implements RecommendationService {
                 .onErrorMap(
                         DuplicateKeyException.class,
                         ex -> new InvalidInputException("Duplicate key, Product Id: " + recommendation.getProductId() + ", Recommendation Id:" + recommendation.getRecommendationId()))
+                .flatMap(saved -> addToSummary(saved).thenReturn(saved))
                 .map(mapper::entityToApi);
 
     }
@@ -61,7 +110,26 @@ public class RecommendationServiceImpl implements RecommendationService {
         checkProductId(productId);
 
         log.debug("deleteRecommendations: tries to delete recommendations for the product with productId: {}", productId);
-        return repository.deleteAll(repository.findByProductId(productId));
+        return repository.deleteAll(repository.findByProductId(productId))
+                .then(mongoOperations.remove(summaryQuery(productId), RatingSummaryEntity.class))
+                .then();
+    }
+
+    /**
+     * A single upserted $inc, so concurrent creates for the same product never lose an update and the first one
+     * creates the summary. It is applied after the recommendation is saved, not in a transaction with it: if it fails,
+     * the error is passed on and the recommendation stays uncounted.
+     */
+    private Mono<Void> addToSummary(RecommendationEntity entity) {
+        Update update = new Update()
+                .inc("count", 1)
+                .inc("sum", entity.getRating())
+                .inc("histogram." + entity.getRating(), 1);
+        return mongoOperations.upsert(summaryQuery(entity.getProductId()), update, RatingSummaryEntity.class).then();
+    }
+
+    private Query summaryQuery(int productId) {
+        return Query.query(where("productId").is(productId));
     }
 
     private void checkProductId(int productId) {
@@ -3,15 +3,27 @@ package lb.microservice.recommendation;
 import lb.microservice.api.core.recommendation.Recommendation;
 import lb.microservice.api.event.Event;
 import lb.microservice.api.exceptions.InvalidInputException;
+import lb.microservice.recommendation.persistence.RatingSummaryEntity;
+import lb.microservice.recommendation.persistence.RecommendationEntity;
 import lb.microservice.recommendation.persistence.RecommendationRepository;
+import lb.microservice.recommendation.service.RatingSummaryBackfill;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
 import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static lb.microservice.api.event.Event.Type.CREATE;
@@ -30,13 +42,20 @@ class RecommendationServiceApplicationTests extends AbstractMongoDbTestBase {
     @Autowired
     private RecommendationRepository repository;
 
+    @Autowired
+    private ReactiveMongoOperations mongoOperations;
+
+    @Autowired
+    private RatingSummaryBackfill backfill;
+
     @Autowired
     @Qualifier("messageProcessor")
-    private Consumer<Event<Integer, Recommendation>> messageProcessor;
+    private Consumer<Message<Event<Integer, Recommendation>>> messageProcessor;
 
     @BeforeEach
     void setupDb() {
         repository.deleteAll().block();
+        mongoOperations.dropCollection(RatingSummaryEntity.class).block();
     }
 
     @Test
@@ -86,6 +105,115 @@ class RecommendationServiceApplicationTests extends AbstractMongoDbTestBase {
         sendDeleteRecommendationEvent(productId);
 	}
 
+    @Test
+    void getTopRecommendations() {
+
+        int productId = 1;
+
+        sendCreateRecommendationEvent(productId, 1);
+        sendCreateRecommendationEvent(productId, 3);
+        sendCreateRecommendationEvent(productId, 2);
+
+        client.get()
+                .uri("/recommendation/top?productId=" + productId + "&limit=2")
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].rating").isEqualTo(3)
+                .jsonPath("$[1].rating").isEqualTo(2);
+
+        client.get()
+                .uri("/recommendation/top?productId=" + productId + "&limit=0")
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(UNPROCESSABLE_ENTITY)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid limit: 0");
+    }
+
+    @Test
+    void ratingSummaryFollowsCreatesAndDeletes() {
+
+        int productId = 1;
+
+        sendCreateRecommendationEvent(productId, 1);
+        sendCreateRecommendationEvent(productId, 2);
+        sendCreateRecommendationEvent(productId, 3);
+        assertThrows(InvalidInputException.class, () -> sendCreateRecommendationEvent(productId, 3));
+
+        getAndVerifyRatingSummary(productId, HttpStatus.OK)
+                .jsonPath("$.productId").isEqualTo(productId)
+                .jsonPath("$.count").isEqualTo(3)
+                .jsonPath("$.sum").isEqualTo(6)
+                .jsonPath("$.average").isEqualTo(2.0)
+                .jsonPath("$.histogram.3").isEqualTo(1);
+
+        sendDeleteRecommendationEvent(productId);
+
+        getAndVerifyRatingSummary(productId, HttpStatus.OK)
+                .jsonPath("$.count").isEqualTo(0)
+                .jsonPath("$.average").isEqualTo(0.0);
+    }
+
+    @Test
+    void ratingSummaryIsBackfilledFromExistingRecommendations() {
+
+        int productId = 1;
+
+        repository.save(new RecommendationEntity(productId, 1, "Author 1", 4, "Content 1")).block();
+        repository.save(new RecommendationEntity(productId, 2, "Author 2", 5, "Content 2")).block();
+        getAndVerifyRatingSummary(productId, HttpStatus.OK)
+                .jsonPath("$.count").isEqualTo(0);
+
+        mongoOperations.dropCollection("migrations").block();
+        backfill.backfillOnce();
+
+        getAndVerifyRatingSummary(productId, HttpStatus.OK)
+                .jsonPath("$.count").isEqualTo(2)
+                .jsonPath("$.sum").isEqualTo(9)
+                .jsonPath("$.histogram.5").isEqualTo(1);
+
+        sendCreateRecommendationEvent(productId, 3);
+        repository.save(new RecommendationEntity(productId, 4, "Author 4", 4, "Content 4")).block();
+        backfill.backfillOnce();
+
+        getAndVerifyRatingSummary(productId, HttpStatus.OK)
+                .jsonPath("$.count").isEqualTo(3)
+                .jsonPath("$.sum").isEqualTo(12)
+                .jsonPath("$.histogram.3").isEqualTo(1);
+    }
+
+    @Test
+    void ratingSummaryCountsConcurrentCreates() throws Exception {
+
+        int productId = 1;
+        int creates = 20;
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int recommendationId = 1; recommendationId <= creates; recommendationId++) {
+                int id = recommendationId;
+                results.add(executor.submit(() -> sendCreateRecommendationEvent(productId, id)));
+                // the first reads race the first creates, before and while the summary is created
+                if (recommendationId <= 3) {
+                    results.add(executor.submit(() -> getAndVerifyRatingSummary(productId, HttpStatus.OK)));
+                }
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        getAndVerifyRatingSummary(productId, HttpStatus.OK)
+                .jsonPath("$.count").isEqualTo(creates)
+                .jsonPath("$.sum").isEqualTo(creates * (creates + 1) / 2);
+    }
+
     @Test
     void getRecommendationsInvalidParameter() {
 
@@ -127,15 +255,25 @@ class RecommendationServiceApplicationTests extends AbstractMongoDbTestBase {
                 .expectBody();
     }
 
+    private WebTestClient.BodyContentSpec getAndVerifyRatingSummary(int productId, HttpStatus expectedStatus) {
+        return client.get()
+                .uri("/recommendation/summary?productId=" + productId)
+                .accept(APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(expectedStatus)
+                .expectHeader().contentType(APPLICATION_JSON)
+                .expectBody();
+    }
+
     private void sendCreateRecommendationEvent(int productId, int recommendationId) {
         Recommendation recommendation = new Recommendation(productId, recommendationId, "Author " + recommendationId, recommendationId, "Content " + recommendationId, "SA");
         Event<Integer, Recommendation> event = new Event<>(CREATE, productId, recommendation);
-        messageProcessor.accept(event);
+        messageProcessor.accept(MessageBuilder.withPayload(event).build());
     }
 
     private void sendDeleteRecommendationEvent(int productId) {
         Event<Integer, Recommendation> event = new Event<>(DELETE, productId, null);
-        messageProcessor.accept(event);
+        messageProcessor.accept(MessageBuilder.withPayload(event).build());
     }
 
 }
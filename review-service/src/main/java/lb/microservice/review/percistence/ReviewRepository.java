@@ -1,5 +1,7 @@
 package lb.microservice.review.percistence;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,4 +12,7 @@ public interface ReviewRepository extends CrudRepository<ReviewEntity, Integer>
     @Transactional(readOnly = true)
     List<ReviewEntity> findByProductId(int productId);
 
+    @Transactional(readOnly = true)
+    Slice<ReviewEntity> findAllBy(Pageable pageable);
+
 }
@@ -0,0 +1,271 @@
+package lb.microservice.review.search;
+
+import lb.microservice.api.core.review.Review;
+import lb.microservice.api.core.review.ReviewSearchResult;
+import lb.microservice.api.exceptions.InvalidInputException;
+import lb.microservice.review.percistence.ReviewEntity;
+import lb.microservice.review.percistence.ReviewRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory inverted index over review subjects and contents, so searching the reviews of a product
+ * does not scan the reviews table.
+ * Writes come from the same create and delete paths as the database, and from every review event on every instance,
+ * so an instance also indexes the reviews of partitions it does not consume. They become searchable after the next
+ * near-real-time refresh. The index is rebuilt from the database on startup, and again
+ * {@code app.reviewSearch.rebuildDelay} ms after a write to it failed.
+ */
+@Slf4j
+@Component
+public class ReviewSearchIndex {
+
+    private static final String KEY = "key";
+    private static final String PRODUCT_ID = "productId";
+    private static final String REVIEW_ID = "reviewId";
+    private static final String AUTHOR = "author";
+    private static final String SUBJECT = "subject";
+    private static final String CONTENT = "content";
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(SUBJECT, 2f, CONTENT, 1f);
+
+    private final ReviewRepository repository;
+    private final int rebuildBatchSize;
+    private final int maxPageSize;
+    private final int maxResultWindow;
+    private final long rebuildDelay;
+    private final Directory directory = new ByteBuffersDirectory();
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ScheduledExecutorService refresher;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    @Autowired
+    public ReviewSearchIndex(ReviewRepository repository,
+                             @Value("${app.reviewSearch.refreshInterval:1000}") long refreshInterval,
+                             @Value("${app.reviewSearch.rebuildBatchSize:500}") int rebuildBatchSize,
+                             @Value("${app.reviewSearch.maxPageSize:100}") int maxPageSize,
+                             @Value("${app.reviewSearch.maxResultWindow:10000}") int maxResultWindow,
+                             @Value("${app.reviewSearch.rebuildDelay:5000}") long rebuildDelay) throws IOException {
+        this.repository = repository;
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.maxPageSize = maxPageSize;
+        this.maxResultWindow = maxResultWindow;
+        this.rebuildDelay = rebuildDelay;
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "review-search-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::maybeRefresh, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replaces the index content with the reviews currently stored in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            writer.deleteAll();
+            long count = 0;
+            Slice<ReviewEntity> batch = repository.findAllBy(PageRequest.of(0, rebuildBatchSize));
+            while (true) {
+                for (ReviewEntity review : batch) {
+                    writer.updateDocument(keyTerm(review.getProductId(), review.getReviewId()), toDocument(review));
+                    count++;
+                }
+                if (!batch.hasNext()) {
+                    break;
+                }
+                batch = repository.findAllBy(batch.nextPageable());
+            }
+            writer.commit();
+            refresh();
+            log.info("Rebuilt the review search index with {} reviews in {} ms", count, System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rebuild the review search index", e);
+        }
+    }
+
+    public void index(ReviewEntity review) {
+        try {
+            writer.updateDocument(keyTerm(review.getProductId(), review.getReviewId()), toDocument(review));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to index review {}/{}, rebuilding the index: {}", review.getProductId(), review.getReviewId(), e.toString());
+            scheduleRebuild();
+        }
+    }
+
+    public void deleteProduct(int productId) {
+        try {
+            writer.deleteDocuments(IntPoint.newExactQuery(PRODUCT_ID, productId));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to remove the reviews of product {} from the search index, rebuilding the index: {}",
+                    productId, e.toString());
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Makes every change so far visible to searches, without waiting for the scheduled refresh.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ranks the reviews of a product by relevance to the query, subject matches count twice as much as content matches.
+     * A page is collected with every page before it, so pages reach at most {@code maxResultWindow} results deep.
+     */
+    public ReviewSearchResult search(int productId, String queryText, int page, int size) {
+        if (queryText == null || queryText.isBlank()) {
+            throw new InvalidInputException("Search query must not be empty");
+        }
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new InvalidInputException("Invalid page: " + page + ", size: " + size + ", max size is " + maxPageSize);
+        }
+        if (((long) page + 1) * size > maxResultWindow) {
+            throw new InvalidInputException("Invalid page: " + page + ", size: " + size + ", results end at " + maxResultWindow);
+        }
+        Query query = new BooleanQuery.Builder()
+                .add(IntPoint.newExactQuery(PRODUCT_ID, productId), BooleanClause.Occur.FILTER)
+                .add(parse(queryText), BooleanClause.Occur.MUST)
+                .build();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopScoreDocCollector collector = TopScoreDocCollector.create((page + 1) * size, Integer.MAX_VALUE);
+                searcher.search(query, collector);
+                TopDocs topDocs = collector.topDocs(page * size, size);
+                List<Review> reviews = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    reviews.add(toReview(searcher.doc(scoreDoc.doc)));
+                }
+                return new ReviewSearchResult(productId, queryText, topDocs.totalHits.value, page, size, reviews);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        refresher.shutdownNow();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Rebuilds the index on the refresher thread after {@code rebuildDelay} ms; failures in the meantime share the rebuild.
+     * A rebuild that fails is scheduled again.
+     */
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.schedule(() -> {
+            rebuildScheduled.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild the review search index: {}", e.toString());
+                scheduleRebuild();
+            }
+        }, rebuildDelay, TimeUnit.MILLISECONDS);
+    }
+
+    private void maybeRefresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to refresh the review search index: {}", e.toString());
+        }
+    }
+
+    private Query parse(String queryText) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(new String[]{SUBJECT, CONTENT}, analyzer, FIELD_BOOSTS);
+        try {
+            return parser.parse(queryText);
+        } catch (ParseException e) {
+            throw new InvalidInputException("Invalid search query: " + queryText);
+        }
+    }
+
+    private static Term keyTerm(int productId, int reviewId) {
+        return new Term(KEY, productId + ":" + reviewId);
+    }
+
+    private static Document toDocument(ReviewEntity review) {
+        Document document = new Document();
+        document.add(new StringField(KEY, review.getProductId() + ":" + review.getReviewId(), Field.Store.NO));
+        document.add(new IntPoint(PRODUCT_ID, review.getProductId()));
+        document.add(new StoredField(PRODUCT_ID, review.getProductId()));
+        document.add(new StoredField(REVIEW_ID, review.getReviewId()));
+        if (review.getAuthor() != null) {
+            document.add(new StoredField(AUTHOR, review.getAuthor()));
+        }
+        if (review.getSubject() != null) {
+            document.add(new TextField(SUBJECT, review.getSubject(), Field.Store.YES));
+        }
+        if (review.getContent() != null) {
+            document.add(new TextField(CONTENT, review.getContent(), Field.Store.YES));
+        }
+        return document;
+    }
+
+    private static Review toReview(Document document) {
+        return new Review(document.getField(PRODUCT_ID).numericValue().intValue(),
+                document.getField(REVIEW_ID).numericValue().intValue(),
+                document.get(AUTHOR), document.get(SUBJECT), document.get(CONTENT), null);
+    }
+}
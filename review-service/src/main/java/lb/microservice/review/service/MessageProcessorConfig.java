@@ -4,10 +4,14 @@ import lb.microservice.api.core.review.Review;
 import lb.microservice.api.core.review.ReviewService;
 import lb.microservice.api.event.Event;
 import lb.microservice.api.exceptions.EventProcessingException;
+import lb.microservice.review.percistence.ReviewMapper;
+import lb.microservice.review.search.ReviewSearchIndex;
+import lb.microservice.util.messaging.EventConsumerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 
 import java.util.function.Consumer;
 
@@ -23,29 +27,46 @@ public class MessageProcessorConfig {
     }
 
     @Bean
-    public Consumer<Event<Integer, Review>> messageProcessor() {
-        return event -> {
-            log.info("Process message created at {}...", event.getEventCreatedAt());
+    public Consumer<Message<Event<Integer, Review>>> messageProcessor(EventConsumerFactory consumerFactory) {
+        return consumerFactory.create("messageProcessor-in-0", Review.class, this::processEvent);
+    }
 
+    /**
+     * Sees every review event, on every instance, so the instance's {@link ReviewSearchIndex} covers the reviews
+     * of every partition, not only those the instance processes.
+     */
+    @Bean
+    public Consumer<Event<Integer, Review>> reviewSearchIndexer(ReviewSearchIndex searchIndex, ReviewMapper mapper) {
+        return event -> {
             switch (event.getEventType()) {
-                case CREATE -> {
-                    Review review = event.getData();
-                    log.info("Create review with ID: {}/{}", review.getProductId(), review.getReviewId());
-                    reviewService.createReview(review).block();
-                }
-                case DELETE -> {
-                    int productId = event.getKey();
-                    log.info("Delete reviews with ProductID: {}", productId);
-                    reviewService.deleteReviews(productId).block();
-                }
-                default -> {
-                    String errorMessage = "Incorrect event type: " + event.getEventType() + ", expected a CREATE or DELETE event";
-                    log.warn(errorMessage);
-                    throw new EventProcessingException(errorMessage);
-                }
+                case CREATE -> searchIndex.index(mapper.apiToEntity(event.getData()));
+                case DELETE -> searchIndex.deleteProduct(event.getKey());
+                default -> log.debug("Skip {} event for the search index", event.getEventType());
             }
-
-            log.info("Message processing done!");
         };
     }
+
+    private void processEvent(Event<Integer, Review> event) {
+        log.info("Process message created at {}...", event.getEventCreatedAt());
+
+        switch (event.getEventType()) {
+            case CREATE -> {
+                Review review = event.getData();
+                log.info("Create review with ID: {}/{}", review.getProductId(), review.getReviewId());
+                reviewService.createReview(review).block();
+            }
+            case DELETE -> {
+                int productId = event.getKey();
+                log.info("Delete reviews with ProductID: {}", productId);
+                reviewService.deleteReviews(productId).block();
+            }
+            default -> {
+                String errorMessage = "Incorrect event type: " + event.getEventType() + ", expected a CREATE or DELETE event";
+                log.warn(errorMessage);
+                throw new EventProcessingException(errorMessage);
+            }
+        }
+
+        log.info("Message processing done!");
+    }
 }
@@ -1,11 +1,13 @@
 package lb.microservice.review.service;
 
 import lb.microservice.api.core.review.Review;
+import lb.microservice.api.core.review.ReviewSearchResult;
 import lb.microservice.api.core.review.ReviewService;
 import lb.microservice.api.exceptions.InvalidInputException;
 import lb.microservice.review.percistence.ReviewEntity;
 import lb.microservice.review.percistence.ReviewMapper;
 import lb.microservice.review.percistence.ReviewRepository;
+import lb.microservice.review.search.ReviewSearchIndex;
 import lb.microservice.util.ServiceUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,13 +29,16 @@ public class ReviewServiceImpl implements ReviewService {
     private final ServiceUtil serviceUtil;
     private final ReviewMapper mapper;
     private final ReviewRepository repository;
+    private final ReviewSearchIndex searchIndex;
 
     @Autowired
-    public ReviewServiceImpl(@Qualifier("jdbcScheduler") Scheduler jdbcScheduler, ServiceUtil serviceUtil, ReviewMapper mapper, ReviewRepository repository) {
+    public ReviewServiceImpl(@Qualifier("jdbcScheduler") Scheduler jdbcScheduler, ServiceUtil serviceUtil, ReviewMapper mapper, ReviewRepository repository,
+                             ReviewSearchIndex searchIndex) {
         this.serviceUtil = serviceUtil;
         this.mapper = mapper;
         this.repository = repository;
         this.jdbcScheduler = jdbcScheduler;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -58,6 +63,20 @@ public class ReviewServiceImpl implements ReviewService {
         return reviews;
     }
 
+    @Override
+    public Mono<ReviewSearchResult> searchReviews(int productId, String query, int page, int size) {
+        if (productId < 1) {
+            throw new InvalidInputException("Invalid productId: " + productId);
+        }
+        return Mono.fromCallable(() -> {
+                    ReviewSearchResult result = searchIndex.search(productId, query, page, size);
+                    result.getReviews().forEach(r -> r.setServiceAddress(serviceUtil.getServiceAddress()));
+                    log.debug("searchReviews: {} hits for '{}'", result.getTotalHits(), query);
+                    return result;
+                })
+                .log(log.getName(), Level.FINE);
+    }
+
     @Override
     public Mono<Review> createReview(Review review) {
         return Mono.fromCallable(() -> createReviewInternal(review))
@@ -69,6 +88,7 @@ public class ReviewServiceImpl implements ReviewService {
         ReviewEntity entity = mapper.apiToEntity(review);
         try {
             ReviewEntity newEntity = repository.save(entity);
+            searchIndex.index(newEntity);
             log.debug("createReview: created a review entity: {}/{}", review.getProductId(), review.getReviewId());
             Review createdReview = mapper.entityToApi(newEntity);
             createdReview.setServiceAddress(serviceUtil.getServiceAddress());
@@ -81,7 +101,10 @@ public class ReviewServiceImpl implements ReviewService {
     @Override
     public Mono<Void> deleteReviews(int productId) {
         log.debug("deleteReviews: tries to delete reviews for the product with productId: {}", productId);
-        return Mono.fromRunnable(() -> repository.deleteAll(repository.findByProductId(productId)))
+        return Mono.fromRunnable(() -> {
+                    repository.deleteAll(repository.findByProductId(productId));
+                    searchIndex.deleteProduct(productId);
+                })
                 .log(log.getName(), Level.FINE)
                 .subscribeOn(jdbcScheduler)
                 .then();
@@ -3,13 +3,17 @@ package lb.microservice.review;
 import lb.microservice.api.core.review.Review;
 import lb.microservice.api.event.Event;
 import lb.microservice.api.exceptions.InvalidInputException;
+import lb.microservice.review.percistence.ReviewEntity;
 import lb.microservice.review.percistence.ReviewRepository;
+import lb.microservice.review.search.ReviewSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.util.function.Consumer;
@@ -30,13 +34,21 @@ class ReviewServiceApplicationTests extends AbstractMySqlTestBase {
 	@Autowired
 	private ReviewRepository repository;
 
+	@Autowired
+	private ReviewSearchIndex searchIndex;
+
 	@Autowired
 	@Qualifier("messageProcessor")
-	private Consumer<Event<Integer, Review>> messageProcessor;
+	private Consumer<Message<Event<Integer, Review>>> messageProcessor;
+
+	@Autowired
+	@Qualifier("reviewSearchIndexer")
+	private Consumer<Event<Integer, Review>> reviewSearchIndexer;
 
 	@BeforeEach
 	void setupDb() {
 		repository.deleteAll();
+		searchIndex.rebuild();
 	}
 
 	@Test
@@ -90,6 +102,86 @@ class ReviewServiceApplicationTests extends AbstractMySqlTestBase {
 		sendDeleteReviewEvent(productId);
 	}
 
+	@Test
+	void searchReviews() {
+
+		int productId = 1;
+
+		sendCreateReviewEvent(productId, 1, "Fast delivery", "Good battery, arrived quickly");
+		sendCreateReviewEvent(productId, 2, "Battery drains", "The battery lasts less than a day");
+		sendCreateReviewEvent(productId, 3, "Nice color", "Looks great");
+		sendCreateReviewEvent(productId + 1, 1, "Battery", "Another product");
+		searchIndex.refresh();
+
+		getAndVerifySearch(productId, "battery", 0, 10, OK)
+				.jsonPath("$.totalHits").isEqualTo(2)
+				.jsonPath("$.reviews[0].reviewId").isEqualTo(2)
+				.jsonPath("$.reviews[1].reviewId").isEqualTo(1);
+
+		getAndVerifySearch(productId, "battery", 1, 1, OK)
+				.jsonPath("$.totalHits").isEqualTo(2)
+				.jsonPath("$.reviews.length()").isEqualTo(1)
+				.jsonPath("$.reviews[0].reviewId").isEqualTo(1);
+
+		sendDeleteReviewEvent(productId);
+		searchIndex.refresh();
+
+		getAndVerifySearch(productId, "battery", 0, 10, OK)
+				.jsonPath("$.totalHits").isEqualTo(0);
+	}
+
+	@Test
+	void searchIndexSeesEventsProcessedByOtherInstances() {
+
+		int productId = 1;
+
+		Review review = new Review(productId, 1, "Author 1", "Fast delivery", "Arrived quickly", "SA");
+		reviewSearchIndexer.accept(new Event<>(CREATE, productId, review));
+		searchIndex.refresh();
+
+		getAndVerifySearch(productId, "delivery", 0, 10, OK)
+				.jsonPath("$.totalHits").isEqualTo(1)
+				.jsonPath("$.reviews[0].author").isEqualTo("Author 1");
+
+		reviewSearchIndexer.accept(new Event<>(DELETE, productId, null));
+		searchIndex.refresh();
+
+		getAndVerifySearch(productId, "delivery", 0, 10, OK)
+				.jsonPath("$.totalHits").isEqualTo(0);
+	}
+
+	@Test
+	void searchReviewsIsRebuiltFromDatabase() {
+
+		int productId = 1;
+
+		repository.save(new ReviewEntity(productId, 1, "Author 1", "Fast delivery", "Arrived quickly"));
+		searchIndex.refresh();
+		getAndVerifySearch(productId, "delivery", 0, 10, OK)
+				.jsonPath("$.totalHits").isEqualTo(0);
+
+		searchIndex.rebuild();
+
+		getAndVerifySearch(productId, "delivery", 0, 10, OK)
+				.jsonPath("$.totalHits").isEqualTo(1);
+	}
+
+	@Test
+	void searchReviewsInvalidPageSize() {
+
+		getAndVerifySearch(1, "battery", 0, 1000, UNPROCESSABLE_ENTITY)
+				.jsonPath("$.message").isEqualTo("Invalid page: 0, size: 1000, max size is 100");
+	}
+
+	@Test
+	void searchReviewsInvalidDeepPage() {
+
+		getAndVerifySearch(1, "battery", 100, 100, UNPROCESSABLE_ENTITY)
+				.jsonPath("$.message").isEqualTo("Invalid page: 100, size: 100, results end at 10000");
+		getAndVerifySearch(1, "battery", Integer.MAX_VALUE, 100, UNPROCESSABLE_ENTITY)
+				.jsonPath("$.message").isEqualTo("Invalid page: " + Integer.MAX_VALUE + ", size: 100, results end at 10000");
+	}
+
 	@Test
 	void getReviewsMissingParameter() {
 
@@ -137,15 +229,31 @@ class ReviewServiceApplicationTests extends AbstractMySqlTestBase {
 				.expectBody();
 	}
 
+	private WebTestClient.BodyContentSpec getAndVerifySearch(int productId, String query, int page, int size, HttpStatus expectedStatus) {
+		return client.get()
+				.uri("/review/search?productId={productId}&query={query}&page={page}&size={size}", productId, query, page, size)
+				.accept(APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isEqualTo(expectedStatus)
+				.expectHeader().contentType(APPLICATION_JSON)
+				.expectBody();
+	}
+
+	private void sendCreateReviewEvent(int productId, int reviewId, String subject, String content) {
+		Review review = new Review(productId, reviewId, "Author " + reviewId, subject, content, "SA");
+		Event<Integer, Review> event = new Event<>(CREATE, productId, review);
+		messageProcessor.accept(MessageBuilder.withPayload(event).build());
+	}
+
 	private void sendCreateReviewEvent(int productId, int reviewId) {
 		Review review = new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId, "SA");
 		Event<Integer, Review> event = new Event<>(CREATE, productId, review);
-		messageProcessor.accept(event);
+		messageProcessor.accept(MessageBuilder.withPayload(event).build());
 	}
 
 	private void sendDeleteReviewEvent(int productId) {
 		Event<Integer, Review> event = new Event<>(DELETE, productId, null);
-		messageProcessor.accept(event);
+		messageProcessor.accept(MessageBuilder.withPayload(event).build());
 	}
 
 }
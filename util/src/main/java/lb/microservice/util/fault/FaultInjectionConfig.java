@@ -0,0 +1,17 @@
+package lb.microservice.util.fault;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.fault-injection", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(FaultInjectionProperties.class)
+public class FaultInjectionConfig {
+
+    @Bean
+    public FaultInjectionFilter faultInjectionFilter(FaultInjectionProperties properties) {
+        return new FaultInjectionFilter(properties);
+    }
+}
@@ -0,0 +1,101 @@
+package lb.microservice.util.fault;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delays and fails requests of the configured routes. Random draws use {@link ThreadLocalRandom},
+ * so event loop threads don't contend on a shared generator. Request overrides that are not numbers are rejected
+ * with 400, a {@code faultPercent} outside 0..100 or a {@code delay} outside 0..3600 seconds with 422.
+ */
+@Slf4j
+public class FaultInjectionFilter implements WebFilter, Ordered {
+
+    private static final long MAX_DELAY_SECONDS = 3600;
+
+    private final List<RouteMatcher> routes;
+
+    public FaultInjectionFilter(FaultInjectionProperties properties) {
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new RouteMatcher(PathPatternParser.defaultInstance.parse(route.getPath()), route))
+                .toList();
+        routes.forEach(r -> log.warn("Fault injection on {}: delay {} ms + up to {} ms, {}% faults, request override {}",
+                r.pattern(), r.route().getDelayMs(), r.route().getDelayJitterMs(), r.route().getFaultPercent(),
+                r.route().isRequestOverride()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (RouteMatcher matcher : routes) {
+            if (matcher.pattern().matches(path)) {
+                return disturb(matcher.route(), exchange, chain);
+            }
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    private Mono<Void> disturb(FaultInjectionProperties.Route route, ServerWebExchange exchange, WebFilterChain chain) {
+        long delayMs = route.getDelayMs();
+        int faultPercent = route.getFaultPercent();
+        if (route.isRequestOverride()) {
+            MultiValueMap<String, String> params = exchange.getRequest().getQueryParams();
+            try {
+                if (params.containsKey("delay")) {
+                    delayMs = TimeUnit.SECONDS.toMillis(parameter(params, "delay", 0, MAX_DELAY_SECONDS));
+                }
+                if (params.containsKey("faultPercent")) {
+                    faultPercent = (int) parameter(params, "faultPercent", 0, 100);
+                }
+            } catch (ResponseStatusException e) {
+                return Mono.error(e);
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (route.getDelayJitterMs() > 0) {
+            delayMs += random.nextLong(route.getDelayJitterMs() + 1);
+        }
+        boolean fail = faultPercent > 0 && random.nextInt(100) < faultPercent;
+        log.debug("Fault injection for {}: delay {} ms, fail {}", exchange.getRequest().getPath(), delayMs, fail);
+
+        Mono<Void> result = fail ? Mono.error(new RuntimeException("Something went wrong...")) : chain.filter(exchange);
+        return delayMs > 0 ? Mono.delay(Duration.ofMillis(delayMs)).then(result) : result;
+    }
+
+    private static long parameter(MultiValueMap<String, String> params, String name, long min, long max) {
+        long value;
+        try {
+            value = Long.parseLong(params.getFirst(name));
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Invalid " + name + ": " + params.getFirst(name));
+        }
+        if (value < min || value > max) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    name + " must be between " + min + " and " + max + ": " + value);
+        }
+        return value;
+    }
+
+    private record RouteMatcher(PathPattern pattern, FaultInjectionProperties.Route route) {}
+}
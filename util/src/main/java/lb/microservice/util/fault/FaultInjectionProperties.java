@@ -0,0 +1,50 @@
+package lb.microservice.util.fault;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fault and latency injection per route, under {@code app.fault-injection}.
+ * Nothing is installed unless {@code enabled} is true, so production requests pay nothing for it.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.fault-injection")
+public class FaultInjectionProperties {
+
+    private boolean enabled;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+
+        /**
+         * Path pattern of the requests to disturb, e.g. {@code /product/**}.
+         */
+        private String path;
+
+        /**
+         * Fixed delay before the request is handled.
+         */
+        private long delayMs;
+
+        /**
+         * Upper bound of a random delay added to {@code delayMs}.
+         */
+        private long delayJitterMs;
+
+        /**
+         * Share of requests, 0-100, that fail with a server error.
+         */
+        private int faultPercent;
+
+        /**
+         * Lets a request override {@code delayMs} and {@code faultPercent} with {@code delay} (seconds)
+         * and {@code faultPercent} query parameters.
+         */
+        private boolean requestOverride;
+    }
+}
@@ -0,0 +1,133 @@
+package lb.microservice.util.health;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.CompositeReactiveHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.NamedContributor;
+import org.springframework.boot.actuate.health.ReactiveHealthContributor;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Polls the health of downstream services in the background, every {@code interval} once the application is ready,
+ * and answers health probes from the last result, so probes cost no remote calls however often they come.
+ * Each status carries the time it was checked and its age. A result older than {@code staleAfter},
+ * e.g. because polling is stuck, is reported as UNKNOWN instead.
+ */
+@Slf4j
+public class CachedHealthContributor implements CompositeReactiveHealthContributor, AutoCloseable {
+
+    private final Map<String, CachedIndicator> indicators = new LinkedHashMap<>();
+    private final Duration interval;
+    private final Duration staleAfter;
+    private final Clock clock;
+    private Disposable polling;
+
+    public CachedHealthContributor(Map<String, Supplier<Mono<Health>>> checks, Duration interval, Duration staleAfter) {
+        this(checks, interval, staleAfter, Clock.systemUTC());
+    }
+
+    public CachedHealthContributor(Map<String, Supplier<Mono<Health>>> checks, Duration interval, Duration staleAfter, Clock clock) {
+        this.interval = interval;
+        this.staleAfter = staleAfter;
+        this.clock = clock;
+        checks.forEach((name, check) -> indicators.put(name, new CachedIndicator(check)));
+    }
+
+    /**
+     * Starts polling once the application is ready, so the first checks do not race its startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (polling == null) {
+            polling = Flux.interval(Duration.ZERO, interval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> pollNow())
+                    .subscribe();
+            log.info("Polling health of {} every {}, stale after {}", indicators.keySet(), interval, staleAfter);
+        }
+    }
+
+    /**
+     * Checks every service once.
+     */
+    Mono<Void> pollNow() {
+        return Flux.fromIterable(indicators.entrySet())
+                .flatMap(entry -> entry.getValue().poll(entry.getKey(), interval))
+                .then();
+    }
+
+    @Override
+    public ReactiveHealthContributor getContributor(String name) {
+        return indicators.get(name);
+    }
+
+    @Override
+    public Iterator<NamedContributor<ReactiveHealthContributor>> iterator() {
+        return indicators.entrySet().stream()
+                .map(entry -> NamedContributor.<ReactiveHealthContributor>of(entry.getKey(), entry.getValue()))
+                .iterator();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (polling != null) {
+            polling.dispose();
+        }
+    }
+
+    private record Result(Health health, Instant checkedAt) {
+    }
+
+    private class CachedIndicator implements ReactiveHealthIndicator {
+
+        private final Supplier<Mono<Health>> check;
+        private volatile Result last;
+
+        CachedIndicator(Supplier<Mono<Health>> check) {
+            this.check = check;
+        }
+
+        Mono<Void> poll(String name, Duration timeout) {
+            return Mono.defer(check)
+                    .timeout(timeout)
+                    .onErrorResume(e -> Mono.just(Health.down().withException(e).build()))
+                    .doOnNext(health -> {
+                        Result previous = last;
+                        if (previous != null && !previous.health().getStatus().equals(health.getStatus())) {
+                            log.info("Health of {} changed from {} to {}", name, previous.health().getStatus(), health.getStatus());
+                        }
+                        last = new Result(health, clock.instant());
+                    })
+                    .then();
+        }
+
+        @Override
+        public Mono<Health> health() {
+            Result result = last;
+            if (result == null) {
+                return Mono.just(Health.unknown().withDetail("reason", "Not checked yet").build());
+            }
+            Duration age = Duration.between(result.checkedAt(), clock.instant());
+            Health.Builder builder = age.compareTo(staleAfter) > 0
+                    ? Health.unknown().withDetail("reason", "Last check is stale").withDetail("lastStatus", result.health().getStatus())
+                    : Health.status(result.health().getStatus()).withDetails(result.health().getDetails());
+            return Mono.just(builder
+                    .withDetail("checkedAt", result.checkedAt().toString())
+                    .withDetail("age", age.toString())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package lb.microservice.util.messaging;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Binder specific handle used to settle a message consumed with manual acknowledgement.
+ * Positions are ordered within a stream (a RabbitMQ channel or a Kafka partition), and acknowledging a position
+ * also acknowledges every earlier position of the same stream.
+ */
+interface AckHandle {
+
+    boolean RABBIT_PRESENT = ClassUtils.isPresent("org.springframework.amqp.support.AmqpHeaders", null);
+    boolean KAFKA_PRESENT = ClassUtils.isPresent("org.springframework.kafka.support.KafkaHeaders", null);
+
+    Object stream();
+
+    long position();
+
+    void ack();
+
+    /**
+     * Settles a delivery that failed to process.
+     *
+     * @return true if the broker has taken the delivery back, false if it still has to be covered by a later ack
+     */
+    boolean reject(Throwable cause);
+
+    /**
+     * @return the handle for a manually acknowledged message, or null if the binder acknowledges by itself
+     */
+    static AckHandle from(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        AckHandle handle = RABBIT_PRESENT ? RabbitAckHandle.from(headers) : null;
+        if (handle == null && KAFKA_PRESENT) {
+            handle = KafkaAckHandle.from(headers);
+        }
+        return handle;
+    }
+}
@@ -0,0 +1,176 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lb.microservice.api.event.Event;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.MimeType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Converts {@link Event}s to and from Avro binary for bindings with content type {@code application/vnd.event+avro}.
+ * A {@code codec=deflate} parameter on the content type compresses the payload.
+ * <p>
+ * Each payload starts with a magic byte, the version of the writer schema in the {@link LocalSchemaRegistry}
+ * and the codec, so consumers can read events written with any schema version they know of.
+ */
+public class AvroEventMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType EVENT_AVRO = new MimeType("application", "vnd.event+avro");
+    static final String SUBJECT = "event";
+
+    private static final byte MAGIC = 0;
+    private static final byte CODEC_NONE = 0;
+    private static final byte CODEC_DEFLATE = 1;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final LocalSchemaRegistry registry;
+    private final ObjectMapper mapper;
+    private final int writerVersion;
+    private final Schema readerSchema;
+    private final GenericDatumWriter<GenericRecord> writer;
+    private final Map<String, Schema> dataSchemas = new HashMap<>();
+    private final Map<Integer, GenericDatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> dataClasses = new ConcurrentHashMap<>();
+
+    public AvroEventMessageConverter(LocalSchemaRegistry registry, ObjectMapper mapper) {
+        super(EVENT_AVRO);
+        setStrictContentTypeMatch(true);
+        this.registry = registry;
+        this.mapper = mapper;
+        this.writerVersion = registry.getLatestVersion(SUBJECT);
+        this.readerSchema = registry.getSchema(SUBJECT, writerVersion);
+        this.writer = new GenericDatumWriter<>(readerSchema);
+        for (Schema branch : readerSchema.getField("data").schema().getTypes()) {
+            if (branch.getType() == Schema.Type.RECORD) {
+                dataSchemas.put(branch.getFullName(), branch);
+            }
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Event.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        MimeType contentType = getMimeType(headers);
+        boolean deflate = contentType != null && "deflate".equals(contentType.getParameter("codec"));
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            bytes.write(MAGIC);
+            bytes.write(writerVersion);
+            bytes.write(deflate ? CODEC_DEFLATE : CODEC_NONE);
+            OutputStream out = deflate ? new DeflaterOutputStream(bytes) : bytes;
+            BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+            writer.write(toRecord((Event<?, ?>) payload), encoder);
+            encoder.flush();
+            out.close();
+            return bytes.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new MessageConversionException("Failed to write event as Avro", e);
+        }
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload)) {
+            return null;
+        }
+        if (payload.length < 3 || payload[0] != MAGIC) {
+            throw new MessageConversionException(message, "Payload is not an Avro encoded event");
+        }
+        try {
+            InputStream in = new ByteArrayInputStream(payload, 3, payload.length - 3);
+            if (payload[2] == CODEC_DEFLATE) {
+                in = new InflaterInputStream(in);
+            }
+            GenericRecord record = readerFor(payload[1]).read(null, DecoderFactory.get().binaryDecoder(in, null));
+            return fromRecord(record);
+        } catch (IOException | RuntimeException e) {
+            throw new MessageConversionException(message, "Failed to read Avro encoded event", e);
+        }
+    }
+
+    private GenericDatumReader<GenericRecord> readerFor(int version) {
+        return readers.computeIfAbsent(version, v -> new GenericDatumReader<>(registry.getSchema(SUBJECT, v), readerSchema));
+    }
+
+    private GenericRecord toRecord(Event<?, ?> event) {
+        GenericRecord record = new GenericData.Record(readerSchema);
+        record.put("eventId", event.getEventId());
+        record.put("eventType", new GenericData.EnumSymbol(readerSchema.getField("eventType").schema(), event.getEventType().name()));
+        record.put("key", event.getKey());
+        ZonedDateTime createdAt = event.getEventCreatedAt();
+        if (createdAt != null) {
+            record.put("eventCreatedAt", ChronoUnit.MICROS.between(Instant.EPOCH, createdAt.toInstant()));
+            record.put("eventCreatedAtZone", createdAt.getZone().getId());
+        }
+        Object data = event.getData();
+        if (data != null) {
+            Schema dataSchema = dataSchemas.get(data.getClass().getName());
+            if (dataSchema == null) {
+                throw new IllegalArgumentException("No Avro schema for event data of type " + data.getClass().getName());
+            }
+            GenericRecord dataRecord = new GenericData.Record(dataSchema);
+            Map<String, Object> values = mapper.convertValue(data, MAP_TYPE);
+            dataSchema.getFields().forEach(f -> dataRecord.put(f.pos(), values.get(f.name())));
+            record.put("data", dataRecord);
+        }
+        return record;
+    }
+
+    private Event<Object, Object> fromRecord(GenericRecord record) {
+        Object createdAtMicros = record.get("eventCreatedAt");
+        ZonedDateTime createdAt = createdAtMicros == null ? null : Instant.EPOCH.plus((Long) createdAtMicros, ChronoUnit.MICROS)
+                .atZone(ZoneId.of(record.get("eventCreatedAtZone").toString()));
+        Object data = null;
+        if (record.get("data") instanceof GenericRecord dataRecord) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            dataRecord.getSchema().getFields().forEach(f -> values.put(f.name(), toJavaValue(dataRecord.get(f.pos()))));
+            data = mapper.convertValue(values, dataClass(dataRecord.getSchema()));
+        }
+        return new Event<>(
+                toJavaValue(record.get("eventId")) instanceof String eventId ? eventId : null,
+                Event.Type.valueOf(record.get("eventType").toString()),
+                record.get("key"),
+                data,
+                createdAt);
+    }
+
+    private Class<?> dataClass(Schema schema) {
+        return dataClasses.computeIfAbsent(schema.getFullName(), name -> ClassUtils.resolveClassName(name, getClass().getClassLoader()));
+    }
+
+    private static Object toJavaValue(Object avroValue) {
+        return avroValue instanceof CharSequence chars ? chars.toString() : avroValue;
+    }
+}
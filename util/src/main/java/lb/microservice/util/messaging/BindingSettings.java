@@ -0,0 +1,34 @@
+package lb.microservice.util.messaging;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Destination, group and binder of an input binding, as configured under {@code spring.cloud.stream.bindings}.
+ */
+record BindingSettings(String name, String destination, String group, String binder) {
+
+    static BindingSettings of(Environment environment, String bindingName) {
+        String prefix = "spring.cloud.stream.bindings." + bindingName;
+        return new BindingSettings(bindingName,
+                environment.getProperty(prefix + ".destination", bindingName),
+                environment.getProperty(prefix + ".group", "anonymous"),
+                environment.getProperty(prefix + ".binder",
+                        environment.getProperty("spring.cloud.stream.defaultBinder", "rabbit")));
+    }
+
+    String property(String name) {
+        return "spring.cloud.stream.bindings." + this.name + "." + name;
+    }
+
+    String binderProperty(String name) {
+        return "spring.cloud.stream." + binder + ".bindings." + this.name + "." + name;
+    }
+
+    boolean isKafka() {
+        return binder.equals("kafka");
+    }
+
+    boolean isRabbit() {
+        return binder.equals("rabbit");
+    }
+}
@@ -0,0 +1,85 @@
+package lb.microservice.util.messaging;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the in-flight positions of one stream and finds the highest position below which everything has completed.
+ * Only that position may be acknowledged, otherwise a crash would lose the slower deliveries before it.
+ */
+class CompletionWatermark {
+
+    private final TreeMap<Long, Entry> inFlight = new TreeMap<>();
+
+    synchronized void begin(AckHandle handle) {
+        inFlight.put(handle.position(), new Entry(handle));
+    }
+
+    /**
+     * Marks a position as done, advances the watermark and acknowledges up to it.
+     * Acks are sent while holding the lock, so a stream is always acknowledged in increasing order.
+     *
+     * @param settled true if the delivery was already settled on its own and must not be acknowledged again
+     */
+    synchronized void complete(AckHandle handle, boolean settled) {
+        Entry entry = inFlight.get(handle.position());
+        if (entry == null) {
+            return;
+        }
+        entry.done = true;
+        entry.settled = settled;
+        AckHandle toAck = null;
+        while (!inFlight.isEmpty() && inFlight.firstEntry().getValue().done) {
+            Map.Entry<Long, Entry> first = inFlight.pollFirstEntry();
+            if (!first.getValue().settled) {
+                toAck = first.getValue().handle;
+            }
+        }
+        if (toAck != null) {
+            toAck.ack();
+        }
+        if (inFlight.isEmpty()) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every position begun so far has completed and been acknowledged.
+     *
+     * @return true if nothing is left in flight within the timeout
+     */
+    synchronized boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!inFlight.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the positions in flight, so they are never acknowledged once the stream belongs to another consumer.
+     */
+    synchronized void discard() {
+        inFlight.clear();
+    }
+
+    synchronized int size() {
+        return inFlight.size();
+    }
+
+    private static final class Entry {
+        private final AckHandle handle;
+        private boolean done;
+        private boolean settled;
+
+        Entry(AckHandle handle) {
+            this.handle = handle;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package lb.microservice.util.messaging;
+
+import org.springframework.messaging.Message;
+
+import java.util.List;
+
+/**
+ * Binder specific access to the dead letters of one consumer group.
+ */
+interface DeadLetterQueue extends AutoCloseable {
+
+    /**
+     * @return the next dead letters, at most {@code maxMessages}, empty once the queue is drained
+     */
+    List<DeadLetter> poll(int maxMessages) throws Exception;
+
+    /**
+     * Removes a replayed dead letter from the queue.
+     */
+    void remove(DeadLetter deadLetter) throws Exception;
+
+    /**
+     * Passes over a dead letter that is not replayed. RabbitMQ keeps it queued, Kafka stops committing
+     * its partition in front of it.
+     */
+    void pass(DeadLetter deadLetter) throws Exception;
+
+    /**
+     * Makes the removals and passes of the current batch durable.
+     */
+    void commit() throws Exception;
+
+    record DeadLetter(Message<byte[]> message, Object position) {}
+}
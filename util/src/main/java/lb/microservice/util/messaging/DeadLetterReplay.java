@@ -0,0 +1,151 @@
+package lb.microservice.util.messaging;
+
+import lb.microservice.api.event.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MessageConverter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One replay run: moves dead letters back into a binding's input channel, so they go through the same handler
+ * as messages from the broker. Dead letters are sent one at a time, at most {@code ratePerSecond}, and removed from
+ * the dead letter queue once processed. The first failure stops the run and leaves the failed message queued.
+ */
+@Slf4j
+class DeadLetterReplay implements Runnable {
+
+    enum State { RUNNING, COMPLETED, STOPPED, FAILED }
+
+    private final String binding;
+    private final DeadLetterQueue queue;
+    private final MessageChannel input;
+    private final MessageConverter eventReader;
+    private final long maxMessages;
+    private final double ratePerSecond;
+    private final int batchSize;
+    private final Set<String> eventTypes;
+
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+    private volatile State state = State.RUNNING;
+    private volatile String lastError;
+    private volatile boolean stopRequested;
+
+    DeadLetterReplay(String binding, DeadLetterQueue queue, MessageChannel input, MessageConverter eventReader,
+                     long maxMessages, double ratePerSecond, int batchSize, Set<String> eventTypes) {
+        this.binding = binding;
+        this.queue = queue;
+        this.input = input;
+        this.eventReader = eventReader;
+        this.maxMessages = maxMessages;
+        this.ratePerSecond = ratePerSecond;
+        this.batchSize = batchSize;
+        this.eventTypes = eventTypes;
+    }
+
+    @Override
+    public void run() {
+        log.info("Start replay of dead letters into {}, rate {}/s, batch size {}, event types {}",
+                binding, ratePerSecond, batchSize, eventTypes.isEmpty() ? "all" : eventTypes);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long nextSend = System.nanoTime();
+        try (queue) {
+            while (!stopRequested && handled() < maxMessages) {
+                List<DeadLetterQueue.DeadLetter> batch = queue.poll((int) Math.min(batchSize, maxMessages - handled()));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (DeadLetterQueue.DeadLetter deadLetter : batch) {
+                    if (stopRequested) {
+                        break;
+                    }
+                    if (!matches(deadLetter)) {
+                        queue.pass(deadLetter);
+                        skipped.incrementAndGet();
+                        continue;
+                    }
+                    nextSend = pace(nextSend, intervalNanos);
+                    try {
+                        input.send(deadLetter.message());
+                    } catch (RuntimeException e) {
+                        lastError = e.toString();
+                        state = State.FAILED;
+                        stopRequested = true;
+                        log.warn("Replay into {} stopped, a dead letter failed again: {}", binding, lastError);
+                        break;
+                    }
+                    queue.remove(deadLetter);
+                    replayed.incrementAndGet();
+                }
+                queue.commit();
+            }
+            if (state == State.RUNNING) {
+                state = stopRequested ? State.STOPPED : State.COMPLETED;
+            }
+        } catch (Exception e) {
+            lastError = e.toString();
+            state = State.FAILED;
+            log.error("Replay into {} failed: {}", binding, lastError);
+        }
+        finishedAt = Instant.now();
+        log.info("Replay into {} {}: {} replayed, {} skipped", binding, state, replayed.get(), skipped.get());
+    }
+
+    void stop() {
+        stopRequested = true;
+    }
+
+    boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("binding", binding);
+        status.put("state", state);
+        status.put("replayed", replayed.get());
+        status.put("skipped", skipped.get());
+        status.put("startedAt", startedAt.toString());
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        status.put("replayedPerSecond", replayed.get() * 1000.0 / millis);
+        if (finishedAt != null) {
+            status.put("finishedAt", finishedAt.toString());
+        }
+        if (lastError != null) {
+            status.put("lastError", lastError);
+        }
+        return status;
+    }
+
+    private long handled() {
+        return replayed.get() + skipped.get();
+    }
+
+    private boolean matches(DeadLetterQueue.DeadLetter deadLetter) {
+        if (eventTypes.isEmpty()) {
+            return true;
+        }
+        Object event = eventReader.fromMessage(deadLetter.message(), Event.class);
+        return event instanceof Event<?, ?> e && eventTypes.contains(String.valueOf(e.getEventType()));
+    }
+
+    private static long pace(long nextSend, long intervalNanos) throws InterruptedException {
+        long now = System.nanoTime();
+        if (nextSend > now) {
+            TimeUnit.NANOSECONDS.sleep(nextSend - now);
+            now = nextSend;
+        }
+        return now + intervalNanos;
+    }
+}
@@ -0,0 +1,129 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Replays dead letters of an input binding, exposed as {@code /actuator/dlqreplay}.
+ * <ul>
+ *     <li>{@code POST} starts a replay, optionally with {@code binding}, {@code maxMessages}, {@code ratePerSecond},
+ *     {@code batchSize} and a comma separated {@code eventTypes} filter</li>
+ *     <li>{@code GET} reports the progress of the current or last replay</li>
+ *     <li>{@code DELETE} stops the current replay after the message in process</li>
+ * </ul>
+ * Defaults come from {@code app.messaging.replay}. RabbitMQ dead letters are read from the binding's
+ * {@code <destination>.<group>.dlq} queue, Kafka ones from its {@code error.<destination>.<group>} topic.
+ * Only services that set a default {@code app.messaging.replay.binding} get the endpoint.
+ */
+@Component
+@ConditionalOnProperty("app.messaging.replay.binding")
+@Endpoint(id = "dlqreplay")
+public class DeadLetterReplayEndpoint {
+
+    private final Environment environment;
+    private final ListableBeanFactory beanFactory;
+    private final MessageConverter eventReader;
+    private DeadLetterReplay replay;
+
+    @Autowired
+    public DeadLetterReplayEndpoint(Environment environment, ListableBeanFactory beanFactory, ObjectMapper objectMapper,
+                                    List<AvroEventMessageConverter> avroConverters) {
+        this.environment = environment;
+        this.beanFactory = beanFactory;
+        MappingJackson2MessageConverter jsonConverter = new MappingJackson2MessageConverter();
+        jsonConverter.setObjectMapper(objectMapper);
+        List<MessageConverter> converters = new ArrayList<>(avroConverters);
+        converters.add(jsonConverter);
+        this.eventReader = new CompositeMessageConverter(converters);
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        return replay == null ? Map.of("state", "NONE") : replay.status();
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> replay(@Nullable String binding, @Nullable Long maxMessages,
+                                                   @Nullable Double ratePerSecond, @Nullable Integer batchSize,
+                                                   @Nullable String eventTypes) {
+        if (replay != null && replay.isRunning()) {
+            throw new IllegalStateException("A replay into " + replay.status().get("binding") + " is still running");
+        }
+        BindingSettings settings = BindingSettings.of(environment, binding != null ? binding
+                : environment.getRequiredProperty("app.messaging.replay.binding"));
+        if (!beanFactory.containsBean(settings.name())) {
+            throw new IllegalArgumentException("No input binding " + settings.name());
+        }
+        int batch = batchSize != null ? batchSize : environment.getProperty("app.messaging.replay.batchSize", Integer.class, 50);
+        double rate = ratePerSecond != null ? ratePerSecond
+                : environment.getProperty("app.messaging.replay.ratePerSecond", Double.class, 20.0);
+        if (batch < 1 || rate <= 0) {
+            throw new IllegalArgumentException("Batch size and rate must be positive");
+        }
+        replay = new DeadLetterReplay(settings.name(), openQueue(settings, batch),
+                beanFactory.getBean(settings.name(), MessageChannel.class), eventReader,
+                maxMessages != null ? maxMessages : Long.MAX_VALUE, rate, batch,
+                parseEventTypes(eventTypes));
+        Thread thread = new Thread(replay, "dlq-replay-" + settings.destination());
+        thread.setDaemon(true);
+        thread.start();
+        return replay.status();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (replay == null) {
+            return status();
+        }
+        replay.stop();
+        return replay.status();
+    }
+
+    private DeadLetterQueue openQueue(BindingSettings settings, int batchSize) {
+        String group = settings.destination() + "." + settings.group();
+        if (settings.isKafka()) {
+            KafkaProperties kafkaProperties = beanFactory.getBeanProvider(KafkaProperties.class).getIfAvailable(KafkaProperties::new);
+            Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties();
+            String brokers = environment.getProperty("spring.cloud.stream.kafka.binder.brokers");
+            if (brokers != null) {
+                consumerProperties.put("bootstrap.servers", brokers);
+            }
+            String topic = environment.getProperty(settings.binderProperty("consumer.dlqName"), "error." + group);
+            return new KafkaDeadLetterQueue(consumerProperties, topic, settings.group() + ".replay", batchSize);
+        }
+        String queue = environment.getProperty(settings.binderProperty("consumer.deadLetterQueueName"), group + ".dlq");
+        return new RabbitDeadLetterQueue(beanFactory.getBean(ConnectionFactory.class), queue);
+    }
+
+    private static Set<String> parseEventTypes(String eventTypes) {
+        if (eventTypes == null) {
+            return Set.of();
+        }
+        return Arrays.stream(eventTypes.split(","))
+                .map(type -> type.trim().toUpperCase())
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
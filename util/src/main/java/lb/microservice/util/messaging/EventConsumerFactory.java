@@ -0,0 +1,127 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lb.microservice.api.event.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Creates the message handlers of the core services' input bindings.
+ * Lanes are configured by {@code app.messaging.lanes} and {@code app.messaging.laneQueueSize}; retries reuse the
+ * binding's own consumer properties, and records that fail on a lane are sent to the binder's {@code error.<destination>.<group>} topic.
+ * The ids of the last {@code app.messaging.dedupCapacity} processed events are remembered to skip redeliveries, 0 disables it.
+ * Each handler reports {@link EventMetrics}; broker lag is the Kafka binder's consumer group lag or the RabbitMQ
+ * group queue's message count, read at most every {@code app.messaging.lagRefreshInterval} ms.
+ */
+@Slf4j
+@Component
+public class EventConsumerFactory implements DisposableBean {
+
+    private static final String KAFKA_OFFSET_LAG = "spring.cloud.stream.binder.kafka.offset";
+    private static final String RABBIT_ADMIN = "org.springframework.amqp.rabbit.core.RabbitAdmin";
+
+    private final Environment environment;
+    private final ObjectProvider<StreamBridge> streamBridge;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ListableBeanFactory beanFactory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ShardedEventConsumer<?, ?>> consumers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EventConsumerFactory(Environment environment, ObjectProvider<StreamBridge> streamBridge,
+                                ObjectProvider<MeterRegistry> meterRegistry, ListableBeanFactory beanFactory,
+                                ObjectMapper objectMapper) {
+        this.environment = environment;
+        this.streamBridge = streamBridge;
+        this.meterRegistry = meterRegistry;
+        this.beanFactory = beanFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    public <K, T> ShardedEventConsumer<K, T> create(String bindingName, Class<T> dataType, Consumer<Event<K, T>> handler) {
+        BindingSettings binding = BindingSettings.of(environment, bindingName);
+
+        int lanes = environment.getProperty("app.messaging.lanes", Integer.class, 1);
+        int laneQueueSize = environment.getProperty("app.messaging.laneQueueSize", Integer.class, 100);
+        RetryPolicy retryPolicy = new RetryPolicy(
+                environment.getProperty(binding.property("consumer.maxAttempts"), Integer.class, 3),
+                Duration.ofMillis(environment.getProperty(binding.property("consumer.backOffInitialInterval"), Long.class, 1000L)),
+                Duration.ofMillis(environment.getProperty(binding.property("consumer.backOffMaxInterval"), Long.class, 10000L)),
+                environment.getProperty(binding.property("consumer.backOffMultiplier"), Double.class, 2.0));
+
+        int dedupCapacity = environment.getProperty("app.messaging.dedupCapacity", Integer.class, 10000);
+        EventDeduplicator deduplicator = dedupCapacity > 0 ? new EventDeduplicator(dedupCapacity) : null;
+
+        EventMetrics metrics = createMetrics(binding);
+
+        String deadLetterDestination = "error." + binding.destination() + "." + binding.group();
+        ShardedEventConsumer<K, T> consumer = new ShardedEventConsumer<>(binding.destination(), dataType, objectMapper, handler,
+                lanes, laneQueueSize, retryPolicy, (message, cause) -> sendToDeadLetter(deadLetterDestination, message, cause),
+                deduplicator, metrics);
+        consumers.put(bindingName, consumer);
+        return consumer;
+    }
+
+    /**
+     * Drains the revoked partitions of a binding's consumer before they are handed over.
+     *
+     * @return true if nothing is left in flight
+     */
+    boolean drain(String bindingName, Collection<String> streams, Duration timeout) {
+        ShardedEventConsumer<?, ?> consumer = consumers.get(bindingName);
+        return consumer == null || consumer.drain(streams, timeout);
+    }
+
+    @Override
+    public void destroy() {
+        consumers.values().forEach(ShardedEventConsumer::close);
+    }
+
+    private EventMetrics createMetrics(BindingSettings binding) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return null;
+        }
+        EventMetrics metrics = new EventMetrics(registry, binding.destination(), binding.group());
+        if (binding.isKafka()) {
+            metrics.gaugeLag(registry, r -> {
+                Gauge offsetLag = r.find(KAFKA_OFFSET_LAG).tags("group", binding.group(), "topic", binding.destination()).gauge();
+                return offsetLag == null ? Double.NaN : offsetLag.value();
+            });
+        } else if (binding.isRabbit() && ClassUtils.isPresent(RABBIT_ADMIN, getClass().getClassLoader())) {
+            Duration refreshInterval = Duration.ofMillis(environment.getProperty("app.messaging.lagRefreshInterval", Long.class, 5000L));
+            metrics.gaugeLag(new RabbitQueueBacklog(beanFactory, binding.destination() + "." + binding.group(), refreshInterval),
+                    RabbitQueueBacklog::messageCount);
+        }
+        return metrics;
+    }
+
+    private void sendToDeadLetter(String destination, Message<?> message, Throwable cause) {
+        StreamBridge bridge = streamBridge.getIfAvailable();
+        if (bridge == null) {
+            log.error("No StreamBridge available, dropping failed message for {}", destination);
+            return;
+        }
+        Message<?> deadLetter = MessageBuilder.withPayload(message.getPayload())
+                .setHeader("x-exception-message", cause.toString())
+                .build();
+        bridge.send(destination, deadLetter);
+    }
+}
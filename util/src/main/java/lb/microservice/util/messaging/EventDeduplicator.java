@@ -0,0 +1,66 @@
+package lb.microservice.util.messaging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded index of recently processed event ids.
+ * <p>
+ * An exact store keeps the last {@code capacity} ids, and a Bloom filter in front of it answers the common
+ * "never seen" case without taking a lock. The filter has two generations that rotate every {@code capacity}
+ * insertions, so it always covers at least the ids held by the exact store and its memory stays bounded.
+ */
+public class EventDeduplicator {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final int capacity;
+    private final Map<String, Boolean> recentIds;
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private int insertionsInGeneration;
+
+    public EventDeduplicator(int capacity) {
+        this.capacity = capacity;
+        this.recentIds = new LinkedHashMap<>(capacity * 4 / 3 + 1) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > EventDeduplicator.this.capacity;
+            }
+        };
+        this.current = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        this.previous = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @return true if the event id was already marked as processed
+     */
+    public boolean isDuplicate(String eventId) {
+        if (eventId == null) {
+            return false;
+        }
+        if (!current.mightContain(eventId) && !previous.mightContain(eventId)) {
+            return false;
+        }
+        synchronized (recentIds) {
+            return recentIds.containsKey(eventId);
+        }
+    }
+
+    public void markProcessed(String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        synchronized (recentIds) {
+            if (recentIds.put(eventId, Boolean.TRUE) != null) {
+                return;
+            }
+            if (++insertionsInGeneration > capacity) {
+                previous = current;
+                current = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+                insertionsInGeneration = 1;
+            }
+            current.put(eventId);
+        }
+    }
+}
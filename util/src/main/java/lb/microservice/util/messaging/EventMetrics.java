@@ -0,0 +1,70 @@
+package lb.microservice.util.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lb.microservice.api.event.Event;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters of one input binding:
+ * <ul>
+ *     <li>{@code event.age} - time from event creation to its reception by the consumer, by event type</li>
+ *     <li>{@code event.processing} - handler time by event type and outcome (success, failure, duplicate)</li>
+ *     <li>{@code event.inflight} - events received but not processed yet on the consumer's lanes</li>
+ *     <li>{@code event.lag} - messages waiting on the broker for the binding's group</li>
+ * </ul>
+ */
+class EventMetrics {
+
+    static final String AGE = "event.age";
+    static final String PROCESSING = "event.processing";
+    static final String IN_FLIGHT = "event.inflight";
+    static final String LAG = "event.lag";
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    EventMetrics(MeterRegistry registry, String binding, String group) {
+        this.registry = registry;
+        this.tags = Tags.of("binding", binding, "group", group);
+    }
+
+    <T> void gaugeInFlight(T source, ToDoubleFunction<T> inFlight) {
+        Gauge.builder(IN_FLIGHT, source, inFlight).tags(tags).register(registry);
+    }
+
+    <T> void gaugeLag(T source, ToDoubleFunction<T> lag) {
+        Gauge.builder(LAG, source, lag).tags(tags).register(registry);
+    }
+
+    void recordAge(Event<?, ?> event) {
+        ZonedDateTime createdAt = event.getEventCreatedAt();
+        if (createdAt == null) {
+            return;
+        }
+        Duration age = Duration.between(createdAt, ZonedDateTime.now());
+        String type = String.valueOf(event.getEventType());
+        timers.computeIfAbsent(AGE + '\n' + type, key -> Timer.builder(AGE)
+                        .tags(tags).tag("type", type)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(registry))
+                .record(age.isNegative() ? Duration.ZERO : age);
+    }
+
+    void recordProcessing(Event<?, ?> event, String outcome, long nanos) {
+        String type = String.valueOf(event.getEventType());
+        timers.computeIfAbsent(PROCESSING + '\n' + type + '\n' + outcome, key -> Timer.builder(PROCESSING)
+                        .tags(tags).tag("type", type).tag("outcome", outcome)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,72 @@
+package lb.microservice.util.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of the event consumers' meters by binding, exposed as {@code /actuator/events}.
+ */
+@Component
+@Endpoint(id = "events")
+public class EventMetricsEndpoint {
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public EventMetricsEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> events() {
+        Map<String, Map<String, Object>> bindings = new TreeMap<>();
+        for (Gauge gauge : registry.find(EventMetrics.IN_FLIGHT).gauges()) {
+            summary(bindings, gauge).put("inFlight", gauge.value());
+        }
+        for (Gauge gauge : registry.find(EventMetrics.LAG).gauges()) {
+            summary(bindings, gauge).put("lag", gauge.value());
+        }
+        for (Timer timer : registry.find(EventMetrics.AGE).timers()) {
+            section(summary(bindings, timer), "age").put(timer.getId().getTag("type"), describe(timer));
+        }
+        for (Timer timer : registry.find(EventMetrics.PROCESSING).timers()) {
+            section(summary(bindings, timer), "processing")
+                    .put(timer.getId().getTag("type") + "." + timer.getId().getTag("outcome"), describe(timer));
+        }
+        return bindings;
+    }
+
+    private static Map<String, Object> summary(Map<String, Map<String, Object>> bindings, Meter meter) {
+        Map<String, Object> summary = bindings.computeIfAbsent(meter.getId().getTag("binding"), b -> new LinkedHashMap<>());
+        summary.putIfAbsent("group", meter.getId().getTag("group"));
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> summary, String name) {
+        return (Map<String, Object>) summary.computeIfAbsent(name, n -> new TreeMap<>());
+    }
+
+    private static Map<String, Object> describe(Timer timer) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("count", timer.count());
+        description.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+        description.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            description.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return description;
+    }
+}
@@ -0,0 +1,23 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the Avro event converter next to the binders' JSON converter. Producers pick the encoding through the
+ * binding's content type, and consumers follow the content type header of each message.
+ */
+@Configuration
+public class EventSerializationConfig {
+
+    @Bean
+    public LocalSchemaRegistry localSchemaRegistry() {
+        return new LocalSchemaRegistry("classpath*:schemas/*.avsc");
+    }
+
+    @Bean
+    public AvroEventMessageConverter avroEventMessageConverter(LocalSchemaRegistry localSchemaRegistry, ObjectMapper objectMapper) {
+        return new AvroEventMessageConverter(localSchemaRegistry, objectMapper);
+    }
+}
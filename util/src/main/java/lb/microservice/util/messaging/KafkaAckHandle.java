@@ -0,0 +1,32 @@
+package lb.microservice.util.messaging;
+
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Commits offsets of a Kafka consumer bound with {@code ackMode: MANUAL}.
+ * Kafka can only commit a partition up to an offset, so a rejected record has to be dead-lettered by the caller
+ * and is then covered by the next commit.
+ */
+record KafkaAckHandle(String stream, long position, Acknowledgment acknowledgment) implements AckHandle {
+
+    static AckHandle from(MessageHeaders headers) {
+        if (headers.get(KafkaHeaders.ACKNOWLEDGMENT) instanceof Acknowledgment acknowledgment) {
+            String stream = headers.get(KafkaHeaders.RECEIVED_TOPIC) + "-" + headers.get(KafkaHeaders.RECEIVED_PARTITION_ID);
+            Long offset = headers.get(KafkaHeaders.OFFSET, Long.class);
+            return new KafkaAckHandle(stream, offset == null ? 0 : offset, acknowledgment);
+        }
+        return null;
+    }
+
+    @Override
+    public void ack() {
+        acknowledgment.acknowledge();
+    }
+
+    @Override
+    public boolean reject(Throwable cause) {
+        return false;
+    }
+}
@@ -0,0 +1,114 @@
+package lb.microservice.util.messaging;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a Kafka dead letter topic with its own consumer group, {@code <group>.replay}.
+ * The group's committed offsets mark how far the topic has been replayed: a partition's offset only moves over the
+ * removed records in front of its first passed one, so a later replay reads every passed record again.
+ */
+class KafkaDeadLetterQueue implements DeadLetterQueue {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final int MAX_EMPTY_POLLS = 5;
+
+    private final Consumer<byte[], byte[]> consumer;
+    private final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    private final Set<TopicPartition> passed = new HashSet<>();
+
+    KafkaDeadLetterQueue(Map<String, Object> consumerProperties, String topic, String groupId, int batchSize) {
+        this(new KafkaConsumer<>(replayProperties(consumerProperties, groupId, batchSize),
+                new ByteArrayDeserializer(), new ByteArrayDeserializer()), topic);
+    }
+
+    KafkaDeadLetterQueue(Consumer<byte[], byte[]> consumer, String topic) {
+        this.consumer = consumer;
+        consumer.subscribe(List.of(topic));
+    }
+
+    private static Map<String, Object> replayProperties(Map<String, Object> consumerProperties, String groupId, int batchSize) {
+        Map<String, Object> properties = new HashMap<>(consumerProperties);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        return properties;
+    }
+
+    @Override
+    public List<DeadLetter> poll(int maxMessages) {
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        // the first polls may come back empty while the replay group joins
+        for (int i = 0; i < MAX_EMPTY_POLLS && deadLetters.isEmpty(); i++) {
+            for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                MessageBuilder<byte[]> message = MessageBuilder.withPayload(record.value());
+                Header contentType = record.headers().lastHeader(MessageHeaders.CONTENT_TYPE);
+                if (contentType != null) {
+                    message.setHeader(MessageHeaders.CONTENT_TYPE,
+                            new String(contentType.value(), StandardCharsets.UTF_8).replace("\"", ""));
+                }
+                deadLetters.add(new DeadLetter(message.build(), record));
+            }
+        }
+        if (deadLetters.size() <= maxMessages) {
+            return deadLetters;
+        }
+        // rewind the partitions to the first record that is not returned, so the next poll reads it again
+        Map<TopicPartition, Long> rewinds = new HashMap<>();
+        for (DeadLetter excess : deadLetters.subList(maxMessages, deadLetters.size())) {
+            ConsumerRecord<?, ?> record = (ConsumerRecord<?, ?>) excess.position();
+            rewinds.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::min);
+        }
+        rewinds.forEach(consumer::seek);
+        return new ArrayList<>(deadLetters.subList(0, maxMessages));
+    }
+
+    @Override
+    public void remove(DeadLetter deadLetter) {
+        TopicPartition partition = partition(deadLetter);
+        if (!passed.contains(partition)) {
+            offsets.put(partition, new OffsetAndMetadata(((ConsumerRecord<?, ?>) deadLetter.position()).offset() + 1));
+        }
+    }
+
+    @Override
+    public void pass(DeadLetter deadLetter) {
+        passed.add(partition(deadLetter));
+    }
+
+    @Override
+    public void commit() {
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+            offsets.clear();
+        }
+    }
+
+    private static TopicPartition partition(DeadLetter deadLetter) {
+        ConsumerRecord<?, ?> record = (ConsumerRecord<?, ?>) deadLetter.position();
+        return new TopicPartition(record.topic(), record.partition());
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+}
@@ -0,0 +1,52 @@
+package lb.microservice.util.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cloud.stream.binder.kafka.KafkaBindingRebalanceListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lets Kafka consumer groups move partitions between instances without losing or repeating work in flight:
+ * before the offsets of revoked partitions are committed, the events already handed to the lanes are drained,
+ * so their acknowledgements are part of that commit.
+ * The drain waits at most {@code app.messaging.rebalanceDrainTimeout} ms, which must stay below {@code max.poll.interval.ms}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(name = "org.springframework.cloud.stream.binder.kafka.KafkaBindingRebalanceListener")
+public class KafkaRebalanceConfig {
+
+    @Bean
+    public KafkaBindingRebalanceListener eventRebalanceListener(EventConsumerFactory consumerFactory,
+                                                                @Value("${app.messaging.rebalanceDrainTimeout:30000}") long drainTimeoutMs) {
+        Duration drainTimeout = Duration.ofMillis(drainTimeoutMs);
+        return new KafkaBindingRebalanceListener() {
+
+            @Override
+            public void onPartitionsRevokedBeforeCommit(String bindingName, Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                List<String> streams = partitions.stream().map(p -> p.topic() + "-" + p.partition()).toList();
+                long start = System.nanoTime();
+                if (consumerFactory.drain(bindingName, streams, drainTimeout)) {
+                    log.info("Drained {} before revoking partitions {} in {} ms",
+                            bindingName, streams, Duration.ofNanos(System.nanoTime() - start).toMillis());
+                } else {
+                    log.warn("Events of {} still in flight after {} ms are not acknowledged, partitions {} may be processed again by their next owner",
+                            bindingName, drainTimeout.toMillis(), streams);
+                }
+            }
+
+            @Override
+            public void onPartitionsAssigned(String bindingName, Consumer<?, ?> consumer, Collection<TopicPartition> partitions, boolean initial) {
+                log.info("Partitions assigned to {}: {}", bindingName, partitions);
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package lb.microservice.util.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a fixed number of single-threaded lanes. Tasks with the same key always land on the same lane,
+ * so they run in submission order, while tasks for different keys run in parallel.
+ * A full lane blocks the submitter, which pushes back on the message listener instead of buffering without bound.
+ */
+@Slf4j
+public class KeyShardedExecutor implements AutoCloseable {
+
+    private static final Runnable STOP = () -> {};
+
+    private final Lane[] lanes;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closed;
+
+    public KeyShardedExecutor(String name, int laneCount, int queueCapacity) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be positive: " + laneCount);
+        }
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(name + "-lane-" + i, queueCapacity);
+        }
+        log.info("Started {} event lanes for {} with queue capacity {}", laneCount, name, queueCapacity);
+    }
+
+    public CompletableFuture<Void> submit(Object key, Runnable task) {
+        if (closed) {
+            throw new RejectedExecutionException("Executor is closed");
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        try {
+            lanes[laneIndex(key)].put(() -> {
+                try {
+                    task.run();
+                    result.complete(null);
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        return result;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    int laneIndex(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lanes.length);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Lane lane : lanes) {
+            lane.put(STOP);
+        }
+        for (Lane lane : lanes) {
+            lane.join();
+        }
+    }
+
+    private static final class Lane implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+
+        Lane(String name, int queueCapacity) {
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void put(Runnable task) {
+            try {
+                queue.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for lane " + thread.getName(), e);
+            }
+        }
+
+        void join() {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == STOP) {
+                    return;
+                }
+                task.run();
+            }
+        }
+    }
+}
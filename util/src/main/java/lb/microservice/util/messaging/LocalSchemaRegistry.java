@@ -0,0 +1,71 @@
+package lb.microservice.util.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * File based stand-in for a schema registry. Schemas are read from files named {@code <subject>-v<version>.avsc}
+ * and looked up by subject and version, so a consumer can resolve the writer schema of any version it ships with.
+ */
+@Slf4j
+public class LocalSchemaRegistry {
+
+    private static final Pattern FILE_NAME = Pattern.compile("(.+)-v(\\d+)\\.avsc");
+
+    private final Map<String, NavigableMap<Integer, Schema>> subjects = new HashMap<>();
+
+    public LocalSchemaRegistry(String locationPattern) {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locationPattern)) {
+                register(resource);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load schemas from " + locationPattern, e);
+        }
+    }
+
+    public Schema getSchema(String subject, int version) {
+        Schema schema = versions(subject).get(version);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown schema version " + version + " of subject " + subject);
+        }
+        return schema;
+    }
+
+    public int getLatestVersion(String subject) {
+        return versions(subject).lastKey();
+    }
+
+    private NavigableMap<Integer, Schema> versions(String subject) {
+        NavigableMap<Integer, Schema> versions = subjects.get(subject);
+        if (versions == null) {
+            throw new IllegalArgumentException("Unknown schema subject " + subject);
+        }
+        return versions;
+    }
+
+    private void register(Resource resource) throws IOException {
+        Matcher matcher = FILE_NAME.matcher(String.valueOf(resource.getFilename()));
+        if (!matcher.matches()) {
+            log.warn("Ignoring schema file {}, expected <subject>-v<version>.avsc", resource.getFilename());
+            return;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            Schema schema = new Schema.Parser().parse(in);
+            subjects.computeIfAbsent(matcher.group(1), s -> new TreeMap<>()).put(Integer.parseInt(matcher.group(2)), schema);
+            log.info("Registered schema {} version {}", matcher.group(1), matcher.group(2));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package lb.microservice.util.messaging;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.MessageHeaders;
+
+import java.io.IOException;
+
+/**
+ * Acknowledges deliveries of a RabbitMQ consumer bound with {@code acknowledgeMode: MANUAL}.
+ * A rejected delivery is nacked without requeue, so the queue's dead letter exchange routes it to the DLQ.
+ */
+@Slf4j
+record RabbitAckHandle(Channel channel, long deliveryTag) implements AckHandle {
+
+    static AckHandle from(MessageHeaders headers) {
+        if (headers.get(AmqpHeaders.CHANNEL) instanceof Channel channel
+                && headers.get(AmqpHeaders.DELIVERY_TAG) instanceof Long deliveryTag) {
+            return new RabbitAckHandle(channel, deliveryTag);
+        }
+        return null;
+    }
+
+    @Override
+    public Object stream() {
+        return channel;
+    }
+
+    @Override
+    public long position() {
+        return deliveryTag;
+    }
+
+    @Override
+    public void ack() {
+        try {
+            channel.basicAck(deliveryTag, true);
+        } catch (IOException e) {
+            log.warn("Failed to ack deliveries up to tag {}: {}", deliveryTag, e.toString());
+        }
+    }
+
+    @Override
+    public boolean reject(Throwable cause) {
+        try {
+            channel.basicNack(deliveryTag, false, false);
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to nack delivery {}: {}", deliveryTag, e.toString());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package lb.microservice.util.messaging;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a RabbitMQ dead letter queue with {@code basic.get}. Dead letters that are not replayed stay unacknowledged
+ * until the queue is closed and are then requeued, so they are neither lost nor read twice by the same replay.
+ */
+class RabbitDeadLetterQueue implements DeadLetterQueue {
+
+    private final Connection connection;
+    private final Channel channel;
+    private final String queue;
+    private final Set<Long> unacked = new LinkedHashSet<>();
+
+    RabbitDeadLetterQueue(ConnectionFactory connectionFactory, String queue) {
+        this.connection = connectionFactory.createConnection();
+        this.channel = connection.createChannel(false);
+        this.queue = queue;
+    }
+
+    @Override
+    public List<DeadLetter> poll(int maxMessages) throws Exception {
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        GetResponse response;
+        while (deadLetters.size() < maxMessages && (response = channel.basicGet(queue, false)) != null) {
+            long deliveryTag = response.getEnvelope().getDeliveryTag();
+            unacked.add(deliveryTag);
+            MessageBuilder<byte[]> message = MessageBuilder.withPayload(response.getBody());
+            if (response.getProps().getContentType() != null) {
+                message.setHeader(MessageHeaders.CONTENT_TYPE, response.getProps().getContentType());
+            }
+            deadLetters.add(new DeadLetter(message.build(), deliveryTag));
+        }
+        return deadLetters;
+    }
+
+    @Override
+    public void remove(DeadLetter deadLetter) throws Exception {
+        long deliveryTag = (Long) deadLetter.position();
+        channel.basicAck(deliveryTag, false);
+        unacked.remove(deliveryTag);
+    }
+
+    @Override
+    public void pass(DeadLetter deadLetter) {
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            for (long deliveryTag : unacked) {
+                channel.basicNack(deliveryTag, false, true);
+            }
+            channel.close();
+        } finally {
+            connection.close();
+        }
+    }
+}
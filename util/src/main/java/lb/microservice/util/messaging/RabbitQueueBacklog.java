@@ -0,0 +1,59 @@
+package lb.microservice.util.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.ListableBeanFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Message count of a consumer group's RabbitMQ queue, {@code <destination>.<group>}.
+ * The broker is asked at most once per refresh interval, however often the gauge is read.
+ */
+@Slf4j
+class RabbitQueueBacklog {
+
+    private final ListableBeanFactory beanFactory;
+    private final String queueName;
+    private final long refreshNanos;
+    private final LongSupplier nanoClock;
+    private volatile RabbitAdmin admin;
+    private volatile long checkedAt;
+    private volatile double messageCount = Double.NaN;
+
+    RabbitQueueBacklog(ListableBeanFactory beanFactory, String queueName, Duration refreshInterval) {
+        this(beanFactory, queueName, refreshInterval, System::nanoTime);
+    }
+
+    RabbitQueueBacklog(ListableBeanFactory beanFactory, String queueName, Duration refreshInterval, LongSupplier nanoClock) {
+        this.beanFactory = beanFactory;
+        this.queueName = queueName;
+        this.refreshNanos = refreshInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.checkedAt = nanoClock.getAsLong() - refreshNanos;
+    }
+
+    double messageCount() {
+        long now = nanoClock.getAsLong();
+        if (now - checkedAt >= refreshNanos) {
+            checkedAt = now;
+            messageCount = queryMessageCount();
+        }
+        return messageCount;
+    }
+
+    private double queryMessageCount() {
+        try {
+            if (admin == null) {
+                admin = new RabbitAdmin(beanFactory.getBean(ConnectionFactory.class));
+            }
+            var info = admin.getQueueInfo(queueName);
+            return info == null ? Double.NaN : info.getMessageCount();
+        } catch (RuntimeException e) {
+            log.debug("Failed to read the message count of queue {}: {}", queueName, e.toString());
+            return Double.NaN;
+        }
+    }
+}
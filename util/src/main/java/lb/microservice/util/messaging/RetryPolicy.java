@@ -0,0 +1,15 @@
+package lb.microservice.util.messaging;
+
+import java.time.Duration;
+
+/**
+ * Retry settings for events processed on a lane, mirroring the binder consumer properties
+ * {@code maxAttempts}, {@code backOffInitialInterval}, {@code backOffMaxInterval} and {@code backOffMultiplier}.
+ */
+public record RetryPolicy(int maxAttempts, Duration initialInterval, Duration maxInterval, double multiplier) {
+
+    Duration nextInterval(Duration interval) {
+        long next = (long) (interval.toMillis() * multiplier);
+        return Duration.ofMillis(Math.min(next, maxInterval.toMillis()));
+    }
+}
@@ -0,0 +1,218 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lb.microservice.api.event.Event;
+import lb.microservice.api.exceptions.InvalidInputException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Message handler that spreads events over key-sharded lanes. Events with the same key are processed in order,
+ * events with different keys in parallel.
+ * <p>
+ * Parallel processing needs manual acknowledgement on the binding: the listener returns as soon as the event is
+ * queued, and the delivery is acknowledged later, only up to the lowest position that is not complete yet.
+ * Without an ack handle the listener waits for its event, so the binder keeps its own retry and DLQ handling.
+ * With a single lane events are processed on the listener thread, exactly as a plain consumer would.
+ * <p>
+ * Redelivered events whose id is known to the {@link EventDeduplicator} are skipped without calling the handler.
+ * Event age, processing time and lanes' in-flight count are reported through {@link EventMetrics}.
+ * <p>
+ * Spring Cloud Function does not resolve the data type nested in {@code Message<Event<K, T>>}, so event data
+ * decoded from JSON arrives as a map and is converted to {@code dataType} before the handler sees it.
+ */
+@Slf4j
+public class ShardedEventConsumer<K, T> implements Consumer<Message<Event<K, T>>>, AutoCloseable {
+
+    private final String name;
+    private final Class<T> dataType;
+    private final ObjectMapper objectMapper;
+    private final Consumer<Event<K, T>> handler;
+    private final KeyShardedExecutor executor;
+    private final RetryPolicy retryPolicy;
+    private final BiConsumer<Message<?>, Throwable> deadLetters;
+    private final EventDeduplicator deduplicator;
+    private final EventMetrics metrics;
+    private final Map<Object, CompletionWatermark> watermarks = new ConcurrentHashMap<>();
+
+    public ShardedEventConsumer(String name, Class<T> dataType, ObjectMapper objectMapper, Consumer<Event<K, T>> handler,
+                                int lanes, int queueCapacity, RetryPolicy retryPolicy,
+                                BiConsumer<Message<?>, Throwable> deadLetters, EventDeduplicator deduplicator,
+                                EventMetrics metrics) {
+        this.name = name;
+        this.dataType = dataType;
+        this.objectMapper = objectMapper;
+        this.handler = handler;
+        this.executor = lanes > 1 ? new KeyShardedExecutor(name, lanes, queueCapacity) : null;
+        this.retryPolicy = retryPolicy;
+        this.deadLetters = deadLetters;
+        this.deduplicator = deduplicator;
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.gaugeInFlight(this, ShardedEventConsumer::getInFlight);
+        }
+    }
+
+    @Override
+    public void accept(Message<Event<K, T>> delivered) {
+        Message<Event<K, T>> message = withDataType(delivered);
+        Event<K, T> event = message.getPayload();
+        if (metrics != null) {
+            metrics.recordAge(event);
+        }
+        AckHandle ackHandle = AckHandle.from(message);
+        if (executor == null) {
+            process(event);
+            if (ackHandle != null) {
+                ackHandle.ack();
+            }
+        } else if (ackHandle == null) {
+            join(executor.submit(event.getKey(), () -> process(event)));
+        } else {
+            CompletionWatermark watermark = watermarks.computeIfAbsent(ackHandle.stream(), s -> new CompletionWatermark());
+            watermark.begin(ackHandle);
+            executor.submit(event.getKey(), () -> processWithRetry(event))
+                    .whenComplete((v, ex) -> settle(message, ackHandle, watermark, ex));
+        }
+    }
+
+    public int getLaneCount() {
+        return executor == null ? 1 : executor.getLaneCount();
+    }
+
+    public int getInFlight() {
+        return executor == null ? 0 : executor.getInFlight();
+    }
+
+    /**
+     * Waits for the events in flight on the given streams, so their acknowledgements are in before the binder commits
+     * and hands the streams over to another instance, then forgets the streams' watermarks. Events of other streams
+     * keep running. Whatever is still in flight at the timeout is never acknowledged, its next owner processes it again.
+     *
+     * @return true if the streams drained within the timeout
+     */
+    boolean drain(Collection<String> streams, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean drained = true;
+        for (String stream : streams) {
+            CompletionWatermark watermark = watermarks.remove(stream);
+            if (watermark != null && !awaitCompletion(watermark, Duration.ofNanos(deadline - System.nanoTime()))) {
+                watermark.discard();
+                drained = false;
+            }
+        }
+        return drained;
+    }
+
+    private Message<Event<K, T>> withDataType(Message<Event<K, T>> message) {
+        Event<K, T> event = message.getPayload();
+        if (event.getData() == null || dataType.isInstance(event.getData())) {
+            return message;
+        }
+        Event<K, T> typedEvent = new Event<>(event.getEventId(), event.getEventType(), event.getKey(),
+                objectMapper.convertValue(event.getData(), dataType), event.getEventCreatedAt());
+        return MessageBuilder.createMessage(typedEvent, message.getHeaders());
+    }
+
+    private void process(Event<K, T> event) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            if (deduplicator != null && deduplicator.isDuplicate(event.getEventId())) {
+                log.info("Skip duplicate event {} with key {} on {}", event.getEventId(), event.getKey(), name);
+                outcome = "duplicate";
+                return;
+            }
+            handler.accept(event);
+            if (deduplicator != null) {
+                deduplicator.markProcessed(event.getEventId());
+            }
+            outcome = "success";
+        } finally {
+            if (metrics != null) {
+                metrics.recordProcessing(event, outcome, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void processWithRetry(Event<K, T> event) {
+        Duration backOff = retryPolicy.initialInterval();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                process(event);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= retryPolicy.maxAttempts() || e instanceof InvalidInputException) {
+                    throw e;
+                }
+                log.debug("Attempt {} to process event with key {} on {} failed, retry in {} ms: {}",
+                        attempt, event.getKey(), name, backOff.toMillis(), e.toString());
+                sleep(backOff);
+                backOff = retryPolicy.nextInterval(backOff);
+            }
+        }
+    }
+
+    private void settle(Message<?> message, AckHandle ackHandle, CompletionWatermark watermark, Throwable failure) {
+        boolean settled = false;
+        if (failure != null) {
+            Throwable cause = unwrap(failure);
+            log.error("Failed to process message at position {} on {}: {}", ackHandle.position(), name, cause.toString());
+            settled = ackHandle.reject(cause);
+            if (!settled && deadLetters != null) {
+                deadLetters.accept(message, cause);
+            }
+        }
+        watermark.complete(ackHandle, settled);
+    }
+
+    private static boolean awaitCompletion(CompletionWatermark watermark, Duration timeout) {
+        try {
+            return watermark.awaitCompletion(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+}
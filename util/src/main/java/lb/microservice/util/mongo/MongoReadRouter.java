@@ -0,0 +1,74 @@
+package lb.microservice.util.mongo;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Runs the reads of the GET paths with their own read preference, typically on replica set secondaries.
+ * The repositories keep the default template, so writes of the message consumers and the reads they do
+ * before writing stay on the primary.
+ * Reads are timed as {@code mongodb.reads}, tagged with collection, read preference and outcome.
+ */
+public class MongoReadRouter {
+
+    private static final String METRIC = "mongodb.reads";
+
+    private final ReactiveMongoTemplate template;
+    private final MeterRegistry registry;
+    private final String readPreference;
+
+    public MongoReadRouter(ReactiveMongoTemplate template, ReadPreference readPreference, MeterRegistry registry) {
+        this.template = template;
+        this.registry = registry;
+        this.readPreference = readPreference.getName();
+        template.setReadPreference(readPreference);
+    }
+
+    public String getReadPreference() {
+        return readPreference;
+    }
+
+    public <T> Mono<T> findOne(Query query, Class<T> entityClass) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = start();
+            return template.findOne(query, entityClass)
+                    .doFinally(signal -> stop(sample, entityClass, signal));
+        });
+    }
+
+    public <T> Flux<T> find(Query query, Class<T> entityClass) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = start();
+            return template.find(query, entityClass)
+                    .doFinally(signal -> stop(sample, entityClass, signal));
+        });
+    }
+
+    private Timer.Sample start() {
+        return registry == null ? null : Timer.start(registry);
+    }
+
+    private void stop(Timer.Sample sample, Class<?> entityClass, SignalType signal) {
+        if (sample == null) {
+            return;
+        }
+        String outcome = switch (signal) {
+            case ON_COMPLETE -> "success";
+            case CANCEL -> "cancelled";
+            default -> "failure";
+        };
+        sample.stop(Timer.builder(METRIC)
+                .description("Reads routed by read preference")
+                .tag("collection", template.getCollectionName(entityClass))
+                .tag("readPreference", readPreference)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
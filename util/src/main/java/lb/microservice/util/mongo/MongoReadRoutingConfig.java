@@ -0,0 +1,42 @@
+package lb.microservice.util.mongo;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read routing for the services backed by reactive MongoDB, configured by {@code app.mongodb.reads.readPreference}
+ * (a driver read preference name, default primary) and {@code app.mongodb.reads.maxStalenessSeconds}, how far
+ * a secondary may lag behind the primary and still serve reads (at least 90, the driver's minimum).
+ * The template is kept out of the context on purpose, a second ReactiveMongoOperations bean would replace
+ * the one the repositories write with.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(name = "org.springframework.data.mongodb.core.ReactiveMongoTemplate")
+public class MongoReadRoutingConfig {
+
+    @Bean
+    public MongoReadRouter mongoReadRouter(ReactiveMongoDatabaseFactory databaseFactory, MongoConverter converter,
+                                           ObjectProvider<MeterRegistry> registry,
+                                           @Value("${app.mongodb.reads.readPreference:primary}") String readPreferenceName,
+                                           @Value("${app.mongodb.reads.maxStalenessSeconds:0}") long maxStalenessSeconds) {
+        ReadPreference readPreference = "primary".equals(readPreferenceName) || maxStalenessSeconds <= 0
+                ? ReadPreference.valueOf(readPreferenceName)
+                : ReadPreference.valueOf(readPreferenceName, List.of(), maxStalenessSeconds, TimeUnit.SECONDS);
+        log.info("Routing reads of the GET paths with read preference {}", readPreference);
+        return new MongoReadRouter(new ReactiveMongoTemplate(databaseFactory, converter), readPreference,
+                registry.getIfAvailable());
+    }
+}
@@ -0,0 +1,10 @@
+package lb.microservice.util.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Subject and scopes of a bearer token the gateway has already verified, together with the token's expiry.
+ */
+public record TrustedPrincipal(String subject, List<String> scopes, Instant expiresAt) {
+}
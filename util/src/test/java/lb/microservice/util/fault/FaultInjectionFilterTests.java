@@ -0,0 +1,110 @@
+package lb.microservice.util.fault;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FaultInjectionFilterTests {
+
+    private final AtomicInteger handled = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> Mono.fromRunnable(handled::incrementAndGet);
+
+    @Test
+    void failsRequestsOfRouteWithFullFaultPercent() {
+        FaultInjectionFilter filter = filter(route("/product-composite/**", 0, 100, false));
+
+        StepVerifier.create(filter.filter(exchange("/product-composite/1"), chain))
+                .expectErrorMessage("Something went wrong...")
+                .verify();
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    void passesOtherRoutesUntouched() {
+        FaultInjectionFilter filter = filter(route("/product-composite/**", 0, 100, false));
+
+        StepVerifier.create(filter.filter(exchange("/actuator/health"), chain)).verifyComplete();
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void delaysRequests() {
+        FaultInjectionFilter filter = filter(route("/product-composite/**", 1000, 0, false));
+
+        StepVerifier.withVirtualTime(() -> filter.filter(exchange("/product-composite/1"), chain))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyComplete();
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void requestOverridesRouteSettings() {
+        FaultInjectionFilter filter = filter(route("/product-composite/**", 0, 0, true));
+
+        StepVerifier.create(filter.filter(exchange("/product-composite/1?faultPercent=100"), chain))
+                .expectError(RuntimeException.class)
+                .verify();
+        StepVerifier.create(filter.filter(exchange("/product-composite/1"), chain)).verifyComplete();
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void rejectsRequestOverridesThatAreNotNumbers() {
+        FaultInjectionFilter filter = filter(route("/product-composite/**", 0, 0, true));
+
+        assertRejected(filter, "/product-composite/1?faultPercent=abc", HttpStatus.BAD_REQUEST);
+        assertRejected(filter, "/product-composite/1?delay=1.5", HttpStatus.BAD_REQUEST);
+        assertRejected(filter, "/product-composite/1?delay=", HttpStatus.BAD_REQUEST);
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    void rejectsRequestOverridesOutOfRange() {
+        FaultInjectionFilter filter = filter(route("/product-composite/**", 0, 0, true));
+
+        assertRejected(filter, "/product-composite/1?faultPercent=101", HttpStatus.UNPROCESSABLE_ENTITY);
+        assertRejected(filter, "/product-composite/1?faultPercent=-1", HttpStatus.UNPROCESSABLE_ENTITY);
+        assertRejected(filter, "/product-composite/1?delay=-1", HttpStatus.UNPROCESSABLE_ENTITY);
+        assertRejected(filter, "/product-composite/1?delay=9223372036854775807", HttpStatus.UNPROCESSABLE_ENTITY);
+        assertEquals(0, handled.get());
+    }
+
+    private void assertRejected(FaultInjectionFilter filter, String uri, HttpStatus status) {
+        StepVerifier.create(filter.filter(exchange(uri), chain))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException r && r.getStatus() == status)
+                .verify();
+    }
+
+    private static FaultInjectionFilter filter(FaultInjectionProperties.Route route) {
+        FaultInjectionProperties properties = new FaultInjectionProperties();
+        properties.setEnabled(true);
+        properties.setRoutes(List.of(route));
+        return new FaultInjectionFilter(properties);
+    }
+
+    private static FaultInjectionProperties.Route route(String path, long delayMs, int faultPercent, boolean requestOverride) {
+        FaultInjectionProperties.Route route = new FaultInjectionProperties.Route();
+        route.setPath(path);
+        route.setDelayMs(delayMs);
+        route.setFaultPercent(faultPercent);
+        route.setRequestOverride(requestOverride);
+        return route;
+    }
+
+    private static MockServerWebExchange exchange(String uri) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+    }
+}
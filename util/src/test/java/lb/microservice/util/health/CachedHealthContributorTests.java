@@ -0,0 +1,106 @@
+package lb.microservice.util.health;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachedHealthContributorTests {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private Instant now = Instant.parse("2021-11-01T10:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    @Test
+    void servesPolledStatusWithoutCallingDownstream() {
+        try (CachedHealthContributor contributor = contributor(() -> Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return Health.up().build();
+        }))) {
+            contributor.pollNow().block();
+            for (int i = 0; i < 10; i++) {
+                indicator(contributor).health().block();
+            }
+            Health health = indicator(contributor).health().block();
+
+            assertEquals(Status.UP, health.getStatus());
+            assertEquals(now.toString(), health.getDetails().get("checkedAt"));
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    void reportsUnknownUntilChecked() {
+        try (CachedHealthContributor contributor = contributor(() -> Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return Health.up().build();
+        }))) {
+            Health health = indicator(contributor).health().block();
+
+            assertEquals(Status.UNKNOWN, health.getStatus());
+            assertEquals("Not checked yet", health.getDetails().get("reason"));
+            assertEquals(0, calls.get());
+        }
+    }
+
+    @Test
+    void reportsFailedCheckAsDown() {
+        try (CachedHealthContributor contributor = contributor(() -> Mono.error(new IllegalStateException("Connection refused")))) {
+            contributor.pollNow().block();
+
+            assertEquals(Status.DOWN, indicator(contributor).health().block().getStatus());
+        }
+    }
+
+    @Test
+    void reportsStaleStatusAsUnknown() {
+        try (CachedHealthContributor contributor = contributor(() -> Mono.just(Health.up().build()))) {
+            contributor.pollNow().block();
+            now = now.plusSeconds(31);
+
+            Health health = indicator(contributor).health().block();
+            assertEquals(Status.UNKNOWN, health.getStatus());
+            assertEquals(Status.UP, health.getDetails().get("lastStatus"));
+            assertEquals("PT31S", health.getDetails().get("age"));
+        }
+    }
+
+    private CachedHealthContributor contributor(Supplier<Mono<Health>> check) {
+        Map<String, Supplier<Mono<Health>>> checks = new LinkedHashMap<>();
+        checks.put("product", check);
+        return new CachedHealthContributor(checks, Duration.ofHours(1), Duration.ofSeconds(30), clock);
+    }
+
+    private ReactiveHealthIndicator indicator(CachedHealthContributor contributor) {
+        return (ReactiveHealthIndicator) contributor.getContributor("product");
+    }
+}
@@ -0,0 +1,147 @@
+package lb.microservice.util.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionWatermarkTests {
+
+    private final List<Long> acked = new CopyOnWriteArrayList<>();
+    private final CompletionWatermark watermark = new CompletionWatermark();
+
+    @Test
+    void acksOnlyUpToTheLowestIncompletePosition() {
+        Handle first = begin(10);
+        Handle second = begin(11);
+        Handle third = begin(12);
+
+        watermark.complete(third, false);
+        watermark.complete(second, false);
+        assertEquals(List.of(), acked);
+
+        watermark.complete(first, false);
+        assertEquals(List.of(12L), acked);
+        assertEquals(0, watermark.size());
+    }
+
+    @Test
+    void acksEachPrefixAsItCompletes() {
+        Handle first = begin(10);
+        Handle second = begin(11);
+        Handle third = begin(12);
+
+        watermark.complete(first, false);
+        watermark.complete(third, false);
+        assertEquals(List.of(10L), acked);
+        assertEquals(2, watermark.size());
+
+        watermark.complete(second, false);
+        assertEquals(List.of(10L, 12L), acked);
+    }
+
+    @Test
+    void settledPositionsAreNotAckedAgain() {
+        Handle first = begin(10);
+        Handle second = begin(11);
+
+        watermark.complete(second, true);
+        watermark.complete(first, false);
+
+        assertEquals(List.of(10L), acked);
+    }
+
+    @Test
+    void prefixEndingInASettledPositionIsCoveredByItsLastUnsettledOne() {
+        Handle first = begin(10);
+        Handle second = begin(11);
+        Handle third = begin(12);
+
+        watermark.complete(first, true);
+        watermark.complete(third, true);
+        watermark.complete(second, false);
+
+        assertEquals(List.of(11L), acked);
+    }
+
+    @Test
+    void unknownPositionsAreIgnored() {
+        begin(10);
+
+        watermark.complete(new Handle(11), false);
+
+        assertEquals(List.of(), acked);
+        assertEquals(1, watermark.size());
+    }
+
+    @Test
+    void discardedPositionsAreNeverAcked() {
+        Handle first = begin(10);
+
+        watermark.discard();
+        watermark.complete(first, false);
+
+        assertEquals(List.of(), acked);
+    }
+
+    @Test
+    void awaitCompletionWaitsForEveryPosition() throws InterruptedException {
+        Handle first = begin(10);
+        Handle second = begin(11);
+        watermark.complete(second, false);
+
+        assertFalse(watermark.awaitCompletion(Duration.ofMillis(10)));
+
+        ScheduledExecutorService completer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            completer.schedule(() -> watermark.complete(first, false), 50, TimeUnit.MILLISECONDS);
+            assertTrue(watermark.awaitCompletion(Duration.ofSeconds(10)));
+        } finally {
+            completer.shutdownNow();
+        }
+        assertEquals(List.of(11L), acked);
+    }
+
+    private Handle begin(long position) {
+        Handle handle = new Handle(position);
+        watermark.begin(handle);
+        return handle;
+    }
+
+    private class Handle implements AckHandle {
+
+        private final long position;
+
+        Handle(long position) {
+            this.position = position;
+        }
+
+        @Override
+        public Object stream() {
+            return "products-0";
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void ack() {
+            acked.add(position);
+        }
+
+        @Override
+        public boolean reject(Throwable cause) {
+            return false;
+        }
+    }
+}
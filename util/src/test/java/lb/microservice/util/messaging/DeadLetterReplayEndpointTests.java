@@ -0,0 +1,153 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.event.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = DeadLetterReplayEndpointTests.TestApplication.class,
+        properties = {"spring.cloud.function.definition=messageProcessor",
+                "spring.cloud.stream.bindings.messageProcessor-in-0.destination=products",
+                "spring.cloud.stream.bindings.messageProcessor-in-0.group=productsGroup",
+                "app.messaging.replay.binding=messageProcessor-in-0"})
+@Import(TestChannelBinderConfiguration.class)
+class DeadLetterReplayEndpointTests {
+
+    private static final List<Event<Integer, Product>> received = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DeadLetterReplayEndpoint endpoint;
+
+    @Autowired
+    private AvroEventMessageConverter avroConverter;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        received.clear();
+    }
+
+    @Test
+    void replaysJsonAndAvroDeadLettersThroughTheBinding() throws Exception {
+        Deque<DeadLetterQueue.DeadLetter> deadLetters = new ArrayDeque<>();
+        deadLetters.add(new DeadLetterQueue.DeadLetter(MessageBuilder
+                .withPayload(mapper.writeValueAsBytes(productEvent(1)))
+                .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+                .build(), 1));
+        deadLetters.add(new DeadLetterQueue.DeadLetter(toAvro(productEvent(2)), 2));
+        List<Object> removed = new ArrayList<>();
+
+        DeadLetterReplay replay = new DeadLetterReplay("messageProcessor-in-0", new DeadLetterQueue() {
+            @Override
+            public List<DeadLetter> poll(int maxMessages) {
+                return deadLetters.isEmpty() ? List.of() : List.of(deadLetters.poll());
+            }
+
+            @Override
+            public void remove(DeadLetter deadLetter) {
+                removed.add(deadLetter.position());
+            }
+
+            @Override
+            public void pass(DeadLetter deadLetter) {
+            }
+
+            @Override
+            public void commit() {
+            }
+
+            @Override
+            public void close() {
+            }
+        }, context.getBean("messageProcessor-in-0", MessageChannel.class), new MappingJackson2MessageConverter(),
+                Long.MAX_VALUE, 1000, 10, Set.of());
+        replay.run();
+
+        assertEquals("COMPLETED", replay.status().get("state").toString());
+        assertEquals(List.of(1, 2), removed);
+        assertEquals(2, received.size());
+        for (Event<Integer, Product> event : received) {
+            Product product = event.getData();
+            assertEquals(event.getKey(), product.getProductId());
+        }
+    }
+
+    @Test
+    void rejectsUnknownBindingsAndInvalidLimits() {
+        assertEquals(Map.of("state", "NONE"), endpoint.status());
+        assertThrows(IllegalArgumentException.class, () -> endpoint.replay("unknown-in-0", null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> endpoint.replay(null, null, 0.0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> endpoint.replay(null, null, null, 0, null));
+        assertEquals(Map.of("state", "NONE"), endpoint.status());
+    }
+
+    @Test
+    void endpointNeedsAReplayBinding() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+                .withBean(AvroEventMessageConverter.class, () -> avroConverter)
+                .withUserConfiguration(DeadLetterReplayEndpoint.class);
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(DeadLetterReplayEndpoint.class));
+        runner.withPropertyValues("app.messaging.replay.binding=messageProcessor-in-0")
+                .run(context -> assertThat(context).hasSingleBean(DeadLetterReplayEndpoint.class));
+    }
+
+    private static Event<Integer, Product> productEvent(int productId) {
+        return new Event<>(CREATE, productId, new Product(productId, "name " + productId, 1, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<byte[]> toAvro(Event<?, ?> event) {
+        return (Message<byte[]>) avroConverter.toMessage(event, new MessageHeaders(
+                Map.of(MessageHeaders.CONTENT_TYPE, MimeType.valueOf("application/vnd.event+avro"))));
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import({EventConsumerFactory.class, EventSerializationConfig.class, DeadLetterReplayEndpoint.class})
+    static class TestApplication {
+
+        @Bean
+        Consumer<Message<Event<Integer, Product>>> messageProcessor(EventConsumerFactory consumerFactory) {
+            return consumerFactory.create("messageProcessor-in-0", Product.class, received::add);
+        }
+    }
+}
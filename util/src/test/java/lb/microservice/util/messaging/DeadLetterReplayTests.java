@@ -0,0 +1,169 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lb.microservice.api.event.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static lb.microservice.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadLetterReplayTests {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TestQueue queue = new TestQueue();
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final MessageChannel input = (message, timeout) -> {
+        sent.add(message);
+        return true;
+    };
+
+    @Test
+    void pollsInBatchesAndCommitsEachBatch() throws Exception {
+        addDeadLetters(5, CREATE);
+
+        DeadLetterReplay replay = replay(Long.MAX_VALUE, 1000, 2, Set.of());
+        replay.run();
+
+        assertEquals(List.of(2, 2, 2, 2), queue.polls);
+        assertEquals(3, queue.commits);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), queue.removed);
+        assertEquals(5, sent.size());
+        assertEquals("COMPLETED", replay.status().get("state").toString());
+        assertTrue(queue.closed);
+    }
+
+    @Test
+    void stopsAfterMaxMessages() throws Exception {
+        addDeadLetters(5, CREATE);
+
+        DeadLetterReplay replay = replay(3, 1000, 2, Set.of());
+        replay.run();
+
+        assertEquals(List.of(2, 1), queue.polls);
+        assertEquals(3, sent.size());
+        assertEquals(2, queue.deadLetters.size());
+    }
+
+    @Test
+    void sendsAtMostRatePerSecond() throws Exception {
+        addDeadLetters(6, CREATE);
+
+        long start = System.nanoTime();
+        replay(Long.MAX_VALUE, 50, 10, Set.of()).run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // the first message goes out at once, each of the other five 20 ms after the previous one
+        assertEquals(6, sent.size());
+        assertTrue(elapsedMillis >= 100, "6 messages at 50/s took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void passesOverFilteredEventTypes() throws Exception {
+        addDeadLetters(2, CREATE);
+        addDeadLetters(2, DELETE);
+
+        DeadLetterReplay replay = replay(Long.MAX_VALUE, 1000, 10, Set.of("DELETE"));
+        replay.run();
+
+        assertEquals(List.of(2L, 3L), queue.removed);
+        assertEquals(List.of(0L, 1L), queue.passed);
+        assertEquals(2L, replay.status().get("replayed"));
+        assertEquals(2L, replay.status().get("skipped"));
+    }
+
+    @Test
+    void firstFailureStopsTheRunAndLeavesTheMessageQueued() throws Exception {
+        addDeadLetters(4, CREATE);
+        MessageChannel failingInput = (message, timeout) -> {
+            if (sent.size() == 2) {
+                throw new IllegalStateException("still failing");
+            }
+            sent.add(message);
+            return true;
+        };
+
+        DeadLetterReplay replay = new DeadLetterReplay("test-in-0", queue, failingInput, eventReader(),
+                Long.MAX_VALUE, 1000, 10, Set.of());
+        replay.run();
+
+        assertEquals(List.of(0L, 1L), queue.removed);
+        assertEquals("FAILED", replay.status().get("state").toString());
+        assertTrue(replay.status().get("lastError").toString().contains("still failing"));
+        assertEquals(1, queue.commits);
+        assertTrue(queue.closed);
+    }
+
+    private DeadLetterReplay replay(long maxMessages, double ratePerSecond, int batchSize, Set<String> eventTypes) {
+        return new DeadLetterReplay("test-in-0", queue, input, eventReader(), maxMessages, ratePerSecond, batchSize, eventTypes);
+    }
+
+    private MappingJackson2MessageConverter eventReader() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(mapper);
+        converter.setStrictContentTypeMatch(false);
+        return converter;
+    }
+
+    private void addDeadLetters(int count, Event.Type type) throws Exception {
+        for (int i = 0; i < count; i++) {
+            long position = queue.deadLetters.size();
+            Event<Integer, Object> event = new Event<>(type, (int) position, null);
+            queue.deadLetters.add(new DeadLetterQueue.DeadLetter(MessageBuilder.withPayload(mapper.writeValueAsBytes(event))
+                    .setHeader("contentType", "application/json")
+                    .build(), position));
+        }
+    }
+
+    private static class TestQueue implements DeadLetterQueue {
+
+        final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+        final List<Integer> polls = new ArrayList<>();
+        final List<Object> removed = new ArrayList<>();
+        final List<Object> passed = new ArrayList<>();
+        int commits;
+        boolean closed;
+
+        @Override
+        public List<DeadLetter> poll(int maxMessages) {
+            polls.add(maxMessages);
+            List<DeadLetter> batch = new ArrayList<>();
+            while (batch.size() < maxMessages && !deadLetters.isEmpty()) {
+                batch.add(deadLetters.poll());
+            }
+            return batch;
+        }
+
+        @Override
+        public void remove(DeadLetter deadLetter) {
+            removed.add(deadLetter.position());
+        }
+
+        @Override
+        public void pass(DeadLetter deadLetter) {
+            passed.add(deadLetter.position());
+        }
+
+        @Override
+        public void commit() {
+            commits++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
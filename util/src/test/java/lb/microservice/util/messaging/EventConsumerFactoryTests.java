@@ -0,0 +1,96 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lb.microservice.api.core.product.Product;
+import lb.microservice.api.event.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static lb.microservice.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(classes = EventConsumerFactoryTests.TestApplication.class,
+        properties = {"spring.cloud.function.definition=messageProcessor",
+                "spring.cloud.stream.bindings.messageProcessor-in-0.destination=products",
+                "spring.cloud.stream.bindings.messageProcessor-in-0.group=productsGroup"})
+@Import(TestChannelBinderConfiguration.class)
+class EventConsumerFactoryTests {
+
+    private static final List<Event<Integer, Product>> received = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private InputDestination input;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        received.clear();
+    }
+
+    @Test
+    void jsonEventDataReachesHandlerAsDataType() throws Exception {
+        Event<Integer, Product> event = new Event<>(CREATE, 1, new Product(1, "name", 1, null));
+        sendJson(event);
+
+        assertEquals(1, received.size());
+        Event<Integer, Product> handled = received.get(0);
+        assertEquals(event.getEventId(), handled.getEventId());
+        assertEquals(CREATE, handled.getEventType());
+        assertEquals(1, handled.getKey());
+        // Fails with a ClassCastException if the data is still a map
+        Product product = handled.getData();
+        assertEquals(1, product.getProductId());
+        assertEquals("name", product.getName());
+    }
+
+    @Test
+    void jsonEventWithoutData() throws Exception {
+        sendJson(new Event<Integer, Product>(DELETE, 1, null));
+
+        assertEquals(1, received.size());
+        assertEquals(DELETE, received.get(0).getEventType());
+        assertNull(received.get(0).getData());
+    }
+
+    private void sendJson(Event<Integer, Product> event) throws Exception {
+        input.send(MessageBuilder.withPayload(mapper.writeValueAsBytes(event))
+                .setHeader("contentType", "application/json")
+                .build(), "products");
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(EventConsumerFactory.class)
+    static class TestApplication {
+
+        @Bean
+        Consumer<Message<Event<Integer, Product>>> messageProcessor(EventConsumerFactory consumerFactory) {
+            return consumerFactory.create("messageProcessor-in-0", Product.class, event -> {
+                // Touch the data with its declared type, like the core services' handlers do
+                Product product = event.getData();
+                if (product != null) {
+                    product.getProductId();
+                }
+                received.add(event);
+            });
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lb.microservice.api.event.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventDeduplicatorTests {
+
+    @Test
+    void processedIdsAreDuplicates() {
+        EventDeduplicator deduplicator = new EventDeduplicator(10);
+
+        assertFalse(deduplicator.isDuplicate("a"));
+        deduplicator.markProcessed("a");
+
+        assertTrue(deduplicator.isDuplicate("a"));
+        assertFalse(deduplicator.isDuplicate("b"));
+        assertFalse(deduplicator.isDuplicate(null));
+    }
+
+    @Test
+    void oldestIdIsEvictedAtCapacity() {
+        EventDeduplicator deduplicator = new EventDeduplicator(3);
+        List.of("a", "b", "c", "a", "d").forEach(deduplicator::markProcessed);
+
+        assertFalse(deduplicator.isDuplicate("a"));
+        assertTrue(deduplicator.isDuplicate("b"));
+        assertTrue(deduplicator.isDuplicate("c"));
+        assertTrue(deduplicator.isDuplicate("d"));
+    }
+
+    @Test
+    void bloomGenerationsAlwaysCoverTheExactStore() {
+        int capacity = 50;
+        EventDeduplicator deduplicator = new EventDeduplicator(capacity);
+
+        for (int i = 0; i < 10 * capacity; i++) {
+            deduplicator.markProcessed("event-" + i);
+            int newest = i;
+            IntStream.rangeClosed(Math.max(0, newest - capacity + 1), newest)
+                    .forEach(id -> assertTrue(deduplicator.isDuplicate("event-" + id), "event-" + id + " after " + newest));
+        }
+        assertFalse(deduplicator.isDuplicate("event-" + (9 * capacity - 1)));
+    }
+
+    @Test
+    void bloomFalsePositiveFallsThroughToTheExactStore() {
+        int capacity = 10;
+        List<String> processed = IntStream.range(0, capacity).mapToObj(i -> "event-" + i).toList();
+        EventDeduplicator deduplicator = new EventDeduplicator(capacity);
+        processed.forEach(deduplicator::markProcessed);
+
+        // Same sizing as the deduplicator's current generation, which holds exactly these ids
+        BloomFilter filter = new BloomFilter(capacity, 0.01);
+        processed.forEach(filter::put);
+        String falsePositive = IntStream.range(0, 1_000_000).mapToObj(i -> "other-" + i)
+                .filter(filter::mightContain)
+                .findFirst()
+                .orElseThrow();
+
+        assertFalse(deduplicator.isDuplicate(falsePositive));
+    }
+
+    @Test
+    void zeroDedupCapacityDisablesDeduplication() {
+        assertEquals(2, handledOnRedelivery("0"));
+        assertEquals(1, handledOnRedelivery("100"));
+    }
+
+    private int handledOnRedelivery(String dedupCapacity) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        EventConsumerFactory consumerFactory = new EventConsumerFactory(
+                new MockEnvironment().withProperty("app.messaging.dedupCapacity", dedupCapacity),
+                beanFactory.getBeanProvider(StreamBridge.class), beanFactory.getBeanProvider(MeterRegistry.class),
+                beanFactory, new ObjectMapper());
+        List<Event<Integer, String>> handled = new CopyOnWriteArrayList<>();
+        ShardedEventConsumer<Integer, String> consumer = consumerFactory.create("messageProcessor-in-0", String.class, handled::add);
+        try {
+            Message<Event<Integer, String>> message = MessageBuilder.withPayload(new Event<>(CREATE, 1, "product")).build();
+            consumer.accept(message);
+            consumer.accept(message);
+        } finally {
+            consumerFactory.destroy();
+        }
+        return handled.size();
+    }
+}
@@ -0,0 +1,85 @@
+package lb.microservice.util.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lb.microservice.api.event.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static lb.microservice.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventMetricsEndpointTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EventMetricsEndpoint endpoint = new EventMetricsEndpoint(registry);
+
+    @Test
+    void summarizesEachBinding() {
+        EventMetrics products = new EventMetrics(registry, "products", "productsGroup");
+        products.gaugeInFlight(this, source -> 3);
+        products.gaugeLag(this, source -> 42);
+        products.recordAge(event(CREATE, ZonedDateTime.now().minusSeconds(2)));
+        products.recordAge(event(CREATE, ZonedDateTime.now().minusSeconds(4)));
+        products.recordAge(event(DELETE, ZonedDateTime.now().plusSeconds(5)));
+        products.recordProcessing(event(CREATE, null), "success", TimeUnit.MILLISECONDS.toNanos(10));
+        products.recordProcessing(event(CREATE, null), "success", TimeUnit.MILLISECONDS.toNanos(30));
+        products.recordProcessing(event(CREATE, null), "duplicate", TimeUnit.MILLISECONDS.toNanos(1));
+        EventMetrics reviews = new EventMetrics(registry, "reviews", "reviewsGroup");
+        reviews.gaugeInFlight(this, source -> 0);
+
+        Map<String, Map<String, Object>> events = endpoint.events();
+
+        assertEquals(2, events.size());
+        Map<String, Object> summary = events.get("products");
+        assertEquals("productsGroup", summary.get("group"));
+        assertEquals(3.0, summary.get("inFlight"));
+        assertEquals(42.0, summary.get("lag"));
+
+        Map<String, Object> createAge = timer(summary, "age", "CREATE");
+        assertEquals(2L, createAge.get("count"));
+        assertTrue((double) createAge.get("maxMs") >= 4000);
+        assertTrue(createAge.containsKey("p50Ms"));
+        assertTrue(createAge.containsKey("p99Ms"));
+        // Clock skew is recorded as no age rather than a negative one
+        assertEquals(0.0, timer(summary, "age", "DELETE").get("maxMs"));
+
+        assertEquals(2L, timer(summary, "processing", "CREATE.success").get("count"));
+        assertEquals(20.0, timer(summary, "processing", "CREATE.success").get("meanMs"));
+        assertEquals(1L, timer(summary, "processing", "CREATE.duplicate").get("count"));
+
+        assertEquals(Map.of("group", "reviewsGroup", "inFlight", 0.0), events.get("reviews"));
+    }
+
+    @Test
+    void eventsWithoutCreationTimeHaveNoAge() {
+        new EventMetrics(registry, "products", "productsGroup").recordAge(event(CREATE, null));
+
+        assertEquals(Map.of(), endpoint.events());
+    }
+
+    @Test
+    void timersAreRegisteredOncePerTypeAndOutcome() {
+        EventMetrics products = new EventMetrics(registry, "products", "productsGroup");
+        for (int i = 0; i < 10; i++) {
+            products.recordProcessing(event(CREATE, null), "success", 1);
+            products.recordProcessing(event(CREATE, null), "failure", 1);
+        }
+
+        assertEquals(2, registry.find(EventMetrics.PROCESSING).timers().size());
+        assertEquals(10, registry.get(EventMetrics.PROCESSING).tag("outcome", "success").timer().count());
+    }
+
+    private static Event<Integer, String> event(Event.Type type, ZonedDateTime createdAt) {
+        return new Event<>("id", type, 1, null, createdAt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> timer(Map<String, Object> summary, String section, String name) {
+        return ((Map<String, Map<String, Object>>) summary.get(section)).get(name);
+    }
+}
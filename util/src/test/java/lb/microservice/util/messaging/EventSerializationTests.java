@@ -0,0 +1,81 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lb.microservice.api.core.recommendation.Recommendation;
+import lb.microservice.api.core.review.Review;
+import lb.microservice.api.event.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static lb.microservice.api.event.Event.Type.DELETE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips through the Avro event encoding. Its CPU cost against JSON is measured by EventSerializationBenchmark
+ * in the benchmarks module.
+ */
+class EventSerializationTests {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AvroEventMessageConverter converter =
+            new AvroEventMessageConverter(new LocalSchemaRegistry("classpath*:schemas/*.avsc"), mapper);
+
+    private final Event<Integer, Review> reviewEvent = new Event<>(CREATE, 1,
+            new Review(1, 2, "author", "subject", "A review long enough to look like a real one, more or less.", null));
+
+    @Test
+    void avroRoundTrip() {
+        Event<Integer, Recommendation> event = new Event<>(CREATE, 1, new Recommendation(1, 2, "author", 5, "content", null));
+
+        Event<?, ?> result = fromAvro(toAvro(event, "application/vnd.event+avro"));
+
+        assertEquals(event.getEventId(), result.getEventId());
+        assertEquals(event.getEventType(), result.getEventType());
+        assertEquals(event.getKey(), result.getKey());
+        assertEquals(event.getEventCreatedAt().truncatedTo(ChronoUnit.MICROS), result.getEventCreatedAt());
+        Recommendation data = (Recommendation) result.getData();
+        assertEquals(2, data.getRecommendationId());
+        assertEquals("author", data.getAuthor());
+        assertEquals(5, data.getRating());
+        assertEquals("content", data.getContent());
+    }
+
+    @Test
+    void deflatedDeleteEventRoundTrip() {
+        Event<Integer, Object> event = new Event<>(DELETE, 1, null);
+
+        Event<?, ?> result = fromAvro(toAvro(event, "application/vnd.event+avro;codec=deflate"));
+
+        assertEquals(DELETE, result.getEventType());
+        assertEquals(1, result.getKey());
+        assertNull(result.getData());
+    }
+
+    @Test
+    void avroIsSmallerThanJson() throws Exception {
+        byte[] json = mapper.writeValueAsBytes(reviewEvent);
+        byte[] avro = toAvro(reviewEvent, "application/vnd.event+avro").getPayload();
+
+        assertTrue(avro.length < json.length, "avro " + avro.length + " vs json " + json.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<byte[]> toAvro(Event<?, ?> event, String contentType) {
+        return (Message<byte[]>) converter.toMessage(event,
+                new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, MimeType.valueOf(contentType))));
+    }
+
+    private Event<?, ?> fromAvro(Message<byte[]> message) {
+        return (Event<?, ?>) converter.fromMessage(MessageBuilder.fromMessage(message).build(), Event.class);
+    }
+}
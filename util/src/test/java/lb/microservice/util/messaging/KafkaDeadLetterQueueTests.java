@@ -0,0 +1,133 @@
+package lb.microservice.util.messaging;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KafkaDeadLetterQueueTests {
+
+    private static final String TOPIC = "error.products.productsGroup";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private KafkaDeadLetterQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new KafkaDeadLetterQueue(consumer, TOPIC);
+        consumer.rebalance(List.of(PARTITION));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+    }
+
+    @Test
+    void returnsAtMostMaxMessagesAndRereadsTheRest() {
+        for (long offset = 0; offset < 5; offset++) {
+            addRecord(consumer, offset);
+        }
+
+        List<DeadLetterQueue.DeadLetter> first = queue.poll(3);
+
+        assertEquals(List.of(0L, 1L, 2L), offsets(first));
+        assertEquals(3L, consumer.position(PARTITION));
+
+        // the mock hands out records once, the broker would fetch them again from the rewound position
+        addRecord(consumer, 3);
+        addRecord(consumer, 4);
+        List<DeadLetterQueue.DeadLetter> second = queue.poll(3);
+
+        assertEquals(List.of(3L, 4L), offsets(second));
+        assertEquals("application/json", first.get(0).message().getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        assertTrue(queue.poll(3).isEmpty());
+    }
+
+    @Test
+    void commitsOnlyTheRemovedRecordsInFrontOfTheFirstPassedOne() {
+        for (long offset = 0; offset < 4; offset++) {
+            addRecord(consumer, offset);
+        }
+        List<DeadLetterQueue.DeadLetter> batch = queue.poll(10);
+
+        queue.remove(batch.get(0));
+        queue.pass(batch.get(1));
+        queue.remove(batch.get(2));
+        queue.commit();
+        queue.remove(batch.get(3));
+        queue.commit();
+
+        assertEquals(1L, committed(consumer));
+    }
+
+    @Test
+    void replayWithoutFilterReadsTheRecordsPassedByAFilteredOne() {
+        for (long offset = 0; offset < 4; offset++) {
+            addRecord(consumer, offset);
+        }
+        // the filtered replay takes the even offsets only
+        List<DeadLetterQueue.DeadLetter> filtered = queue.poll(10);
+        for (DeadLetterQueue.DeadLetter deadLetter : filtered) {
+            if (((ConsumerRecord<?, ?>) deadLetter.position()).offset() % 2 == 0) {
+                queue.remove(deadLetter);
+            } else {
+                queue.pass(deadLetter);
+            }
+        }
+        queue.commit();
+        long committed = committed(consumer);
+        queue.close();
+
+        assertEquals(1L, committed);
+
+        // the next replay joins the same group and starts from its committed offset
+        MockConsumer<byte[], byte[]> next = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        KafkaDeadLetterQueue unfiltered = new KafkaDeadLetterQueue(next, TOPIC);
+        next.rebalance(List.of(PARTITION));
+        next.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        next.commitSync(Map.of(PARTITION, new OffsetAndMetadata(committed)));
+        for (long offset = 0; offset < 4; offset++) {
+            addRecord(next, offset);
+        }
+        List<DeadLetterQueue.DeadLetter> all = unfiltered.poll(10);
+        all.forEach(unfiltered::remove);
+        unfiltered.commit();
+
+        assertEquals(List.of(1L, 2L, 3L), offsets(all));
+        assertEquals(4L, committed(next));
+    }
+
+    @Test
+    void commitWithoutProgressCommitsNothing() {
+        queue.commit();
+
+        assertNull(consumer.committed(Set.of(PARTITION)).get(PARTITION));
+    }
+
+    private static void addRecord(MockConsumer<byte[], byte[]> consumer, long offset) {
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>(TOPIC, 0, offset, null,
+                ("message " + offset).getBytes(StandardCharsets.UTF_8));
+        // the binder writes the content type header as a JSON string
+        record.headers().add(MessageHeaders.CONTENT_TYPE, "\"application/json\"".getBytes(StandardCharsets.UTF_8));
+        consumer.addRecord(record);
+    }
+
+    private static long committed(MockConsumer<?, ?> consumer) {
+        return consumer.committed(Set.of(PARTITION)).get(PARTITION).offset();
+    }
+
+    private static List<Long> offsets(List<DeadLetterQueue.DeadLetter> deadLetters) {
+        return deadLetters.stream().map(d -> ((ConsumerRecord<?, ?>) d.position()).offset()).toList();
+    }
+}
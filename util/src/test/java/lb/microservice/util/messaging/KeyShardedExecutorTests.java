@@ -0,0 +1,120 @@
+package lb.microservice.util.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyShardedExecutorTests {
+
+    private static final int LANES = 4;
+
+    private final KeyShardedExecutor executor = new KeyShardedExecutor("products", LANES, 100);
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void tasksOfAKeyRunInSubmissionOrder() throws Exception {
+        Map<Integer, List<Integer>> runs = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int sequence = 0; sequence < 2000; sequence++) {
+            int key = sequence % 20;
+            int current = sequence;
+            results.add(executor.submit(key, () -> {
+                if (ThreadLocalRandom.current().nextInt(50) == 0) {
+                    Thread.yield();
+                }
+                runs.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(current);
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(20, runs.size());
+        runs.forEach((key, sequences) -> assertEquals(
+                IntStream.iterate(key, sequence -> sequence < 2000, sequence -> sequence + 20).boxed().toList(), sequences));
+        assertEquals(0, executor.getInFlight());
+    }
+
+    @Test
+    void keysOnOtherLanesRunWhileALaneIsBlocked() throws Exception {
+        int blockedKey = 1;
+        int otherKey = keyOnAnotherLane(blockedKey);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> blocked = executor.submit(blockedKey, () -> {
+            await(release);
+            runs.add("blocked");
+        });
+        CompletableFuture<Void> sameKey = executor.submit(blockedKey, () -> runs.add("same key"));
+        executor.submit(otherKey, () -> runs.add("other key")).get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("other key"), runs);
+        assertFalse(sameKey.isDone());
+        assertEquals(2, executor.getInFlight());
+
+        release.countDown();
+        sameKey.get(10, TimeUnit.SECONDS);
+        assertTrue(blocked.isDone());
+        assertEquals(List.of("other key", "blocked", "same key"), runs);
+    }
+
+    @Test
+    void failedTaskFailsItsResultOnly() throws Exception {
+        CompletableFuture<Void> failed = executor.submit(1, () -> {
+            throw new IllegalStateException("Boom");
+        });
+        CompletableFuture<Void> next = executor.submit(1, () -> {});
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        next.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void closedExecutorRejectsTasks() {
+        executor.close();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(1, () -> {}));
+    }
+
+    @Test
+    void nullKeyRunsOnTheFirstLane() {
+        assertEquals(0, executor.laneIndex(null));
+    }
+
+    private int keyOnAnotherLane(int key) {
+        int other = key + 1;
+        while (executor.laneIndex(other) == executor.laneIndex(key)) {
+            other++;
+        }
+        return other;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package lb.microservice.util.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.messaging.MessageHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RabbitDeadLetterQueueTests {
+
+    private static final String QUEUE = "products.productsGroup.dlq";
+
+    private final Channel channel = mock(Channel.class);
+    private final Connection connection = mock(Connection.class);
+    private RabbitDeadLetterQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createChannel(false)).thenReturn(channel);
+        queue = new RabbitDeadLetterQueue(connectionFactory, QUEUE);
+    }
+
+    @Test
+    void pollsAtMostMaxMessages() throws Exception {
+        when(channel.basicGet(QUEUE, false)).thenReturn(response(1), response(2), response(3), null);
+
+        List<DeadLetterQueue.DeadLetter> batch = queue.poll(2);
+
+        assertEquals(2, batch.size());
+        assertEquals(1L, batch.get(0).position());
+        assertEquals("message 1", new String(batch.get(0).message().getPayload(), StandardCharsets.UTF_8));
+        assertEquals("application/json", batch.get(0).message().getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        assertEquals(List.of(3L), queue.poll(2).stream().map(DeadLetterQueue.DeadLetter::position).toList());
+        assertEquals(List.of(), queue.poll(2));
+    }
+
+    @Test
+    void removeAcksAndCloseRequeuesTheRest() throws Exception {
+        when(channel.basicGet(QUEUE, false)).thenReturn(response(1), response(2), null);
+        List<DeadLetterQueue.DeadLetter> batch = queue.poll(10);
+
+        queue.remove(batch.get(0));
+        queue.pass(batch.get(1));
+        queue.commit();
+        queue.close();
+
+        verify(channel).basicAck(1L, false);
+        verify(channel, never()).basicAck(eq(2L), eq(false));
+        verify(channel, never()).basicNack(eq(1L), eq(false), eq(true));
+        verify(channel).basicNack(2L, false, true);
+        verify(channel).close();
+        verify(connection).close();
+    }
+
+    @Test
+    void closeWithoutPollsRequeuesNothing() throws Exception {
+        queue.close();
+
+        verify(channel, never()).basicNack(anyLong(), eq(false), eq(true));
+        verify(connection).close();
+    }
+
+    private static GetResponse response(long deliveryTag) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().contentType("application/json").build();
+        return new GetResponse(new Envelope(deliveryTag, false, "", QUEUE), properties,
+                ("message " + deliveryTag).getBytes(StandardCharsets.UTF_8), 0);
+    }
+}
@@ -0,0 +1,72 @@
+package lb.microservice.util.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RabbitQueueBacklogTests {
+
+    private static final String QUEUE = "products.productsGroup";
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    private final Channel channel = mock(Channel.class);
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    private long nanoTime;
+    private RabbitQueueBacklog backlog;
+
+    @BeforeEach
+    void setUp() {
+        Connection connection = mock(Connection.class);
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createChannel(false)).thenReturn(channel);
+        beanFactory.addBean("rabbitConnectionFactory", connectionFactory);
+        backlog = new RabbitQueueBacklog(beanFactory, QUEUE, REFRESH_INTERVAL, () -> nanoTime);
+    }
+
+    @Test
+    void messageCountIsAskedAtMostOncePerRefreshInterval() throws IOException {
+        when(channel.queueDeclarePassive(QUEUE)).thenReturn(declareOk(42), declareOk(7));
+
+        assertEquals(42.0, backlog.messageCount());
+        nanoTime += REFRESH_INTERVAL.toNanos() - 1;
+        assertEquals(42.0, backlog.messageCount());
+        verify(channel, times(1)).queueDeclarePassive(QUEUE);
+
+        nanoTime += 1;
+        assertEquals(7.0, backlog.messageCount());
+        verify(channel, times(2)).queueDeclarePassive(QUEUE);
+    }
+
+    @Test
+    void missingQueueHasNoCount() throws IOException {
+        when(channel.queueDeclarePassive(QUEUE)).thenThrow(new IOException("NOT_FOUND - no queue"));
+
+        assertEquals(Double.NaN, backlog.messageCount());
+    }
+
+    @Test
+    void missingConnectionFactoryHasNoCount() {
+        RabbitQueueBacklog withoutRabbit = new RabbitQueueBacklog(new StaticListableBeanFactory(), QUEUE, REFRESH_INTERVAL,
+                () -> nanoTime);
+
+        assertEquals(Double.NaN, withoutRabbit.messageCount());
+    }
+
+    private static AMQP.Queue.DeclareOk declareOk(int messageCount) {
+        return new AMQP.Queue.DeclareOk.Builder().queue(QUEUE).messageCount(messageCount).consumerCount(1).build();
+    }
+}
@@ -0,0 +1,136 @@
+package lb.microservice.util.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lb.microservice.api.event.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static lb.microservice.api.event.Event.Type.CREATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedEventConsumerTests {
+
+    // With two lanes, key 1 runs on lane 1 and key 2 on lane 0
+    private static final int KEY_ON_LANE_1 = 1;
+    private static final int KEY_ON_LANE_0 = 2;
+
+    private final Map<Integer, CountDownLatch> blocked = new ConcurrentHashMap<>();
+    private final List<String> acked = new CopyOnWriteArrayList<>();
+    private final ShardedEventConsumer<Integer, Integer> consumer = new ShardedEventConsumer<>("products", Integer.class,
+            new ObjectMapper(), event -> await(blocked.get(event.getData())), 2, 10,
+            new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 1), null, null, null);
+
+    @AfterEach
+    void tearDown() {
+        blocked.values().forEach(CountDownLatch::countDown);
+        consumer.close();
+    }
+
+    @Test
+    void ackNeverPassesTheLowestIncompletePositionAcrossLanes() {
+        CountDownLatch first = block(1);
+        send(KEY_ON_LANE_1, 0, 10, 1);
+        send(KEY_ON_LANE_0, 0, 11, 2);
+        awaitInFlight(1);
+
+        assertEquals(List.of(), acked);
+
+        first.countDown();
+        assertTrue(consumer.drain(List.of("products-0"), Duration.ofSeconds(10)));
+        assertEquals(List.of("products-0@11"), acked);
+    }
+
+    @Test
+    void drainWaitsOnlyForTheRevokedPartitions() {
+        CountDownLatch partition0 = block(1);
+        block(2);
+        send(KEY_ON_LANE_1, 0, 10, 1);
+        send(KEY_ON_LANE_0, 1, 20, 2);
+
+        partition0.countDown();
+
+        assertTrue(consumer.drain(List.of("products-0"), Duration.ofSeconds(10)));
+        assertEquals(List.of("products-0@10"), acked);
+        assertEquals(1, consumer.getInFlight());
+    }
+
+    @Test
+    void drainWaitsForEveryPositionOfThePartition() throws InterruptedException {
+        CountDownLatch first = block(1);
+        send(KEY_ON_LANE_1, 0, 10, 1);
+        send(KEY_ON_LANE_0, 0, 11, 2);
+
+        Thread releaser = new Thread(() -> {
+            awaitInFlight(1);
+            first.countDown();
+        });
+        releaser.start();
+        assertTrue(consumer.drain(List.of("products-0"), Duration.ofSeconds(10)));
+        releaser.join();
+
+        assertEquals(List.of("products-0@11"), acked);
+    }
+
+    @Test
+    void drainTimeoutStopsAcknowledgingThePartition() {
+        CountDownLatch partition0 = block(1);
+        send(KEY_ON_LANE_1, 0, 10, 1);
+
+        assertFalse(consumer.drain(List.of("products-0"), Duration.ofMillis(20)));
+        partition0.countDown();
+        send(KEY_ON_LANE_1, 0, 11, 2);
+        consumer.close();
+
+        assertEquals(List.of("products-0@11"), acked);
+    }
+
+    @Test
+    void drainWithoutEventsInFlight() {
+        assertTrue(consumer.drain(List.of("products-0", "products-1"), Duration.ZERO));
+    }
+
+    private CountDownLatch block(int data) {
+        CountDownLatch latch = new CountDownLatch(1);
+        blocked.put(data, latch);
+        return latch;
+    }
+
+    private void send(int key, int partition, long offset, int data) {
+        String position = "products-" + partition + "@" + offset;
+        consumer.accept(MessageBuilder.withPayload(new Event<>(CREATE, key, data))
+                .setHeader(KafkaHeaders.ACKNOWLEDGMENT, (Acknowledgment) () -> acked.add(position))
+                .setHeader(KafkaHeaders.RECEIVED_TOPIC, "products")
+                .setHeader(KafkaHeaders.RECEIVED_PARTITION_ID, partition)
+                .setHeader(KafkaHeaders.OFFSET, offset)
+                .build());
+    }
+
+    private void awaitInFlight(int inFlight) {
+        while (consumer.getInFlight() != inFlight) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        if (latch == null) {
+            return;
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}